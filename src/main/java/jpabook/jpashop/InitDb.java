@@ -1,8 +1,15 @@
 package jpabook.jpashop;
 
+import jpabook.jpashop.catalog.CatalogService;
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.version.Aggregate;
+import jpabook.jpashop.version.DataVersion;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,19 +25,52 @@ import javax.persistence.EntityManager;
  *   * SPRING1 BOOK
  *   * SPRING2 BOOK
  */
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class InitDb {
 
     private final InitService initService;
+    private final DataVersion dataVersion;
+    private final CatalogService catalogService;
+
+    // true 면 기동을 막지 않도록 준비 완료 후 별도 스레드에서 입력 ( fast-start 프로파일 )
+    @Value("${jpashop.startup.background-seed:false}")
+    private boolean backgroundSeed;
 
     @PostConstruct  // 서버 띄울때 초기에 실행 됨
     public void init(){
+        if (backgroundSeed) {
+            return;
+        }
         initService.dbInit1();
         initService.dbInit2();
 
     }
 
+    @EventListener(ApplicationReadyEvent.class)
+    public void initInBackground(){
+        if (!backgroundSeed) {
+            return;
+        }
+        Thread seeder = new Thread(() -> {
+            long start = System.currentTimeMillis();
+            // ddl-auto 가 create 가 아니면 이전 기동 때 넣은 데이터가 남아 있음
+            if (initService.hasData()) {
+                log.info("init data exists, skip seeding");
+                return;
+            }
+            initService.dbInit1();
+            initService.dbInit2();
+            // 기동 후에 넣었으므로 이미 만들어진 ETag / 렌더링 캐시 / 카탈로그 캐시를 무효화
+            dataVersion.bump(Aggregate.MEMBER, Aggregate.ITEM, Aggregate.ORDER);
+            catalogService.refresh();
+            log.info("init data seeded in background. {}ms", System.currentTimeMillis() - start);
+        }, "init-db");
+        seeder.setDaemon(true);
+        seeder.start();
+    }
+
     @Component
     @Transactional
     @RequiredArgsConstructor
@@ -38,6 +78,13 @@ public class InitDb {
 
         private final EntityManager em;
 
+        public boolean hasData(){
+            return !em.createQuery("select m.id from Member m", Long.class)
+                    .setMaxResults(1)
+                    .getResultList()
+                    .isEmpty();
+        }
+
         public void dbInit1(){
             Member member = new Member();
             member.setName("userA");
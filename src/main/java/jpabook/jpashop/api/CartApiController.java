@@ -0,0 +1,83 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.cart.CartDto;
+import jpabook.jpashop.cart.CartService;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+@RestController
+@RequiredArgsConstructor
+public class CartApiController {
+
+    private final CartService cartService;
+
+    //======================= 장바구니 ( 메모리 ) ======================= //
+    @GetMapping("/api/carts/{memberId}")
+    public CartDto cart(@PathVariable("memberId") Long memberId){
+        return cartService.find(memberId);
+    }
+
+    @PostMapping("/api/carts/{memberId}/items")
+    public CartDto addItem(@PathVariable("memberId") Long memberId, @RequestBody @Valid AddCartItemRequest request){
+        return cartService.add(memberId, request.getItemId(), request.getCount());
+    }
+
+    @DeleteMapping("/api/carts/{memberId}/items/{itemId}")
+    public CartDto removeItem(@PathVariable("memberId") Long memberId, @PathVariable("itemId") Long itemId){
+        return cartService.remove(memberId, itemId);
+    }
+
+    @DeleteMapping("/api/carts/{memberId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void clear(@PathVariable("memberId") Long memberId){
+        cartService.clear(memberId);
+    }
+
+    // 장바구니 전체를 주문 하나로
+    @PostMapping("/api/carts/{memberId}/checkout")
+    public CheckoutResponse checkout(@PathVariable("memberId") Long memberId){
+        return new CheckoutResponse(cartService.checkout(memberId));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String badRequest(IllegalArgumentException e){
+        return e.getMessage();
+    }
+
+    @ExceptionHandler(NotEnoughStockException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public String notEnoughStock(NotEnoughStockException e){
+        return e.getMessage();
+    }
+
+    // 재시도 후에도 동시 주문과 충돌
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public String concurrencyFailure(ConcurrencyFailureException e){
+        return "다른 주문과 충돌했습니다. 다시 시도해 주세요.";
+    }
+
+    @Data
+    static class AddCartItemRequest {
+        @NotNull
+        private Long itemId;
+        @Min(1)
+        private int count;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CheckoutResponse {
+        private Long orderId;
+    }
+}
@@ -0,0 +1,44 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.delivery.DeliveryBatchResult;
+import jpabook.jpashop.delivery.DeliveryCheckpointDto;
+import jpabook.jpashop.delivery.DeliveryStatusBatchJob;
+import jpabook.jpashop.domain.DeliveryStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class DeliveryBatchApiController {
+
+    private final DeliveryStatusBatchJob deliveryStatusBatchJob;
+
+    // 배송 상태 일괄 변경 ( 끝날 때까지 기다림, 중간에 실패하면 다시 호출해서 이어서 진행 )
+    @PostMapping("/api/admin/deliveries/status")
+    public DeliveryBatchResult changeStatus(@RequestParam(value = "from", defaultValue = "READY") DeliveryStatus from,
+                                            @RequestParam(value = "to", defaultValue = "COMP") DeliveryStatus to){
+        return deliveryStatusBatchJob.run(from, to);
+    }
+
+    // 파티션 별 진행 상황
+    @GetMapping("/api/admin/deliveries/status/checkpoints")
+    public List<DeliveryCheckpointDto> checkpoints(@RequestParam(value = "from", defaultValue = "READY") DeliveryStatus from,
+                                                   @RequestParam(value = "to", defaultValue = "COMP") DeliveryStatus to){
+        return deliveryStatusBatchJob.checkpoints(from, to);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String badRequest(IllegalArgumentException e){
+        return e.getMessage();
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public String conflict(IllegalStateException e){
+        return e.getMessage();
+    }
+}
@@ -0,0 +1,77 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.bestseller.BestSellerDto;
+import jpabook.jpashop.bestseller.BestSellerService;
+import jpabook.jpashop.bestseller.BestSellerWindow;
+import jpabook.jpashop.catalog.CatalogService;
+import jpabook.jpashop.hot.HotItemDto;
+import jpabook.jpashop.hot.HotItemTracker;
+import jpabook.jpashop.repository.catalog.CatalogCategory;
+import jpabook.jpashop.repository.catalog.CatalogItem;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+@RestController
+@RequiredArgsConstructor
+public class ItemApiController {
+
+    private final CatalogService catalogService;
+    private final HotItemTracker hotItemTracker;
+    private final BestSellerService bestSellerService;
+
+    //======================= 상품조회 ======================= //
+    // 카탈로그 캐시에서 조회 ( 없으면 DB 조회 후 캐시 )
+    @GetMapping("/api/v1/items/{id}")
+    public ResponseEntity<CatalogItem> itemV1(@PathVariable("id") Long id){
+        CatalogItem item = catalogService.findItem(id);
+        return item == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(item);
+    }
+
+    // 여러 건 조회 ( /api/v1/items?ids=1,2,3 ). 최대 100 건
+    @GetMapping(value = "/api/v1/items", params = "ids")
+    public Result<List<CatalogItem>> itemsV1(@RequestParam("ids") List<Long> ids){
+        if (ids.size() > 100) {
+            throw new IllegalArgumentException("ids 는 최대 100 개까지 조회할 수 있습니다.");
+        }
+        return new Result<>(catalogService.findItems(ids));
+    }
+
+    // 최근 주문 / 조회가 몰리는 인기 상품 ( 감쇠된 추정 빈도 순 )
+    @GetMapping("/api/v1/items/hot")
+    public Result<List<HotItemDto>> hotItemsV1(){
+        return new Result<>(hotItemTracker.top());
+    }
+
+    // 베스트셀러 ( window : hour, day, week ). 메모리의 집계 결과만 사용
+    @GetMapping("/api/v1/items/best-sellers")
+    public Result<List<BestSellerDto>> bestSellersV1(@RequestParam(value = "window", defaultValue = "day") String window,
+                                                     @RequestParam(value = "limit", defaultValue = "10") int limit){
+        BestSellerWindow target = BestSellerWindow.valueOf(window.toUpperCase(Locale.ROOT));
+        return new Result<>(bestSellerService.top(target, Math.max(1, Math.min(limit, 100))));
+    }
+
+    @GetMapping("/api/v1/categories")
+    public Collection<CatalogCategory> categoriesV1(){
+        return catalogService.findCategories();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String badRequest(IllegalArgumentException e){
+        return e.getMessage();
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T>{
+        private T data;
+    }
+}
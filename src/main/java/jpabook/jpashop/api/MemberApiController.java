@@ -1,14 +1,24 @@
 package jpabook.jpashop.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.member.query.MemberQueryDto;
+import jpabook.jpashop.repository.order.history.MemberOrderDto;
+import jpabook.jpashop.repository.order.history.MemberOrderHistoryRepository;
 import jpabook.jpashop.service.MemberService;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -17,6 +27,8 @@ import java.util.stream.Collectors;
 public class MemberApiController {
 
     private final MemberService memberService;
+    private final ObjectMapper objectMapper;
+    private final MemberOrderHistoryRepository memberOrderHistoryRepository;
 
     //======================= 회원조회 ======================= //
     //== 1 ==//
@@ -36,6 +48,64 @@ public class MemberApiController {
         return new Result(collect.size(), collect);
     }
 
+    //== 3 ==//
+    // 필요한 컬럼만 조회 + 키셋 페이징, count 는 실제 전체 회원 수
+    // ex) /api/v3/members?fields=name,city&lastId=100&limit=50
+    @GetMapping("/api/v3/members")
+    public KeysetResult<List<MemberQueryDto>> memberV3(
+            @RequestParam(value = "fields", defaultValue = "name") List<String> fields,
+            @RequestParam(value = "lastId", required = false) Long lastId,
+            @RequestParam(value = "limit", defaultValue = "100") int limit){
+        List<MemberQueryDto> members = memberService.findMemberPage(fields, lastId, Math.min(Math.max(limit, 1), 1000));
+        Long nextLastId = members.isEmpty() ? null : members.get(members.size() - 1).getId();
+
+        return new KeysetResult<>(memberService.countMembers(), nextLastId, members);
+    }
+
+    // 전체 회원을 한 줄에 하나씩 ( ndjson ) 흘려보냄. 서버 메모리는 회원 수와 무관
+    @GetMapping(value = "/api/v3/members/stream", produces = "application/x-ndjson")
+    public StreamingResponseBody memberV3Stream(
+            @RequestParam(value = "fields", defaultValue = "name") List<String> fields){
+        return out -> memberService.streamMembers(fields, m -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(m));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    //======================= 회원 주문내역 ======================= //
+    // 최신 주문부터 키셋 페이징. 다음 페이지는 응답의 lastOrderDate, lastOrderId 를 그대로 넘김
+    // ex) /api/members/1/orders?lastOrderDate=2024-03-01T12:00:00&lastOrderId=100&limit=20
+    @GetMapping("/api/members/{id}/orders")
+    public OrderHistoryResult<List<MemberOrderDto>> memberOrders(
+            @PathVariable("id") Long id,
+            @RequestParam(value = "lastOrderDate", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime lastOrderDate,
+            @RequestParam(value = "lastOrderId", required = false) Long lastOrderId,
+            @RequestParam(value = "limit", defaultValue = "20") int limit){
+        if ((lastOrderDate == null) != (lastOrderId == null)) {
+            throw new IllegalArgumentException("lastOrderDate 와 lastOrderId 는 같이 지정해야 합니다.");
+        }
+        int size = Math.min(Math.max(limit, 1), 100);
+        List<MemberOrderDto> orders = memberOrderHistoryRepository.findPage(id, lastOrderDate, lastOrderId, size);
+
+        // 꽉 찬 페이지일 때만 다음 페이지 커서를 줌
+        MemberOrderDto last = orders.size() < size ? null : orders.get(orders.size() - 1);
+        return new OrderHistoryResult<>(
+                last == null ? null : last.getOrderDate(),
+                last == null ? null : last.getOrderId(),
+                orders);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String badRequest(IllegalArgumentException e){
+        return e.getMessage();
+    }
+
     @Data
     @AllArgsConstructor
     static class Result<T> {
@@ -43,6 +113,22 @@ public class MemberApiController {
         private T data;
     }
 
+    @Data
+    @AllArgsConstructor
+    static class KeysetResult<T> {
+        private long count;     // 전체 회원 수
+        private Long lastId;    // 다음 페이지 요청 시 lastId 로 사용
+        private T data;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class OrderHistoryResult<T> {
+        private LocalDateTime lastOrderDate;    // 다음 페이지 요청 시 사용 ( 마지막 페이지면 null )
+        private Long lastOrderId;
+        private T data;
+    }
+
     @Data
     @AllArgsConstructor
     static class MemberDto{
@@ -6,19 +6,23 @@ import jpabook.jpashop.domain.OrderItem;
 import jpabook.jpashop.domain.OrderStatus;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.query.OrderFieldSelection;
 import jpabook.jpashop.repository.order.query.OrderFlatDto;
 import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
 import jpabook.jpashop.repository.order.query.OrderQueryDto;
 import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.service.BulkCancelResult;
+import jpabook.jpashop.service.OrderBulkCancelService;
 import lombok.Data;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.*;
@@ -29,6 +33,7 @@ public class OrderApiController {
 
     private final OrderRepository orderRepository;
     private final OrderQueryRepository orderQueryRepository;
+    private final OrderBulkCancelService orderBulkCancelService;
 
     //== 1 ==//
     @GetMapping("/api/v1/orders")
@@ -86,9 +91,17 @@ public class OrderApiController {
     }
 
     //== 5 ==//
+    // 보관 주문 포함 조회는 주문 id 키셋 페이징 ( 보관 테이블 전체를 메모리에 올리지 않음 )
+    // ex) /api/v5/orders?includeArchived=true&lastId=100&limit=50
     @GetMapping("/api/v5/orders")
-    public List<OrderQueryDto> ordersV5(){
-        return orderQueryRepository.findAllByDto_optimization();
+    public List<OrderQueryDto> ordersV5(
+            @RequestParam(value = "includeArchived", defaultValue = "false") boolean includeArchived,
+            @RequestParam(value = "lastId", required = false) Long lastId,
+            @RequestParam(value = "limit", defaultValue = "100") int limit){
+        if (!includeArchived) {
+            return orderQueryRepository.findAllByDto_optimization();
+        }
+        return orderQueryRepository.findAllByDto_withArchived(lastId, Math.min(Math.max(limit, 1), 1000));
     }
 
     //== 6 ==//
@@ -108,6 +121,52 @@ public class OrderApiController {
                 .collect(toList());
     }
 
+    //== 7 ==//
+    // 요청한 필드만 select, 펼친 연관만 join / 조회. 주문 id 키셋 페이징
+    // ex) /api/v7/orders?fields=status,member.name&expand=items&lastId=100&limit=50
+    @GetMapping("/api/v7/orders")
+    public List<Map<String, Object>> ordersV7(
+            @RequestParam(value = "fields", required = false) List<String> fields,
+            @RequestParam(value = "expand", required = false) List<String> expand,
+            @RequestParam(value = "lastId", required = false) Long lastId,
+            @RequestParam(value = "limit", defaultValue = "100") int limit){
+        OrderFieldSelection selection = OrderFieldSelection.of(fields, expand);
+        return orderQueryRepository.findSparse(selection, lastId, Math.min(Math.max(limit, 1), 1000));
+    }
+
+    //======================= 일괄 취소 ======================= //
+    // 주문 id 목록 또는 회원 이름 검색 조건으로 일괄 취소 ( 배송완료, 이미 취소된 주문은 건너뜀 )
+    @PostMapping("/api/v1/orders/cancel")
+    public BulkCancelResult cancelOrders(@RequestBody CancelOrdersRequest request){
+        if (request.getOrderIds() != null && !request.getOrderIds().isEmpty()) {
+            if (request.getOrderIds().size() > MAX_CANCEL_IDS) {
+                throw new IllegalArgumentException("한번에 취소할 수 있는 주문은 " + MAX_CANCEL_IDS + "건 까지입니다.");
+            }
+            return orderBulkCancelService.cancel(request.getOrderIds());
+        }
+        // 조건 없이 전체 주문이 취소되지 않도록 회원 이름은 필수
+        if (!StringUtils.hasText(request.getMemberName())) {
+            throw new IllegalArgumentException("orderIds 또는 memberName 이 필요합니다.");
+        }
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName(request.getMemberName());
+        return orderBulkCancelService.cancel(orderSearch);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String badRequest(IllegalArgumentException e){
+        return e.getMessage();
+    }
+
+    private static final int MAX_CANCEL_IDS = 10_000;
+
+    @Data
+    static class CancelOrdersRequest {
+        private List<Long> orderIds;
+        private String memberName;
+    }
+
     @Getter
     static class OrderDto{
 
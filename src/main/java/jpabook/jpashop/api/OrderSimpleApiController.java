@@ -10,6 +10,7 @@ import jpabook.jpashop.repository.order.simplequery.SimpleOrderQueryDto;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
@@ -68,6 +69,13 @@ public class OrderSimpleApiController {
         return orderSimpleQueryRepository.findorderDtos();
     }
 
+    //== 5 ==//
+    // 검색 조건 ( memberName, orderStatus ) 지원. sharding 사용 시 모든 shard 에서 병렬 조회
+    @GetMapping("/api/v5/simple-orders")
+    public List<SimpleOrderQueryDto> orderV5(@ModelAttribute OrderSearch orderSearch){
+        return orderSimpleQueryRepository.findOrderDtos(orderSearch);
+    }
+
     @Data
     static class SimpleOrderDto{
         private Long orderId;
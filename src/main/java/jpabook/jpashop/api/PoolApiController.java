@@ -0,0 +1,25 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.datasource.pool.ConnectionPools;
+import jpabook.jpashop.datasource.pool.PoolStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Collections;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class PoolApiController {
+
+    private final ObjectProvider<ConnectionPools> connectionPools;
+
+    // 풀 별 사용량, 대기열, 커넥션 획득 대기 시간
+    @GetMapping("/api/admin/pools")
+    public List<PoolStats> pools(){
+        ConnectionPools pools = connectionPools.getIfAvailable();
+        return pools == null ? Collections.emptyList() : pools.stats();
+    }
+}
@@ -0,0 +1,47 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.sql.SqlFingerprintListener;
+import jpabook.jpashop.sql.SqlStatsDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Collections;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class SlowQueryApiController {
+
+    private final ObjectProvider<SqlFingerprintListener> sqlFingerprintListener;
+
+    // sql fingerprint 별 누적 ( sort : total, max, avg, count / window : current, previous )
+    @GetMapping("/api/admin/slow-queries")
+    public SlowQueryResult slowQueries(@RequestParam(value = "sort", defaultValue = "total") String sort,
+                                       @RequestParam(value = "limit", defaultValue = "20") int limit,
+                                       @RequestParam(value = "window", defaultValue = "current") String window){
+        SqlFingerprintListener listener = sqlFingerprintListener.getIfAvailable();
+        if (listener == null) {
+            return new SlowQueryResult(0, Collections.emptyList());
+        }
+        boolean previous = "previous".equals(window);
+        List<SqlStatsDto> top = listener.top(sort, Math.max(1, Math.min(limit, 200)), previous);
+        return new SlowQueryResult(listener.windowStartedAt(previous), top);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String badRequest(IllegalArgumentException e){
+        return e.getMessage();
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class SlowQueryResult {
+        private long windowStartedAt;
+        private List<SqlStatsDto> data;
+    }
+}
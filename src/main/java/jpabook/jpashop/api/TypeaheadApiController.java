@@ -0,0 +1,45 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.repository.typeahead.Suggestion;
+import jpabook.jpashop.repository.typeahead.TypeaheadQueryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Collections;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TypeaheadApiController {
+
+    private static final int MAX_LIMIT = 20;
+
+    private final TypeaheadQueryRepository typeaheadQueryRepository;
+
+    //======================= 자동완성 ( 주문 화면 ) ======================= //
+    @GetMapping("/api/typeahead/members")
+    public List<Suggestion> members(@RequestParam(value = "q", defaultValue = "") String q,
+                                    @RequestParam(value = "limit", defaultValue = "10") int limit){
+        String prefix = q.trim();
+        if (prefix.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return typeaheadQueryRepository.findMembers(prefix, clamp(limit));
+    }
+
+    @GetMapping("/api/typeahead/items")
+    public List<Suggestion> items(@RequestParam(value = "q", defaultValue = "") String q,
+                                  @RequestParam(value = "limit", defaultValue = "10") int limit){
+        String prefix = q.trim();
+        if (prefix.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return typeaheadQueryRepository.findItems(prefix, clamp(limit));
+    }
+
+    private int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
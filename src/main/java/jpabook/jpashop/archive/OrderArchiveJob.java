@@ -0,0 +1,198 @@
+package jpabook.jpashop.archive;
+
+import jpabook.jpashop.version.Aggregate;
+import jpabook.jpashop.version.DataVersion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * 보관 정책에 해당하는 주문을 orders / order_item / delivery 에서 *_archive 테이블로 옮김
+ * - 취소 후 cancelled-after-days 가 지난 주문 ( 취소시간 기준, 취소시간이 없는 이전 주문은 주문시간 기준 ), 주문 후 retention-days 가 지난 주문
+ * - 보관 테이블과 복사 쿼리는 컬럼을 직접 나열 ( 엔티티에 컬럼이 추가돼도 위치가 어긋나지 않음. 새 컬럼은 여기에도 추가 )
+ * - chunk 단위 트랜잭션 ( 복사 + 삭제가 한 트랜잭션 ) 이라 중간에 죽어도 다시 실행하면 남은 것부터 이어서 진행
+ * - chunk 사이에 쉬어서 운영 트래픽에 주는 부하를 줄임
+ */
+@Slf4j
+@Component
+public class OrderArchiveJob {
+
+    private static final String ORDER_COLUMNS = "order_id, member_id, delivery_id, order_date, cancel_date, status";
+    private static final String ORDER_ITEM_COLUMNS = "order_item_id, item_id, order_id, order_price, count";
+    private static final String DELIVERY_COLUMNS = "delivery_id, city, street, zipcode, status";
+
+    private final EntityManager em;
+    private final TransactionTemplate chunkTx;
+    private final DataVersion dataVersion;
+
+    private final boolean enabled;
+    private final int cancelledAfterDays;
+    private final int retentionDays;
+    private final int chunkSize;
+    private final long pauseMillis;
+    private final int maxChunksPerRun;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public OrderArchiveJob(EntityManager em,
+                           PlatformTransactionManager transactionManager,
+                           DataVersion dataVersion,
+                           @Value("${jpashop.archive.enabled:false}") boolean enabled,
+                           @Value("${jpashop.archive.cancelled-after-days:30}") int cancelledAfterDays,
+                           @Value("${jpashop.archive.retention-days:730}") int retentionDays,
+                           @Value("${jpashop.archive.chunk-size:200}") int chunkSize,
+                           @Value("${jpashop.archive.pause-millis:100}") long pauseMillis,
+                           @Value("${jpashop.archive.max-chunks-per-run:1000}") int maxChunksPerRun) {
+        this.em = em;
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.chunkTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.dataVersion = dataVersion;
+        this.enabled = enabled;
+        this.cancelledAfterDays = cancelledAfterDays;
+        this.retentionDays = retentionDays;
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pauseMillis;
+        this.maxChunksPerRun = maxChunksPerRun;
+    }
+
+    // 보관 테이블은 hibernate 가 관리하지 않으므로 ( ddl-auto 로 지워지지 않음 ) 없을 때만 생성
+    // 보관 작업을 사용할 때만 생성 ( 사용하지 않으면 보관 주문 조회도 하지 않음 )
+    @EventListener(ContextRefreshedEvent.class)
+    public void createArchiveTables() {
+        if (!enabled) {
+            return;
+        }
+        chunkTx.executeWithoutResult(status -> {
+            em.createNativeQuery("create table if not exists orders_archive (" +
+                    "order_id bigint not null primary key, member_id bigint, delivery_id bigint," +
+                    " order_date timestamp, cancel_date timestamp, status varchar(255))").executeUpdate();
+            // 취소시간 추가 전에 만든 보관 테이블
+            em.createNativeQuery("alter table orders_archive add column if not exists cancel_date timestamp").executeUpdate();
+            em.createNativeQuery("create table if not exists order_item_archive (" +
+                    "order_item_id bigint not null primary key, item_id bigint, order_id bigint," +
+                    " order_price integer not null, count integer not null)").executeUpdate();
+            em.createNativeQuery("create table if not exists delivery_archive (" +
+                    "delivery_id bigint not null primary key, city varchar(255), street varchar(255)," +
+                    " zipcode varchar(255), status varchar(255))").executeUpdate();
+        });
+    }
+
+    @Scheduled(cron = "${jpashop.archive.cron:0 0 4 * * *}")
+    public void scheduledRun() {
+        if (enabled) {
+            run();
+        }
+    }
+
+    /**
+     * @return 옮긴 주문 수
+     */
+    public int run() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("주문 보관 작업이 이미 실행 중");
+            return 0;
+        }
+
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime cancelCutoff = now.minusDays(cancelledAfterDays);
+            LocalDateTime retentionCutoff = now.minusDays(retentionDays);
+
+            int total = 0;
+            for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+                Integer moved = chunkTx.execute(status -> archiveChunk(cancelCutoff, retentionCutoff));
+                if (moved == null || moved == 0) {
+                    break;
+                }
+                total += moved;
+                dataVersion.bump(Aggregate.ORDER);
+
+                if (moved < chunkSize) {
+                    break;
+                }
+                pause();
+            }
+
+            log.info("주문 보관 완료 {}건", total);
+            return total;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int archiveChunk(LocalDateTime cancelCutoff, LocalDateTime retentionCutoff) {
+        List<Long> orderIds = toLongs(em.createNativeQuery(
+                        "select o.order_id from orders o" +
+                                " where (o.status = 'CANCEL' and coalesce(o.cancel_date, o.order_date) < :cancelCutoff)" +
+                                " or o.order_date < :retentionCutoff" +
+                                " order by o.order_id")
+                .setParameter("cancelCutoff", cancelCutoff)
+                .setParameter("retentionCutoff", retentionCutoff)
+                .setMaxResults(chunkSize)
+                .getResultList());
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> deliveryIds = toLongs(em.createNativeQuery(
+                        "select o.delivery_id from orders o where o.order_id in (:orderIds) and o.delivery_id is not null")
+                .setParameter("orderIds", orderIds)
+                .getResultList());
+
+        // 복사
+        em.createNativeQuery("insert into orders_archive (" + ORDER_COLUMNS + ")" +
+                        " select " + ORDER_COLUMNS + " from orders where order_id in (:orderIds)")
+                .setParameter("orderIds", orderIds).executeUpdate();
+        em.createNativeQuery("insert into order_item_archive (" + ORDER_ITEM_COLUMNS + ")" +
+                        " select " + ORDER_ITEM_COLUMNS + " from order_item where order_id in (:orderIds)")
+                .setParameter("orderIds", orderIds).executeUpdate();
+        if (!deliveryIds.isEmpty()) {
+            em.createNativeQuery("insert into delivery_archive (" + DELIVERY_COLUMNS + ")" +
+                            " select " + DELIVERY_COLUMNS + " from delivery where delivery_id in (:deliveryIds)")
+                    .setParameter("deliveryIds", deliveryIds).executeUpdate();
+        }
+
+        // 삭제 ( FK 순서 : order_item -> orders -> delivery )
+        em.createNativeQuery("delete from order_item where order_id in (:orderIds)")
+                .setParameter("orderIds", orderIds).executeUpdate();
+        em.createNativeQuery("delete from orders where order_id in (:orderIds)")
+                .setParameter("orderIds", orderIds).executeUpdate();
+        if (!deliveryIds.isEmpty()) {
+            em.createNativeQuery("delete from delivery where delivery_id in (:deliveryIds)")
+                    .setParameter("deliveryIds", deliveryIds).executeUpdate();
+        }
+
+        return orderIds.size();
+    }
+
+    private void pause() {
+        if (pauseMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> toLongs(List<?> values) {
+        return ((List<Object>) values).stream()
+                .map(v -> ((Number) v).longValue())
+                .collect(toList());
+    }
+}
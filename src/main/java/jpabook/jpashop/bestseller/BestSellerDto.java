@@ -0,0 +1,13 @@
+package jpabook.jpashop.bestseller;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BestSellerDto {
+
+    private Long itemId;
+    private String name;        // 카탈로그 캐시에 있을 때만
+    private long sold;          // 구간 내 판매 수량 ( 취소 제외 )
+}
@@ -0,0 +1,218 @@
+package jpabook.jpashop.bestseller;
+
+import jpabook.jpashop.catalog.CatalogCache;
+import jpabook.jpashop.event.OrderEvent;
+import jpabook.jpashop.event.OrderEventType;
+import jpabook.jpashop.event.StockDelta;
+import jpabook.jpashop.journal.JournalEntry;
+import jpabook.jpashop.journal.OrderJournal;
+import jpabook.jpashop.repository.bestseller.BestSellerQueryRepository;
+import jpabook.jpashop.repository.bestseller.SoldLine;
+import jpabook.jpashop.repository.catalog.CatalogItem;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 베스트셀러 ( 최근 1시간 / 1일 / 1주 판매 수량 순 )
+ * - 주문 / 취소 이벤트( 커밋 후 ) 로 구간별 SlidingCounter 를 더하고 뺌 ( order_item group by 없음 )
+ * - snapshot-interval 마다 구간별 상위 top-k 를 만들어 두고 조회는 그 목록을 그대로 돌려줌 ( SQL 없음 )
+ * - 카운터는 메모리에만 있으므로 기동 시 최근 1주 주문으로 다시 채움
+ *   주문 저널( jpashop.journal.enabled )이 1주 전부터 기록되어 있으면 저널을 순서대로 재생하고 ( DB 조회 없음 )
+ *   아니면 DB 에서 최근 1주 주문상품을 조회
+ *   채우는 동안 들어온 이벤트는 모아 두었다가 주문 id 로 중복을 걸러 반영
+ */
+@Slf4j
+@Service
+public class BestSellerService {
+
+    private final BestSellerQueryRepository bestSellerQueryRepository;
+    private final CatalogCache catalogCache;
+    private final OrderJournal orderJournal;   // 없으면 null
+    private final Clock clock;
+    private final int topK;
+
+    private final Map<BestSellerWindow, SlidingCounter> counters = new EnumMap<>(BestSellerWindow.class);
+    private volatile Map<BestSellerWindow, List<BestSellerDto>> snapshots = Collections.emptyMap();
+
+    // 재구성이 끝나기 전까지 받은 이벤트 ( null 이면 바로 반영 )
+    private List<OrderEvent> pending = new ArrayList<>();
+
+    public BestSellerService(BestSellerQueryRepository bestSellerQueryRepository,
+                             CatalogCache catalogCache,
+                             ObjectProvider<OrderJournal> orderJournal,
+                             @Value("${jpashop.best-sellers.top-k:100}") int topK) {
+        this(bestSellerQueryRepository, catalogCache, orderJournal.getIfAvailable(), topK, Clock.systemDefaultZone());
+    }
+
+    BestSellerService(BestSellerQueryRepository bestSellerQueryRepository, CatalogCache catalogCache, int topK, Clock clock) {
+        this(bestSellerQueryRepository, catalogCache, null, topK, clock);
+    }
+
+    BestSellerService(BestSellerQueryRepository bestSellerQueryRepository, CatalogCache catalogCache,
+                      OrderJournal orderJournal, int topK, Clock clock) {
+        this.bestSellerQueryRepository = bestSellerQueryRepository;
+        this.catalogCache = catalogCache;
+        this.orderJournal = orderJournal;
+        this.topK = topK;
+        this.clock = clock;
+        for (BestSellerWindow window : BestSellerWindow.values()) {
+            counters.put(window, new SlidingCounter(window.getBucketMillis(), window.getBucketCount()));
+        }
+    }
+
+    /**
+     * 상위 limit 개 ( 최대 top-k )
+     */
+    public List<BestSellerDto> top(BestSellerWindow window, int limit) {
+        List<BestSellerDto> snapshot = snapshots.getOrDefault(window, Collections.emptyList());
+        return snapshot.size() <= limit ? snapshot : snapshot.subList(0, limit);
+    }
+
+    @TransactionalEventListener
+    public void onOrderEvent(OrderEvent event) {
+        synchronized (this) {
+            if (pending != null) {
+                pending.add(event);
+                return;
+            }
+        }
+        apply(event);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        long sinceMillis = clock.millis() - BestSellerWindow.WEEK.lengthMillis();
+        LocalDateTime since = LocalDateTime.ofInstant(Instant.ofEpochMilli(sinceMillis), clock.getZone());
+
+        // 카운터에 들어간 주문 / 그 중 취소까지 반영된 주문
+        Set<Long> loadedOrderIds = new HashSet<>();
+        Set<Long> cancelledOrderIds = new HashSet<>();
+        String source = "journal";
+        int loaded = replayJournal(since, sinceMillis, loadedOrderIds, cancelledOrderIds);
+        if (loaded < 0) {
+            source = "db";
+            loaded = loadSoldLines(since, loadedOrderIds);
+        }
+
+        // 이미 반영된 주문 생성 / 취소는 건너뛰고, 취소는 카운터에 들어 있는 주문일 때만 반영
+        List<OrderEvent> buffered;
+        synchronized (this) {
+            buffered = pending;
+            pending = null;
+        }
+        for (OrderEvent event : buffered) {
+            applyOnce(event, loadedOrderIds, cancelledOrderIds);
+        }
+
+        refreshSnapshots();
+        log.info("best sellers rebuilt from {}. records={}, buffered={}, {}ms", source, loaded, buffered.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 저널이 since 이전부터 기록되어 있을 때만 재생 ( 저널을 켜기 전 주문은 저널에 없음 )
+     * @return 재생한 이벤트 수. 저널을 쓸 수 없으면 -1
+     */
+    private int replayJournal(LocalDateTime since, long sinceMillis, Set<Long> loadedOrderIds, Set<Long> cancelledOrderIds) {
+        if (orderJournal == null) {
+            return -1;
+        }
+        try {
+            JournalEntry first = orderJournal.first();
+            if (first == null || first.getTimestamp() > sinceMillis) {
+                return -1;
+            }
+            int[] count = {0};
+            orderJournal.replay(first.getSeq(), entry -> {
+                OrderEvent event = entry.getEvent();
+                if (event.getOrderDate() != null && !event.getOrderDate().isBefore(since)) {
+                    applyOnce(event, loadedOrderIds, cancelledOrderIds);
+                    count[0]++;
+                }
+            });
+            return count[0];
+        } catch (RuntimeException e) {
+            log.warn("best sellers journal replay failed, loading from db", e);
+            loadedOrderIds.clear();
+            cancelledOrderIds.clear();
+            counters.replaceAll((window, counter) -> new SlidingCounter(window.getBucketMillis(), window.getBucketCount()));
+            return -1;
+        }
+    }
+
+    private int loadSoldLines(LocalDateTime since, Set<Long> loadedOrderIds) {
+        List<SoldLine> lines;
+        try {
+            lines = bestSellerQueryRepository.findSoldSince(since);
+        } catch (RuntimeException e) {
+            // 재구성에 실패해도 이후 이벤트는 반영되도록 진행
+            log.warn("best sellers rebuild failed, counting from now on", e);
+            lines = Collections.emptyList();
+        }
+
+        for (SoldLine line : lines) {
+            add(line.getItemId(), line.getCount(), line.getOrderDate());
+            loadedOrderIds.add(line.getOrderId());
+        }
+        return lines.size();
+    }
+
+    // 주문 생성은 한 번만, 취소는 카운터에 들어 있는 주문일 때 한 번만 반영
+    private void applyOnce(OrderEvent event, Set<Long> loadedOrderIds, Set<Long> cancelledOrderIds) {
+        if (event.getType() == OrderEventType.CREATED) {
+            if (loadedOrderIds.add(event.getOrderId())) {
+                apply(event);
+            }
+        } else if (loadedOrderIds.contains(event.getOrderId()) && cancelledOrderIds.add(event.getOrderId())) {
+            apply(event);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${jpashop.best-sellers.snapshot-interval-millis:1000}")
+    public void refreshSnapshots() {
+        long now = clock.millis();
+        Map<BestSellerWindow, List<BestSellerDto>> next = new EnumMap<>(BestSellerWindow.class);
+        for (BestSellerWindow window : BestSellerWindow.values()) {
+            List<BestSellerDto> top = new ArrayList<>();
+            for (long[] entry : counters.get(window).top(topK, now)) {
+                CatalogItem item = catalogCache.get(entry[0]);
+                top.add(new BestSellerDto(entry[0], item == null ? null : item.getName(), entry[1]));
+            }
+            next.put(window, Collections.unmodifiableList(top));
+        }
+        snapshots = next;
+    }
+
+    // 이벤트의 재고 변화량 부호 반대가 판매 수량 ( 주문 -, 취소 + )
+    private void apply(OrderEvent event) {
+        for (StockDelta delta : event.getStockDeltas()) {
+            add(delta.getItemId(), -delta.getDelta(), event.getOrderDate());
+        }
+    }
+
+    private void add(Long itemId, long quantity, LocalDateTime orderDate) {
+        long at = orderDate.atZone(clock.getZone()).toInstant().toEpochMilli();
+        long now = clock.millis();
+        for (SlidingCounter counter : counters.values()) {
+            counter.add(itemId, quantity, at, now);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package jpabook.jpashop.bestseller;
+
+import lombok.Getter;
+
+/**
+ * 판매량 집계 구간. 구간을 bucket 단위로 나눠서 bucket 이 지날 때마다 오래된 것을 뺌
+ */
+@Getter
+public enum BestSellerWindow {
+
+    HOUR(60_000L, 60),              // 1분 x 60
+    DAY(15 * 60_000L, 96),          // 15분 x 96
+    WEEK(60 * 60_000L, 168);        // 1시간 x 168
+
+    private final long bucketMillis;
+    private final int bucketCount;
+
+    BestSellerWindow(long bucketMillis, int bucketCount) {
+        this.bucketMillis = bucketMillis;
+        this.bucketCount = bucketCount;
+    }
+
+    public long lengthMillis() {
+        return bucketMillis * bucketCount;
+    }
+}
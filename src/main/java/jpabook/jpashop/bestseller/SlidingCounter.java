@@ -0,0 +1,101 @@
+package jpabook.jpashop.bestseller;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 상품별 판매 수량을 시간 bucket 으로 나눠 들고, 구간 합계( totals ) 를 더하고 뺄 때마다 같이 맞춤
+ * bucket 이 구간을 벗어나면 그 bucket 의 수량을 합계에서 빼고 비움 ( 전체를 다시 세지 않음 )
+ */
+class SlidingCounter {
+
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final List<Map<Long, Long>> buckets;
+    private final Map<Long, Long> totals = new HashMap<>();
+    private long current = Long.MIN_VALUE;
+
+    SlidingCounter(long bucketMillis, int bucketCount) {
+        this.bucketMillis = bucketMillis;
+        this.bucketCount = bucketCount;
+        this.buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * @param atMillis 주문 시각 ( 취소도 주문 시각의 bucket 에서 뺌 )
+     * @param quantity 주문이면 +, 취소면 -
+     */
+    synchronized void add(Long itemId, long quantity, long atMillis, long nowMillis) {
+        advance(nowMillis);
+        // 구간 밖이거나 시계가 어긋나 미래 시각이면 현재 bucket 에 넣지 않고 버림
+        long bucket = Math.floorDiv(atMillis, bucketMillis);
+        if (bucket <= current - bucketCount || bucket > current) {
+            return;
+        }
+        merge(buckets.get(slot(bucket)), itemId, quantity);
+        merge(totals, itemId, quantity);
+    }
+
+    synchronized long sold(Long itemId, long nowMillis) {
+        advance(nowMillis);
+        return Math.max(0, totals.getOrDefault(itemId, 0L));
+    }
+
+    /**
+     * 판매 수량 상위 limit 개 ( itemId, 수량 ) - 수량 내림차순
+     */
+    synchronized List<long[]> top(int limit, long nowMillis) {
+        advance(nowMillis);
+        PriorityQueue<long[]> heap = new PriorityQueue<>(Comparator.comparingLong(e -> e[1]));
+        for (Map.Entry<Long, Long> entry : totals.entrySet()) {
+            if (entry.getValue() <= 0) {
+                continue;   // 재구성 이전 주문의 취소 등
+            }
+            if (heap.size() < limit) {
+                heap.add(new long[]{entry.getKey(), entry.getValue()});
+            } else if (entry.getValue() > heap.peek()[1]) {
+                heap.poll();
+                heap.add(new long[]{entry.getKey(), entry.getValue()});
+            }
+        }
+        List<long[]> result = new ArrayList<>(heap);
+        result.sort(Comparator.comparingLong((long[] e) -> e[1]).reversed().thenComparingLong(e -> e[0]));
+        return result;
+    }
+
+    // 지난 bucket 들을 비우고 합계에서 뺌
+    private void advance(long nowMillis) {
+        long now = Math.floorDiv(nowMillis, bucketMillis);
+        if (now <= current) {
+            return;
+        }
+        long from = current == Long.MIN_VALUE ? now - bucketCount + 1 : Math.max(current + 1, now - bucketCount + 1);
+        for (long bucket = from; bucket <= now; bucket++) {
+            int slot = slot(bucket);
+            Map<Long, Long> expired = buckets.get(slot);
+            for (Map.Entry<Long, Long> entry : expired.entrySet()) {
+                merge(totals, entry.getKey(), -entry.getValue());
+            }
+            expired.clear();
+        }
+        current = now;
+    }
+
+    // 0 이 되면 제거 ( 음수는 그대로 두어야 bucket 이 빠질 때 합계가 맞음 )
+    private static void merge(Map<Long, Long> counts, Long itemId, long quantity) {
+        if (counts.merge(itemId, quantity, Long::sum) == 0) {
+            counts.remove(itemId);
+        }
+    }
+
+    private int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) bucketCount);
+    }
+}
@@ -0,0 +1,24 @@
+package jpabook.jpashop.cart;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CartDto {
+
+    private Long memberId;
+    private List<CartLineDto> lines;
+    private int totalPrice;
+
+    @Data
+    @AllArgsConstructor
+    public static class CartLineDto {
+        private Long itemId;
+        private String itemName;
+        private int price;
+        private int count;
+    }
+}
@@ -0,0 +1,76 @@
+package jpabook.jpashop.cart;
+
+import jpabook.jpashop.catalog.CatalogService;
+import jpabook.jpashop.repository.catalog.CatalogItem;
+import jpabook.jpashop.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 장바구니
+ * 담기 / 빼기는 메모리만 변경 ( 상품 확인은 카탈로그 캐시 ). DB 는 결제할 때 주문 한번으로만 사용
+ */
+@Service
+@RequiredArgsConstructor
+public class CartService {
+
+    private final CartStore cartStore;
+    private final CatalogService catalogService;
+    private final OrderService orderService;
+
+    public CartDto add(Long memberId, Long itemId, int count) {
+        if (catalogService.findItem(itemId) == null) {
+            throw new IllegalArgumentException("상품이 없습니다. itemId=" + itemId);
+        }
+        return toDto(memberId, cartStore.add(memberId, itemId, count));
+    }
+
+    public CartDto remove(Long memberId, Long itemId) {
+        return toDto(memberId, cartStore.remove(memberId, itemId));
+    }
+
+    public CartDto find(Long memberId) {
+        return toDto(memberId, cartStore.get(memberId));
+    }
+
+    public void clear(Long memberId) {
+        cartStore.clear(memberId);
+    }
+
+    /**
+     * 결제 : 장바구니 전체를 주문 하나로. 실패하면 ( 재고 부족 등 ) 장바구니는 그대로 남음
+     */
+    public Long checkout(Long memberId) {
+        Map<Long, Integer> lines = cartStore.get(memberId);
+        if (lines.isEmpty()) {
+            throw new IllegalArgumentException("장바구니가 비어 있습니다.");
+        }
+        Long orderId = orderService.order(memberId, lines);
+        cartStore.clear(memberId);
+        return orderId;
+    }
+
+    // 이름, 가격은 카탈로그 캐시에서 ( 표시용 )
+    private CartDto toDto(Long memberId, Map<Long, Integer> lines) {
+        Map<Long, CatalogItem> items = new HashMap<>();
+        if (!lines.isEmpty()) {
+            catalogService.findItems(new ArrayList<>(lines.keySet())).forEach(i -> items.put(i.getId(), i));
+        }
+
+        List<CartDto.CartLineDto> dtoLines = new ArrayList<>();
+        int totalPrice = 0;
+        for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+            CatalogItem item = items.get(line.getKey());
+            String name = item == null ? null : item.getName();
+            int price = item == null ? 0 : item.getPrice();
+            dtoLines.add(new CartDto.CartLineDto(line.getKey(), name, price, line.getValue()));
+            totalPrice += price * line.getValue();
+        }
+        return new CartDto(memberId, dtoLines, totalPrice);
+    }
+}
@@ -0,0 +1,130 @@
+package jpabook.jpashop.cart;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 장바구니 저장소 ( 메모리, DB 사용 안함 )
+ * - 회원 id 별 장바구니 하나. 최대 maxCarts 개, 넘으면 가장 오래 사용하지 않은 장바구니부터 제거 ( LRU )
+ * - 마지막으로 담기 / 빼기 한 후 ttl 이 지나면 만료
+ * - 장바구니당 상품 maxLines 종류, 상품당 최대 maxQuantity 개
+ * 서버 재시작 / 다른 서버로 요청이 가면 장바구니가 없으므로 회원 기준 sticky 라우팅이 필요하다.
+ */
+@Component
+public class CartStore {
+
+    private final int maxLines;
+    private final int maxQuantity;
+    private final long ttlMillis;
+    private final Clock clock;
+
+    // access-order LinkedHashMap : 조회 / 수정할 때마다 맨 뒤로
+    private final LinkedHashMap<Long, Cart> carts;
+
+    public CartStore(@Value("${jpashop.cart.max-carts:100000}") int maxCarts,
+                     @Value("${jpashop.cart.max-lines:50}") int maxLines,
+                     @Value("${jpashop.cart.max-quantity:999}") int maxQuantity,
+                     @Value("${jpashop.cart.ttl-minutes:60}") long ttlMinutes) {
+        this(maxCarts, maxLines, maxQuantity, ttlMinutes * 60_000, Clock.systemUTC());
+    }
+
+    CartStore(int maxCarts, int maxLines, int maxQuantity, long ttlMillis, Clock clock) {
+        this.maxLines = maxLines;
+        this.maxQuantity = maxQuantity;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.carts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Cart> eldest) {
+                return size() > maxCarts;
+            }
+        };
+    }
+
+    /**
+     * 상품 추가 ( 이미 있으면 수량 합산 )
+     */
+    public synchronized Map<Long, Integer> add(Long memberId, Long itemId, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("수량은 1 이상이어야 합니다.");
+        }
+        Cart cart = live(memberId);
+        if (cart == null) {
+            cart = new Cart();
+            carts.put(memberId, cart);
+        }
+        Integer current = cart.lines.get(itemId);
+        if (current == null && cart.lines.size() >= maxLines) {
+            throw new IllegalArgumentException("장바구니에는 최대 " + maxLines + " 종류까지 담을 수 있습니다.");
+        }
+        int quantity = (current == null ? 0 : current) + count;
+        if (quantity > maxQuantity) {
+            throw new IllegalArgumentException("상품당 최대 " + maxQuantity + " 개까지 담을 수 있습니다.");
+        }
+        cart.lines.put(itemId, quantity);
+        cart.touchedAt = clock.millis();
+        return copy(cart);
+    }
+
+    public synchronized Map<Long, Integer> remove(Long memberId, Long itemId) {
+        Cart cart = live(memberId);
+        if (cart == null) {
+            return Collections.emptyMap();
+        }
+        cart.lines.remove(itemId);
+        cart.touchedAt = clock.millis();
+        return copy(cart);
+    }
+
+    /**
+     * 상품 id -> 수량 ( 담은 순서 ). 없으면 빈 map
+     */
+    public synchronized Map<Long, Integer> get(Long memberId) {
+        Cart cart = live(memberId);
+        return cart == null ? Collections.emptyMap() : copy(cart);
+    }
+
+    public synchronized void clear(Long memberId) {
+        carts.remove(memberId);
+    }
+
+    public synchronized int size() {
+        return carts.size();
+    }
+
+    @Scheduled(fixedDelayString = "${jpashop.cart.purge-interval-millis:60000}")
+    public synchronized void purgeExpired() {
+        long now = clock.millis();
+        Iterator<Cart> iterator = carts.values().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().touchedAt > ttlMillis) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private Cart live(Long memberId) {
+        Cart cart = carts.get(memberId);
+        if (cart != null && clock.millis() - cart.touchedAt > ttlMillis) {
+            carts.remove(memberId);
+            return null;
+        }
+        return cart;
+    }
+
+    private Map<Long, Integer> copy(Cart cart) {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(cart.lines));
+    }
+
+    private class Cart {
+        private final LinkedHashMap<Long, Integer> lines = new LinkedHashMap<>();
+        private long touchedAt = clock.millis();
+    }
+}
@@ -0,0 +1,79 @@
+package jpabook.jpashop.catalog;
+
+import jpabook.jpashop.repository.catalog.CatalogCategory;
+import jpabook.jpashop.repository.catalog.CatalogItem;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 상품 / 카테고리 조회 캐시
+ * 상품 변경( ItemService ), 재고 변경( 주문 / 취소 ) 시 해당 상품을 비우고 다음 조회 때 다시 채움
+ */
+@Component
+public class CatalogCache {
+
+    private final Map<Long, CatalogItem> items = new ConcurrentHashMap<>();
+    private volatile Map<Long, CatalogCategory> categories = Collections.emptyMap();
+
+    public CatalogItem get(Long itemId) {
+        return items.get(itemId);
+    }
+
+    public Collection<CatalogItem> items() {
+        return Collections.unmodifiableCollection(items.values());
+    }
+
+    public Collection<CatalogCategory> categories() {
+        return categories.values();
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    public void put(CatalogItem item) {
+        items.put(item.getId(), item);
+    }
+
+    public void putAll(Collection<CatalogItem> loaded) {
+        loaded.forEach(this::put);
+    }
+
+    public void replaceCategories(List<CatalogCategory> loaded) {
+        Map<Long, CatalogCategory> map = new LinkedHashMap<>();
+        loaded.forEach(c -> map.put(c.getId(), c));
+        this.categories = Collections.unmodifiableMap(map);
+    }
+
+    public void evict(Long itemId) {
+        items.remove(itemId);
+    }
+
+    /**
+     * 지금 한 번, 트랜잭션이 끝난 뒤 한 번 더 제거한다.
+     * 커밋 전에 다른 요청이 옛날 값을 다시 채워도 커밋 후 비워진다.
+     */
+    public void evictOnCompletion(Long itemId) {
+        evict(itemId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(itemId);
+                }
+            });
+        }
+    }
+
+    public void retainOnly(Collection<Long> itemIds) {
+        items.keySet().retainAll(itemIds);
+    }
+}
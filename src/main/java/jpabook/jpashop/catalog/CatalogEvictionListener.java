@@ -0,0 +1,101 @@
+package jpabook.jpashop.catalog;
+
+import jpabook.jpashop.event.OrderEvent;
+import jpabook.jpashop.event.StockDelta;
+import jpabook.jpashop.hot.HotItemTracker;
+import jpabook.jpashop.hot.HotSetChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 주문 / 취소로 재고가 바뀐 상품을 캐시에서 제거 ( 커밋 후 )
+ * 인기 상품은 주문마다 비워지면 조회가 계속 DB 로 가므로 제거 후 다시 채움
+ * 다시 채우는 조회는 별도 스레드에서 모아서 실행 ( 주문 스레드가 커넥션을 잡은 채 기다리지 않음 )
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogEvictionListener implements AutoCloseable {
+
+    private final CatalogCache catalogCache;
+    private final CatalogService catalogService;
+    private final HotItemTracker hotItemTracker;
+
+    // 다시 채울 상품. 실행 중인 작업이 있으면 거기에 합쳐짐
+    private final Set<Long> reloadPending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean reloadScheduled = new AtomicBoolean();
+    private final ExecutorService reloader = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "catalog-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @TransactionalEventListener
+    public void onOrderEvent(OrderEvent event) {
+        List<Long> hot = new ArrayList<>();
+        for (StockDelta delta : event.getStockDeltas()) {
+            catalogCache.evict(delta.getItemId());
+            if (hotItemTracker.isHot(delta.getItemId())) {
+                hot.add(delta.getItemId());
+            }
+        }
+        reloadLater(hot);
+    }
+
+    // 새로 인기 상품이 된 상품은 첫 조회를 기다리지 않고 미리 채움
+    @EventListener
+    public void onHotSetChanged(HotSetChangedEvent event) {
+        List<Long> missing = new ArrayList<>();
+        for (Long itemId : event.getAdded()) {
+            if (catalogCache.get(itemId) == null) {
+                missing.add(itemId);
+            }
+        }
+        reloadLater(missing);
+    }
+
+    private void reloadLater(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        reloadPending.addAll(itemIds);
+        if (!reloadScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            reloader.execute(this::reload);
+        } catch (RejectedExecutionException e) {
+            // 종료 중. 캐시에서는 이미 제거했으므로 다음 조회 때 채워짐
+            reloadScheduled.set(false);
+        }
+    }
+
+    private void reload() {
+        // 먼저 플래그를 내려야 꺼내는 사이에 들어온 상품도 다음 작업에서 채워짐
+        reloadScheduled.set(false);
+        List<Long> itemIds = new ArrayList<>(reloadPending);
+        reloadPending.removeAll(itemIds);
+        try {
+            catalogService.reload(itemIds);
+        } catch (RuntimeException e) {
+            log.warn("catalog reload failed. items={}", itemIds.size(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        reloader.shutdownNow();
+    }
+}
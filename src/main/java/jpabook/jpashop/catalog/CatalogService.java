@@ -0,0 +1,185 @@
+package jpabook.jpashop.catalog;
+
+import jpabook.jpashop.hot.HotItemTracker;
+import jpabook.jpashop.loader.BatchLoader;
+import jpabook.jpashop.repository.catalog.CatalogCategory;
+import jpabook.jpashop.repository.catalog.CatalogFingerprint;
+import jpabook.jpashop.repository.catalog.CatalogItem;
+import jpabook.jpashop.repository.catalog.CatalogQueryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 카탈로그 캐시 조회 / 워밍 / 스냅샷
+ * 1. 기동 시 스냅샷 파일을 읽어 캐시를 바로 채움 ( DB 전체 조회 없이 )
+ * 2. DB fingerprint 와 비교해 다르면 id, version 만 조회해서 바뀐 상품만 다시 읽음
+ * 3. 주기적으로 스냅샷 파일을 새로 씀 ( jpashop.catalog.snapshot-interval-millis )
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogService {
+
+    private final CatalogCache catalogCache;
+    private final CatalogQueryRepository catalogQueryRepository;
+    private final BatchLoader<Long, CatalogItem> itemLoader;
+    private final HotItemTracker hotItemTracker;
+
+    @Value("${jpashop.catalog.snapshot-file:./catalog/catalog.snapshot}")
+    private String snapshotFile;
+
+    @Value("${jpashop.catalog.snapshot-enabled:true}")
+    private boolean snapshotEnabled;
+
+    // 캐시에 없으면 DB 에서 읽어 채움
+    public CatalogItem findItem(Long itemId) {
+        hotItemTracker.recordRead(itemId);
+        CatalogItem cached = catalogCache.get(itemId);
+        if (cached != null) {
+            return cached;
+        }
+        List<CatalogItem> loaded = catalogQueryRepository.findItems(List.of(itemId));
+        if (loaded.isEmpty()) {
+            return null;
+        }
+        catalogCache.put(loaded.get(0));
+        return loaded.get(0);
+    }
+
+    /**
+     * 여러 건 조회. 캐시에 없는 상품은 다른 요청의 조회와 모아서 IN 쿼리로 조회 ( itemLoader )
+     * 없는 id 는 결과에서 빠짐
+     */
+    public List<CatalogItem> findItems(List<Long> itemIds) {
+        List<Long> misses = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            hotItemTracker.recordRead(itemId);
+            if (catalogCache.get(itemId) == null) {
+                misses.add(itemId);
+            }
+        }
+        Map<Long, CatalogItem> loaded = misses.isEmpty() ? Map.of() : itemLoader.getAll(misses);
+        loaded.values().forEach(catalogCache::put);
+
+        List<CatalogItem> result = new ArrayList<>();
+        for (Long itemId : new LinkedHashSet<>(itemIds)) {
+            CatalogItem item = catalogCache.get(itemId);
+            if (item == null) {
+                item = loaded.get(itemId);   // 그 사이 캐시에서 제거된 경우
+            }
+            if (item != null) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * DB 에서 다시 읽어 캐시를 채움 ( 인기 상품을 미리 / 변경 직후 다시 채울 때. 조회 수로 세지 않음 )
+     */
+    public void reload(Collection<Long> itemIds) {
+        if (!itemIds.isEmpty()) {
+            itemLoader.getAll(itemIds).values().forEach(catalogCache::put);
+        }
+    }
+
+    public Collection<CatalogCategory> findCategories() {
+        return catalogCache.categories();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        Path file = Paths.get(snapshotFile);
+
+        CatalogFingerprint snapshotFingerprint = null;
+        if (snapshotEnabled && Files.exists(file)) {
+            try {
+                CatalogSnapshot snapshot = CatalogSnapshot.read(file);
+                catalogCache.putAll(snapshot.getItems());
+                catalogCache.replaceCategories(snapshot.getCategories());
+                snapshotFingerprint = snapshot.getFingerprint();
+            } catch (IOException | RuntimeException e) {
+                log.warn("catalog snapshot unreadable, loading from database. file={}", file, e);
+            }
+        }
+
+        CatalogFingerprint current = catalogQueryRepository.fingerprint();
+        if (snapshotFingerprint == null) {
+            reloadAll();
+        } else if (!snapshotFingerprint.equals(current)) {
+            reconcile();
+        }
+        log.info("catalog warmed. items={}, fromSnapshot={}, upToDate={}, {}ms", catalogCache.size(),
+                snapshotFingerprint != null, current.equals(snapshotFingerprint), System.currentTimeMillis() - start);
+
+        if (!current.equals(snapshotFingerprint)) {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * 캐시를 거치지 않고 들어온 데이터 ( 초기 데이터 입력 등 ) 를 캐시에 맞춤
+     */
+    public void refresh() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${jpashop.catalog.snapshot-interval-millis:300000}",
+            initialDelayString = "${jpashop.catalog.snapshot-interval-millis:300000}")
+    public void writeSnapshot() {
+        if (!snapshotEnabled) {
+            return;
+        }
+        // fingerprint 를 먼저 읽음 ( 읽는 사이 변경이 있으면 다음 기동 때 reconcile 로 맞춰짐 )
+        CatalogFingerprint fingerprint = catalogQueryRepository.fingerprint();
+        List<CatalogItem> items = catalogQueryRepository.findItems();
+        List<CatalogCategory> categories = catalogQueryRepository.findCategories();
+        try {
+            CatalogSnapshot.write(Paths.get(snapshotFile), fingerprint, items, categories);
+        } catch (IOException e) {
+            log.warn("catalog snapshot write failed. file={}", snapshotFile, e);
+        }
+    }
+
+    private void reloadAll() {
+        List<CatalogItem> items = catalogQueryRepository.findItems();
+        catalogCache.retainOnly(items.stream().map(CatalogItem::getId).collect(Collectors.toSet()));
+        catalogCache.putAll(items);
+        catalogCache.replaceCategories(catalogQueryRepository.findCategories());
+    }
+
+    // 버전이 다르거나 없는 상품만 다시 읽고, DB 에서 지워진 상품은 캐시에서 제거
+    private void reconcile() {
+        Map<Long, Long> versions = catalogQueryRepository.findItemVersions();
+        catalogCache.retainOnly(versions.keySet());
+
+        List<Long> stale = new ArrayList<>();
+        versions.forEach((id, version) -> {
+            CatalogItem cached = catalogCache.get(id);
+            if (cached == null || !version.equals(cached.getVersion())) {
+                stale.add(id);
+            }
+        });
+        for (int i = 0; i < stale.size(); i += 1000) {
+            catalogCache.putAll(catalogQueryRepository.findItems(stale.subList(i, Math.min(i + 1000, stale.size()))));
+        }
+        catalogCache.replaceCategories(catalogQueryRepository.findCategories());
+    }
+}
@@ -0,0 +1,152 @@
+package jpabook.jpashop.catalog;
+
+import jpabook.jpashop.repository.catalog.CatalogCategory;
+import jpabook.jpashop.repository.catalog.CatalogFingerprint;
+import jpabook.jpashop.repository.catalog.CatalogItem;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 카탈로그 바이너리 스냅샷 파일
+ * [magic int][format short][fingerprint 4 x long][createdAt long]
+ * [itemCount int] ( [id long][type byte][price int][stock int][version long][name, author, isbn, artist, etc, director, actor : str] )*
+ * [categoryCount int] ( [id long][parentId long ( 0 : 없음 )][name str][itemCount int][itemId long]* )*
+ * str : [length int ( -1 : null )][utf8 bytes]
+ */
+@Getter
+@AllArgsConstructor
+public class CatalogSnapshot {
+
+    private static final int MAGIC = 0x4A435331;   // JCS1
+    private static final short FORMAT = 2;   // 2 : 문자열 길이 int ( 1 은 short 라 32767 바이트 넘는 값이 잘림 )
+
+    private final CatalogFingerprint fingerprint;
+    private final long createdAt;
+    private final List<CatalogItem> items;
+    private final List<CatalogCategory> categories;
+
+    // 임시 파일에 쓰고 교체 ( 쓰는 도중 죽어도 이전 스냅샷 유지 )
+    public static void write(Path file, CatalogFingerprint fingerprint,
+                             Collection<CatalogItem> items, Collection<CatalogCategory> categories) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, "catalog", ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeShort(FORMAT);
+            out.writeLong(fingerprint.getItemCount());
+            out.writeLong(fingerprint.getVersionSum());
+            out.writeLong(fingerprint.getMaxItemId());
+            out.writeLong(fingerprint.getCategoryCount());
+            out.writeLong(System.currentTimeMillis());
+
+            out.writeInt(items.size());
+            for (CatalogItem item : items) {
+                out.writeLong(item.getId());
+                out.writeByte(item.getType().charAt(0));
+                out.writeInt(item.getPrice());
+                out.writeInt(item.getStockQuantity());
+                out.writeLong(item.getVersion() == null ? 0 : item.getVersion());
+                writeString(out, item.getName());
+                writeString(out, item.getAuthor());
+                writeString(out, item.getIsbn());
+                writeString(out, item.getArtist());
+                writeString(out, item.getEtc());
+                writeString(out, item.getDirector());
+                writeString(out, item.getActor());
+            }
+
+            out.writeInt(categories.size());
+            for (CatalogCategory category : categories) {
+                out.writeLong(category.getId());
+                out.writeLong(category.getParentId() == null ? 0 : category.getParentId());
+                writeString(out, category.getName());
+                out.writeInt(category.getItemIds().size());
+                for (Long itemId : category.getItemIds()) {
+                    out.writeLong(itemId);
+                }
+            }
+        }
+
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // 메모리 매핑으로 읽음
+    public static CatalogSnapshot read(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.getInt() != MAGIC || buffer.getShort() != FORMAT) {
+            throw new IOException("카탈로그 스냅샷 형식이 아닙니다. file=" + file);
+        }
+        CatalogFingerprint fingerprint = new CatalogFingerprint(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+        long createdAt = buffer.getLong();
+
+        int itemCount = buffer.getInt();
+        List<CatalogItem> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            long id = buffer.getLong();
+            String type = String.valueOf((char) buffer.get());
+            int price = buffer.getInt();
+            int stock = buffer.getInt();
+            long version = buffer.getLong();
+            items.add(new CatalogItem(id, type, readString(buffer), price, stock, version,
+                    readString(buffer), readString(buffer), readString(buffer),
+                    readString(buffer), readString(buffer), readString(buffer)));
+        }
+
+        int categoryCount = buffer.getInt();
+        List<CatalogCategory> categories = new ArrayList<>(categoryCount);
+        for (int i = 0; i < categoryCount; i++) {
+            long id = buffer.getLong();
+            long parentId = buffer.getLong();
+            String name = readString(buffer);
+            int size = buffer.getInt();
+            List<Long> itemIds = new ArrayList<>(size);
+            for (int j = 0; j < size; j++) {
+                itemIds.add(buffer.getLong());
+            }
+            categories.add(new CatalogCategory(id, name, parentId == 0 ? null : parentId, itemIds));
+        }
+
+        return new CatalogSnapshot(fingerprint, createdAt, items, categories);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,51 @@
+package jpabook.jpashop.config;
+
+import jpabook.jpashop.datasource.replication.ReadYourWritesInterceptor;
+import jpabook.jpashop.version.DataVersion;
+import jpabook.jpashop.version.RenderedPageCacheFilter;
+import jpabook.jpashop.version.VersionEtagInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import static jpabook.jpashop.version.Aggregate.*;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final DataVersion dataVersion;
+    private final ObjectProvider<ReadYourWritesInterceptor> readYourWritesInterceptor;
+
+    // 상품 목록, 홈 화면은 상품 버전이 바뀔 때만 다시 렌더링
+    @Bean
+    @ConditionalOnProperty(prefix = "jpashop.page-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<RenderedPageCacheFilter> renderedPageCacheFilter() {
+        FilterRegistrationBean<RenderedPageCacheFilter> registration =
+                new FilterRegistrationBean<>(new RenderedPageCacheFilter(dataVersion, ITEM));
+        registration.addUrlPatterns("/", "/items");
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // replica 사용 시에만 등록
+        readYourWritesInterceptor.ifAvailable(registry::addInterceptor);
+
+        // 조회 결과가 의존하는 데이터 묶음별로 ETag 를 만든다.
+        registry.addInterceptor(new VersionEtagInterceptor(dataVersion, MEMBER))
+                .addPathPatterns("/api/*/members", "/members");
+        registry.addInterceptor(new VersionEtagInterceptor(dataVersion, ITEM))
+                .addPathPatterns("/items", "/api/*/items/*", "/api/*/categories")
+                // 인기 상품, 베스트셀러는 상품 데이터가 아니라 주문 / 조회 빈도에 따라 바뀜
+                .excludePathPatterns("/api/*/items/hot", "/api/*/items/best-sellers");
+        // 주문 조회는 회원 이름, 상품 이름까지 포함
+        registry.addInterceptor(new VersionEtagInterceptor(dataVersion, ORDER, MEMBER, ITEM))
+                .addPathPatterns("/api/*/orders", "/api/*/simple-orders", "/orders", "/api/members/*/orders");
+    }
+}
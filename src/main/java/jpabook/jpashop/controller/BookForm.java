@@ -6,6 +6,7 @@ import lombok.Data;
 public class BookForm {
 
     private Long id;
+    private Long version;
     private String name;
     private int price;
     private int stockQuantity;
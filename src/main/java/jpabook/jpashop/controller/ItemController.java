@@ -2,6 +2,7 @@ package jpabook.jpashop.controller;
 
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.ItemUpdate;
 import jpabook.jpashop.service.ItemService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
@@ -52,9 +53,10 @@ public class ItemController {
 
         BookForm form = new BookForm();
         form.setId((item.getId()));
+        form.setVersion(item.getVersion());
         form.setName(item.getName());
         form.setPrice(item.getPrice());
-        form.setStockQuantity(item.getStockQuantity());
+        form.setStockQuantity(itemService.availableStock(item));
         form.setAuthor(item.getAuthor());
         form.setIsbn(item.getIsbn());
 
@@ -75,7 +77,14 @@ public class ItemController {
 //        book.setIsbn(form.getIsbn());
 //        itemService.saveItem(book);
 
-        itemService.updateItem(itemId, form.getName(), form.getPrice(), form.getStockQuantity()); // -> parameter 값이 많으면 dto 를 만들어서 넘기는 것도 좋은 방법이다.
+//        itemService.updateItem(itemId, form.getName(), form.getPrice(), form.getStockQuantity()); // -> parameter 값이 많으면 dto 를 만들어서 넘기는 것도 좋은 방법이다.
+
+        // 조회 없이 변경할 컬럼만 update 한번
+        ItemUpdate update = new ItemUpdate(itemId, form.getVersion());
+        update.setName(form.getName());
+        update.setPrice(form.getPrice());
+        update.setStockQuantity(form.getStockQuantity());
+        itemService.updateItemPartial(update);
 
         return "redirect:/items";
     }
@@ -1,36 +1,30 @@
 package jpabook.jpashop.controller;
 
-import jpabook.jpashop.domain.Member;
-import jpabook.jpashop.domain.Order;
-import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.repository.OrderSearch;
-import jpabook.jpashop.service.ItemService;
-import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.repository.order.list.OrderListDto;
+import jpabook.jpashop.repository.order.list.OrderListQueryRepository;
 import jpabook.jpashop.service.OrderService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 
 @Controller
 @RequiredArgsConstructor
 public class OrderController {
 
     private final OrderService orderService;
-    private final MemberService memberService;
-    private final ItemService itemService;
+    private final OrderListQueryRepository orderListQueryRepository;
 
+    // 회원, 상품은 화면에서 자동완성 api 로 조회 ( /api/typeahead/** )
     @GetMapping("/order")
-    public String createForm(Model model){
-
-        List<Member> members = memberService.findMembers();
-        List<Item> item = itemService.findItem();
-
-        model.addAttribute("members", members);
-        model.addAttribute("items", item);
-
+    public String createForm(){
         return "order/orderForm";
     }
 
@@ -42,9 +36,15 @@ public class OrderController {
         return "redirect:/orders";
     }
     
+    // 엔티티 목록( 최대 1000 건 ) 대신 dto 페이지 조회. 화면에서 지연로딩 하지 않음
     @GetMapping("/orders")
-    public String orderList(@ModelAttribute("orderSearch")OrderSearch orderSearch, Model model){
-        List<Order> orders = orderService.findOrder(orderSearch);
+    public String orderList(@ModelAttribute("orderSearch")OrderSearch orderSearch,
+                            @RequestParam(value = "page", defaultValue = "0") int page,
+                            @RequestParam(value = "size", defaultValue = "20") int size,
+                            Model model){
+//        List<Order> orders = orderService.findOrder(orderSearch);
+        PageRequest pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 100));
+        Page<OrderListDto> orders = orderListQueryRepository.findPage(orderSearch, pageable);
         model.addAttribute("orders", orders);
 
         return "order/orderList";
@@ -55,4 +55,10 @@ public class OrderController {
         orderService.cancelOrder(orderId);
         return "redirect:/orders";
     }
+
+    // 재시도 후에도 동시 주문과 충돌하면 500 대신 409 에러 화면
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public void concurrencyFailure(HttpServletResponse response) throws IOException {
+        response.sendError(HttpServletResponse.SC_CONFLICT, "다른 주문과 충돌했습니다. 다시 시도해 주세요.");
+    }
 }
@@ -0,0 +1,30 @@
+package jpabook.jpashop.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 설정 파일에 적는 datasource 하나의 접속 정보
+ */
+@Getter @Setter
+public class DataSourceSpec {
+
+    private String url;
+    private String username = "sa";
+    private String password = "";
+    private String driverClassName = "org.h2.Driver";
+    private int maximumPoolSize = 10;
+
+    public HikariDataSource build(String poolName, boolean readOnly) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(poolName);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setDriverClassName(driverClassName);
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        dataSource.setReadOnly(readOnly);
+        return dataSource;
+    }
+}
@@ -0,0 +1,15 @@
+package jpabook.jpashop.datasource.pool;
+
+import java.lang.annotation.*;
+
+/**
+ * 메서드( 또는 클래스 전체 )가 사용할 커넥션 풀 지정
+ * jpashop.pools.enabled=true 일 때만 동작
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConnectionPool {
+
+    PoolType value();
+}
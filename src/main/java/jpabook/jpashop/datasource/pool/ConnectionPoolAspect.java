@@ -0,0 +1,44 @@
+package jpabook.jpashop.datasource.pool;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+
+/**
+ * @ConnectionPool 이 붙은 메서드 / 클래스의 풀을 트랜잭션 시작 전에 지정
+ * 바깥 호출에서 이미 정해졌으면 유지 ( 한 트랜잭션은 한 풀만 사용 )
+ * 트랜잭션 advice 보다 먼저, JfrAspect 보다는 안쪽에서 실행
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ConnectionPoolAspect {
+
+    @Around("@within(jpabook.jpashop.datasource.pool.ConnectionPool)" +
+            " || @annotation(jpabook.jpashop.datasource.pool.ConnectionPool)")
+    public Object bind(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (PoolContext.current() != null) {
+            return joinPoint.proceed();
+        }
+
+        PoolContext.bind(resolve(joinPoint));
+        try {
+            return joinPoint.proceed();
+        } finally {
+            PoolContext.clear();
+        }
+    }
+
+    // 메서드에 붙은 것이 클래스에 붙은 것보다 우선
+    private PoolType resolve(ProceedingJoinPoint joinPoint) {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        ConnectionPool pool = AnnotatedElementUtils.findMergedAnnotation(signature.getMethod(), ConnectionPool.class);
+        if (pool == null) {
+            pool = AnnotatedElementUtils.findMergedAnnotation(joinPoint.getTarget().getClass(), ConnectionPool.class);
+        }
+        return pool == null ? PoolType.INTERACTIVE : pool.value();
+    }
+}
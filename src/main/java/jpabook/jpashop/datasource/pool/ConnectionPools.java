@@ -0,0 +1,40 @@
+package jpabook.jpashop.datasource.pool;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 용도별 커넥션 풀 모음
+ */
+public class ConnectionPools {
+
+    private final Map<PoolType, MeteredDataSource> pools = new EnumMap<>(PoolType.class);
+
+    public ConnectionPools(PoolProperties properties) {
+        for (PoolType pool : PoolType.values()) {
+            PoolProperties.Limit limit = properties.limitOf(pool);
+            HikariDataSource hikari = properties.getDatasource().build(pool.name().toLowerCase(), false);
+            hikari.setMaximumPoolSize(limit.getMaximumPoolSize());
+            hikari.setConnectionTimeout(limit.getConnectionTimeoutMillis());
+            pools.put(pool, new MeteredDataSource(pool, hikari));
+        }
+    }
+
+    public Map<PoolType, MeteredDataSource> getPools() {
+        return pools;
+    }
+
+    public List<PoolStats> stats() {
+        List<PoolStats> stats = new ArrayList<>();
+        pools.values().forEach(p -> stats.add(p.stats()));
+        return stats;
+    }
+
+    public void close() {
+        pools.values().forEach(MeteredDataSource::close);
+    }
+}
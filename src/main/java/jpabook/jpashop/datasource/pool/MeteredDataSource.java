@@ -0,0 +1,71 @@
+package jpabook.jpashop.datasource.pool;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 커넥션 획득 대기 시간 / 타임아웃 횟수 측정
+ */
+public class MeteredDataSource extends DelegatingDataSource {
+
+    private final PoolType pool;
+    private final HikariDataSource hikari;
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public MeteredDataSource(PoolType pool, HikariDataSource hikari) {
+        super(hikari);
+        this.pool = pool;
+        this.hikari = hikari;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            Connection connection = super.getConnection();
+            record(System.nanoTime() - start);
+            return connection;
+        } catch (SQLTransientConnectionException e) {
+            // hikari connectionTimeout 초과
+            timeouts.increment();
+            throw e;
+        }
+    }
+
+    private void record(long waitNanos) {
+        acquisitions.increment();
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    public PoolStats stats() {
+        HikariPoolMXBean mxBean = hikari.getHikariPoolMXBean();
+        long count = acquisitions.sum();
+        return new PoolStats(
+                pool,
+                hikari.getMaximumPoolSize(),
+                mxBean == null ? 0 : mxBean.getActiveConnections(),
+                mxBean == null ? 0 : mxBean.getIdleConnections(),
+                mxBean == null ? 0 : mxBean.getThreadsAwaitingConnection(),
+                count,
+                timeouts.sum(),
+                count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalWaitNanos.sum() / count),
+                TimeUnit.NANOSECONDS.toMicros(maxWaitNanos.get()));
+    }
+
+    public void close() {
+        hikari.close();
+    }
+}
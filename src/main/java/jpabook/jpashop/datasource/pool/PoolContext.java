@@ -0,0 +1,21 @@
+package jpabook.jpashop.datasource.pool;
+
+public final class PoolContext {
+
+    private static final ThreadLocal<PoolType> POOL = new ThreadLocal<>();
+
+    private PoolContext() {
+    }
+
+    public static void bind(PoolType pool) {
+        POOL.set(pool);
+    }
+
+    public static PoolType current() {
+        return POOL.get();
+    }
+
+    public static void clear() {
+        POOL.remove();
+    }
+}
@@ -0,0 +1,39 @@
+package jpabook.jpashop.datasource.pool;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * jpashop.pools.enabled=true 일 때 용도별( 주문 쓰기 / 일반 조회 / 리포트 ) 커넥션 풀을 분리
+ * 무거운 리포트 조회가 커넥션을 다 잡고 있어도 주문은 자기 풀에서 커넥션을 얻는다.
+ * replication, sharding 과 같이 사용할 수 없음
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "jpashop.pools", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(PoolProperties.class)
+public class PoolDataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    public ConnectionPools connectionPools(PoolProperties properties) {
+        return new ConnectionPools(properties);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ConnectionPools connectionPools) {
+        PoolRoutingDataSource routing = new PoolRoutingDataSource(connectionPools.getPools());
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public ConnectionPoolAspect connectionPoolAspect() {
+        return new ConnectionPoolAspect();
+    }
+}
@@ -0,0 +1,32 @@
+package jpabook.jpashop.datasource.pool;
+
+import jpabook.jpashop.datasource.DataSourceSpec;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@ConfigurationProperties("jpashop.pools")
+@Getter @Setter
+public class PoolProperties {
+
+    private boolean enabled;
+
+    // 모든 풀이 같은 DB 를 바라봄
+    private DataSourceSpec datasource = new DataSourceSpec();
+
+    // 풀 별 크기 / 커넥션 대기 시간
+    private Map<PoolType, Limit> limits = new EnumMap<>(PoolType.class);
+
+    @Getter @Setter
+    public static class Limit {
+        private int maximumPoolSize = 10;
+        private long connectionTimeoutMillis = 30000;
+    }
+
+    public Limit limitOf(PoolType pool) {
+        return limits.getOrDefault(pool, new Limit());
+    }
+}
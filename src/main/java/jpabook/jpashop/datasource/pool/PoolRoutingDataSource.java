@@ -0,0 +1,24 @@
+package jpabook.jpashop.datasource.pool;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * PoolContext 에 지정된 풀로 보냄. 지정이 없으면 INTERACTIVE
+ */
+public class PoolRoutingDataSource extends AbstractRoutingDataSource {
+
+    public PoolRoutingDataSource(Map<PoolType, ? extends DataSource> pools) {
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(pools.get(PoolType.INTERACTIVE));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        PoolType pool = PoolContext.current();
+        return pool == null ? PoolType.INTERACTIVE : pool;
+    }
+}
@@ -0,0 +1,19 @@
+package jpabook.jpashop.datasource.pool;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class PoolStats {
+
+    private PoolType pool;
+    private int maximumPoolSize;
+    private int active;
+    private int idle;
+    private int waiting;            // 커넥션을 기다리는 스레드 수 ( 대기열 )
+    private long acquisitions;
+    private long timeouts;
+    private long avgWaitMicros;
+    private long maxWaitMicros;
+}
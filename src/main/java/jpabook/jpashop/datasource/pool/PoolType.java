@@ -0,0 +1,7 @@
+package jpabook.jpashop.datasource.pool;
+
+public enum PoolType {
+    CHECKOUT,       // 주문, 주문취소 등 결제 흐름의 쓰기
+    INTERACTIVE,    // 화면 / API 일반 조회 ( 기본 )
+    REPORTING       // 전체 주문 조회, 통계 등 무거운 조회
+}
@@ -0,0 +1,98 @@
+package jpabook.jpashop.datasource.replication;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+
+/**
+ * replica 상태 체크
+ * 1. 커넥션이 정상인지
+ * 2. maxLagMillis 가 설정되어 있으면 primary 가 기록한 heartbeat 가 replica 에 얼마나 늦게 도착했는지
+ */
+@Slf4j
+public class ReplicaHealthChecker {
+
+    private final JdbcTemplate primary;
+    private final List<ReplicaState> replicas;
+    private final long maxLagMillis;
+
+    // 기동 시 한번 생성. 실패하면 ( primary 가 아직 안 떠 있는 등 ) 다음 체크 때 다시 시도
+    private volatile boolean heartbeatTableReady;
+
+    public ReplicaHealthChecker(DataSource primary, List<ReplicaState> replicas, long maxLagMillis) {
+        this.primary = new JdbcTemplate(primary);
+        this.replicas = replicas;
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    @PostConstruct
+    public void createHeartbeatTable() {
+        if (maxLagMillis <= 0 || heartbeatTableReady) {
+            return;
+        }
+        try {
+            primary.execute("create table if not exists replication_heartbeat (id int primary key, beat_at bigint)");
+            heartbeatTableReady = true;
+        } catch (Exception e) {
+            log.warn("heartbeat 테이블 생성 실패", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jpashop.replication.health-check-millis:5000}")
+    public void check() {
+        if (maxLagMillis > 0) {
+            writeHeartbeat();
+        }
+        for (ReplicaState replica : replicas) {
+            boolean before = replica.isHealthy();
+            checkReplica(replica);
+            if (before != replica.isHealthy()) {
+                log.warn("replica {} healthy={} lag={}ms", replica.getName(), replica.isHealthy(), replica.getLagMillis());
+            }
+        }
+    }
+
+    private void writeHeartbeat() {
+        createHeartbeatTable();
+        if (!heartbeatTableReady) {
+            return;
+        }
+        try {
+            primary.update("merge into replication_heartbeat key(id) values (1, ?)", System.currentTimeMillis());
+        } catch (Exception e) {
+            log.warn("heartbeat 기록 실패", e);
+        }
+    }
+
+    private void checkReplica(ReplicaState replica) {
+        try (Connection connection = replica.getDataSource().getConnection()) {
+            if (!connection.isValid(1)) {
+                replica.update(false, -1);
+                return;
+            }
+        } catch (Exception e) {
+            replica.update(false, -1);
+            return;
+        }
+
+        if (maxLagMillis <= 0) {
+            replica.update(true, -1);
+            return;
+        }
+
+        try {
+            Long beatAt = new JdbcTemplate(replica.getDataSource())
+                    .queryForObject("select beat_at from replication_heartbeat where id = 1", Long.class);
+            long lag = beatAt == null ? Long.MAX_VALUE : Math.max(0, System.currentTimeMillis() - beatAt);
+            replica.update(lag <= maxLagMillis, lag);
+        } catch (Exception e) {
+            // heartbeat 가 아직 복제되지 않음
+            replica.update(false, -1);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package jpabook.jpashop.datasource.replication;
+
+import lombok.Getter;
+
+import javax.sql.DataSource;
+
+/**
+ * replica 하나와 마지막 상태 체크 결과
+ */
+@Getter
+public class ReplicaState {
+
+    private final String name;
+    private final DataSource dataSource;
+
+    private volatile boolean healthy = true;
+    private volatile long lagMillis = -1;   // -1 : 측정 안함
+
+    public ReplicaState(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    public void update(boolean healthy, long lagMillis) {
+        this.healthy = healthy;
+        this.lagMillis = lagMillis;
+    }
+}
@@ -0,0 +1,69 @@
+package jpabook.jpashop.datasource.replication;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jpabook.jpashop.datasource.DataSourceSpec;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * jpashop.replication.enabled=true 일 때 spring.datasource 대신 primary + replica 라우팅 datasource 사용
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "jpashop.replication", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicationProperties.class)
+public class ReplicationDataSourceConfig implements DisposableBean {
+
+    private final ReplicationProperties properties;
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    private final HikariDataSource primary;
+    private final List<ReplicaState> replicas = new ArrayList<>();
+
+    public ReplicationDataSourceConfig(ReplicationProperties properties) {
+        this.properties = properties;
+
+        primary = properties.getPrimary().build("primary", false);
+        pools.add(primary);
+
+        List<DataSourceSpec> specs = properties.getReplicas();
+        for (int i = 0; i < specs.size(); i++) {
+            String name = "replica-" + i;
+            HikariDataSource replica = specs.get(i).build(name, true);
+            pools.add(replica);
+            replicas.add(new ReplicaState(name, replica));
+        }
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource() {
+        ReplicationRoutingDataSource routing = new ReplicationRoutingDataSource(primary, replicas);
+        routing.afterPropertiesSet();
+        // 트랜잭션 시작 시점이 아니라 첫 쿼리 시점에 커넥션을 얻어야 readOnly 여부로 라우팅 가능
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public ReplicaHealthChecker replicaHealthChecker() {
+        return new ReplicaHealthChecker(primary, replicas, properties.getMaxLagMillis());
+    }
+
+    @Bean
+    public ReadYourWritesInterceptor readYourWritesInterceptor() {
+        return new ReadYourWritesInterceptor(properties.getReadYourWritesMillis());
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,28 @@
+package jpabook.jpashop.datasource.replication;
+
+import jpabook.jpashop.datasource.DataSourceSpec;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties("jpashop.replication")
+@Getter @Setter
+public class ReplicationProperties {
+
+    private boolean enabled;
+
+    private DataSourceSpec primary = new DataSourceSpec();
+    private List<DataSourceSpec> replicas = new ArrayList<>();
+
+    // 쓰기 요청 이후 이 시간 동안은 같은 클라이언트의 조회도 primary 로 보냄 ( read-your-writes )
+    private long readYourWritesMillis = 3000;
+
+    // replica 상태 체크 주기
+    private long healthCheckMillis = 5000;
+
+    // 허용 지연 시간. 0 이면 지연 체크 안함 ( heartbeat 테이블 사용 )
+    private long maxLagMillis = 0;
+}
@@ -0,0 +1,157 @@
+package jpabook.jpashop.datasource.shard;
+
+import jpabook.jpashop.domain.item.Item;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.ReplicationMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 상품( 카탈로그, 재고 )의 원본은 0 번 shard
+ * - 상품 조회 / 수정은 shard 가 정해지지 않은 스레드에서 실행되므로 0 번 shard 로 감
+ * - 재고 변경은 0 번 shard 에서만 한다. 다른 shard 의 주문 트랜잭션에서는 0 번 shard 의 별도 트랜잭션으로 실행 ( execute )
+ * - 나머지 shard 에는 주문상품 FK 와 주문 조회 join( 상품명 )을 위해 상품 row 를 복제해 둠. 복제본의 재고 컬럼은 사용하지 않음
+ * sharding 을 사용하지 않거나 shard 가 하나면 아무것도 하지 않음
+ */
+@Slf4j
+@Component
+public class CatalogShard {
+
+    public static final int SHARD = 0;
+    private static final int REPLICATE_PAGE = 500;
+
+    private final ShardRouter router;
+    private final TransactionTemplate newTx;
+    private final EntityManager em;
+
+    public CatalogShard(ObjectProvider<ShardRouter> router, PlatformTransactionManager transactionManager, EntityManager em) {
+        this.router = router.getIfAvailable();
+        this.newTx = new TransactionTemplate(transactionManager);
+        this.newTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.em = em;
+    }
+
+    // 현재 스레드가 카탈로그가 아닌 shard 에 묶여 있는지 ( 재고를 그 shard 의 트랜잭션에서 바꾸면 안 됨 )
+    public boolean isRemote() {
+        Integer current = ShardContext.current();
+        return isSharded() && current != null && current != SHARD;
+    }
+
+    /**
+     * 카탈로그 shard 의 새 트랜잭션에서 실행하고 커밋 ( 현재 트랜잭션은 잠시 중단 )
+     * 두 shard 에 걸친 트랜잭션이 아니므로 호출한 쪽에서 onRollback / onCommit 으로 맞춰야 함
+     */
+    public <T> T execute(Supplier<T> work) {
+        return on(SHARD, () -> newTx.execute(status -> work.get()));
+    }
+
+    // 현재 트랜잭션이 롤백되면 실행 ( 카탈로그 shard 에 먼저 커밋한 재고 되돌리기 )
+    public void onRollback(Runnable compensation) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    runAfterCompletion(compensation);
+                }
+            }
+        });
+    }
+
+    // 현재 트랜잭션이 커밋되면 실행 ( 실패해도 커밋된 트랜잭션은 그대로이므로 로그만 )
+    public void onCommit(Runnable task) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runAfterCompletion(task);
+            }
+        });
+    }
+
+    // 현재 트랜잭션이 커밋되면 상품 row 를 나머지 shard 에 복제
+    public void replicateOnCommit(Long itemId) {
+        if (isSharded()) {
+            onCommit(() -> replicate(itemId));
+        }
+    }
+
+    // 0 번 shard 의 상품 row 를 나머지 shard 에 그대로 복사 ( 같은 id, 있으면 덮어씀 )
+    public void replicate(Long itemId) {
+        Item item = execute(() -> em.find(Item.class, itemId));
+        if (item != null) {
+            replicate(List.of(item));
+        }
+    }
+
+    // 기동 시 한번 전체 복제 ( 초기 데이터, 복제 전에 종료된 수정 )
+    @EventListener(ApplicationReadyEvent.class)
+    public void replicateAll() {
+        if (!isSharded()) {
+            return;
+        }
+        long lastId = 0;
+        int replicated = 0;
+        while (true) {
+            long after = lastId;
+            List<Item> items = execute(() -> em.createQuery("select i from Item i where i.id > :lastId order by i.id", Item.class)
+                    .setParameter("lastId", after)
+                    .setMaxResults(REPLICATE_PAGE)
+                    .getResultList());
+            if (items.isEmpty()) {
+                break;
+            }
+            replicate(items);
+            replicated += items.size();
+            lastId = items.get(items.size() - 1).getId();
+        }
+        log.info("카탈로그 복제 {}건 -> shard 1 ~ {}", replicated, router.getShardCount() - 1);
+    }
+
+    private void replicate(List<Item> items) {
+        for (int shard = SHARD + 1; shard < router.getShardCount(); shard++) {
+            on(shard, () -> newTx.execute(status -> {
+                Session session = em.unwrap(Session.class);
+                items.forEach(item -> session.replicate(item, ReplicationMode.OVERWRITE));
+                return null;
+            }));
+        }
+    }
+
+    private boolean isSharded() {
+        return router != null && router.getShardCount() > 1;
+    }
+
+    private void runAfterCompletion(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            log.error("카탈로그 shard 작업 실패", e);
+        }
+    }
+
+    // 바깥에서 정한 shard 는 끝나면 되돌림
+    private <T> T on(int shard, Supplier<T> work) {
+        Integer previous = ShardContext.current();
+        ShardContext.bind(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                ShardContext.clear();
+            } else {
+                ShardContext.bind(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package jpabook.jpashop.datasource.shard;
+
+/**
+ * 현재 스레드가 사용할 shard 번호
+ * 트랜잭션이 시작되기 전에 정해져야 한다.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static void bind(int shard) {
+        SHARD.set(shard);
+    }
+
+    public static boolean isBound() {
+        return SHARD.get() != null;
+    }
+
+    public static Integer current() {
+        return SHARD.get();
+    }
+
+    public static void clear() {
+        SHARD.remove();
+    }
+}
@@ -0,0 +1,73 @@
+package jpabook.jpashop.datasource.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jpabook.jpashop.datasource.DataSourceSpec;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * jpashop.sharding.enabled=true 일 때 회원 / 주문을 member_id 기준으로 여러 DB 에 나눠 저장
+ * 각 shard 는 전체 스키마를 가진 독립된 DB 이고, 회원과 그 회원의 주문은 같은 shard 에 있다.
+ * 상품 / 재고의 원본은 0 번 shard 이고 나머지 shard 에는 상품 row 만 복제 ( CatalogShard )
+ * replication 과 같이 사용할 수 없음
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "jpashop.sharding", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardProperties.class)
+public class ShardDataSourceConfig implements DisposableBean {
+
+    private final List<HikariDataSource> shards = new ArrayList<>();
+
+    public ShardDataSourceConfig(ShardProperties properties) {
+        List<DataSourceSpec> specs = properties.getShards();
+        for (int i = 0; i < specs.size(); i++) {
+            shards.add(specs.get(i).build("shard-" + i, false));
+        }
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource() {
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(shards);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public ShardRouter shardRouter() {
+        return new ShardRouter(shards.size());
+    }
+
+    @Bean
+    public ShardRoutingAspect shardRoutingAspect(ShardRouter shardRouter) {
+        return new ShardRoutingAspect(shardRouter);
+    }
+
+    @Bean
+    public ShardSchemaInitializer shardSchemaInitializer(@Value("${spring.jpa.hibernate.ddl-auto:none}") String ddlAuto) {
+        return new ShardSchemaInitializer(shards, ddlAuto);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardSchemaIntegrator(ShardSchemaInitializer shardSchemaInitializer) {
+        return properties -> properties.put("hibernate.integrator_provider",
+                (IntegratorProvider) () -> List.of(shardSchemaInitializer));
+    }
+
+    @Override
+    public void destroy() {
+        shards.forEach(HikariDataSource::close);
+    }
+}
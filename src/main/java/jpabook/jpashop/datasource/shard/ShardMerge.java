@@ -0,0 +1,39 @@
+package jpabook.jpashop.datasource.shard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 각 shard 에서 같은 순서로 정렬된 결과를 하나로 합침 ( k-way merge )
+ */
+public final class ShardMerge {
+
+    private ShardMerge() {
+    }
+
+    public static <T> List<T> mergeSorted(List<List<T>> parts, Comparator<? super T> order, int limit) {
+        // { shard 번호, 다음 위치 }
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(parts.size(), 1),
+                (a, b) -> order.compare(parts.get(a[0]).get(a[1]), parts.get(b[0]).get(b[1])));
+        int total = 0;
+        for (int i = 0; i < parts.size(); i++) {
+            total += parts.get(i).size();
+            if (!parts.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+
+        List<T> result = new ArrayList<>(Math.min(total, limit));
+        while (!heads.isEmpty() && result.size() < limit) {
+            int[] head = heads.poll();
+            List<T> part = parts.get(head[0]);
+            result.add(part.get(head[1]));
+            if (head[1] + 1 < part.size()) {
+                heads.add(new int[]{head[0], head[1] + 1});
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,19 @@
+package jpabook.jpashop.datasource.shard;
+
+import jpabook.jpashop.datasource.DataSourceSpec;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties("jpashop.sharding")
+@Getter @Setter
+public class ShardProperties {
+
+    private boolean enabled;
+
+    // 순서가 곧 shard 번호 ( 0 번은 상품 카탈로그 등 공용 데이터의 기본 shard )
+    private List<DataSourceSpec> shards = new ArrayList<>();
+}
@@ -0,0 +1,146 @@
+package jpabook.jpashop.datasource.shard;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 조회 쿼리를 모든 shard 에 병렬로 보내고( scatter ) 결과를 합침( gather )
+ * sharding 을 사용하지 않거나 이미 shard 가 정해진 스레드에서는 그냥 한번 실행한다.
+ * 각 shard 쿼리는 별도 스레드의 읽기 전용 트랜잭션에서 실행되므로 반환 값은 dto 여야 한다.
+ */
+@Component
+public class ShardQueries {
+
+    private final ShardRouter router;
+    private final TransactionTemplate readOnlyTx;
+    private final ExecutorService executor;
+
+    public ShardQueries(ObjectProvider<ShardRouter> router, PlatformTransactionManager transactionManager) {
+        this.router = router.getIfAvailable();
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+
+        if (this.router != null && this.router.getShardCount() > 1) {
+            AtomicInteger seq = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(this.router.getShardCount() * 2, r -> {
+                Thread thread = new Thread(r, "shard-scatter-" + seq.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * 각 shard 결과는 order 순서로 정렬되어 있어야 함
+     */
+    public <T> List<T> gather(Supplier<List<T>> query, Comparator<? super T> order) {
+        return gather(query, order, Integer.MAX_VALUE);
+    }
+
+    public <T> List<T> gather(Supplier<List<T>> query, Comparator<? super T> order, int limit) {
+        if (!isScatter()) {
+            return query.get();
+        }
+        return ShardMerge.mergeSorted(scatter(query), order, limit);
+    }
+
+    public long sum(Supplier<Long> query) {
+        if (!isScatter()) {
+            return query.get();
+        }
+        long sum = 0;
+        for (Long count : scatter(query)) {
+            sum += count;
+        }
+        return sum;
+    }
+
+    // shard 별로 차례대로 실행 ( 스트리밍 처럼 결과를 모으지 않는 경우 )
+    public void forEachShard(Runnable task) {
+        if (!isScatter()) {
+            task.run();
+            return;
+        }
+        for (int shard = 0; shard < router.getShardCount(); shard++) {
+            int target = shard;
+            join(CompletableFuture.runAsync(() -> runOnShard(target, () -> {
+                task.run();
+                return null;
+            }), executor));
+        }
+    }
+
+    // 특정 id 가 속한 shard 에서만 실행
+    public <T> T onShardOf(Long id, Supplier<T> query) {
+        if (!isScatter()) {
+            return query.get();
+        }
+        int shard = router.shardOfId(id);
+        return join(CompletableFuture.supplyAsync(() -> runOnShard(shard, query), executor));
+    }
+
+    // 여러 shard 에 나눠 보내는지 ( offset 페이징 처럼 호출 쪽에서 쿼리를 바꿔야 하는 경우 )
+    public boolean scatters() {
+        return isScatter();
+    }
+
+    private boolean isScatter() {
+        return executor != null && !ShardContext.isBound();
+    }
+
+    private <T> List<T> scatter(Supplier<T> query) {
+        List<CompletableFuture<T>> futures = new ArrayList<>();
+        for (int shard = 0; shard < router.getShardCount(); shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> runOnShard(target, query), executor));
+        }
+
+        List<T> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            results.add(join(future));
+        }
+        return results;
+    }
+
+    private <T> T runOnShard(int shard, Supplier<T> query) {
+        ShardContext.bind(shard);
+        try {
+            return readOnlyTx.execute(status -> query.get());
+        } finally {
+            ShardContext.clear();
+        }
+    }
+
+    private <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package jpabook.jpashop.datasource.shard;
+
+/**
+ * shard 번호 계산
+ * 각 shard 의 시퀀스를 (shard << ID_SHIFT) 부터 시작시켜서 id 만 보고 어느 shard 의 데이터인지 알 수 있게 한다.
+ * 회원과 그 회원의 주문은 같은 shard 에 있으므로 member_id 로 주문 shard 가 정해진다.
+ */
+public class ShardRouter {
+
+    public static final int ID_SHIFT = 40;
+
+    private final int shardCount;
+
+    public ShardRouter(int shardCount) {
+        if (shardCount < 1 || shardCount > (1 << (63 - ID_SHIFT))) {
+            throw new IllegalArgumentException("shard 수가 올바르지 않습니다. shardCount=" + shardCount);
+        }
+        this.shardCount = shardCount;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    // 회원 id, 주문 id 등 shard 에서 발급된 id 의 shard
+    public int shardOfId(Long id) {
+        int shard = (int) (id >>> ID_SHIFT);
+        if (shard >= shardCount) {
+            throw new IllegalArgumentException("shard 범위를 벗어난 id 입니다. id=" + id);
+        }
+        return shard;
+    }
+
+    // 신규 회원의 shard. 이름으로 정하므로 중복 회원 검사도 한 shard 안에서 끝난다.
+    public int shardForNewMember(String name) {
+        return Math.floorMod(name == null ? 0 : name.hashCode(), shardCount);
+    }
+
+    // shard 의 첫 id ( 시퀀스 시작 값 )
+    public static long firstId(int shard) {
+        return ((long) shard << ID_SHIFT) + 1;
+    }
+}
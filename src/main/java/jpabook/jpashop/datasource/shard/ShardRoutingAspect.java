@@ -0,0 +1,58 @@
+package jpabook.jpashop.datasource.shard;
+
+import jpabook.jpashop.domain.Member;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * 쓰기 / 단건 조회 서비스 메서드의 shard 를 트랜잭션 시작 전에 정함
+ * 트랜잭션 advice 보다 먼저 실행되어야 하므로 높은 우선순위 ( JfrAspect 바로 안쪽 )
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class ShardRoutingAspect {
+
+    private final ShardRouter router;
+
+    // 주문은 회원의 shard 로
+    @Around(value = "execution(* jpabook.jpashop.service.OrderService.order(..)) && args(memberId, ..)", argNames = "joinPoint,memberId")
+    public Object order(ProceedingJoinPoint joinPoint, Long memberId) throws Throwable {
+        return proceedOn(router.shardOfId(memberId), joinPoint);
+    }
+
+    @Around(value = "execution(* jpabook.jpashop.service.OrderService.cancelOrder(..)) && args(orderId)", argNames = "joinPoint,orderId")
+    public Object cancelOrder(ProceedingJoinPoint joinPoint, Long orderId) throws Throwable {
+        return proceedOn(router.shardOfId(orderId), joinPoint);
+    }
+
+    @Around(value = "execution(* jpabook.jpashop.service.MemberService.join(..)) && args(member)", argNames = "joinPoint,member")
+    public Object join(ProceedingJoinPoint joinPoint, Member member) throws Throwable {
+        return proceedOn(router.shardForNewMember(member.getName()), joinPoint);
+    }
+
+    @Around(value = "(execution(* jpabook.jpashop.service.MemberService.findOne(..))" +
+            " || execution(* jpabook.jpashop.service.MemberService.update(..))) && args(memberId, ..)",
+            argNames = "joinPoint,memberId")
+    public Object member(ProceedingJoinPoint joinPoint, Long memberId) throws Throwable {
+        return proceedOn(router.shardOfId(memberId), joinPoint);
+    }
+
+    private Object proceedOn(int shard, ProceedingJoinPoint joinPoint) throws Throwable {
+        // 바깥에서 이미 정했으면 그대로 사용
+        if (ShardContext.isBound()) {
+            return joinPoint.proceed();
+        }
+
+        ShardContext.bind(shard);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ShardContext.clear();
+        }
+    }
+}
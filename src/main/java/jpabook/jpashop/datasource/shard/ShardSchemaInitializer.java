@@ -0,0 +1,65 @@
+package jpabook.jpashop.datasource.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.hbm2ddl.SchemaExport;
+import org.hibernate.tool.schema.TargetType;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * hibernate ddl-auto 는 기본 shard( 0 번 )에만 적용되므로 나머지 shard 에도 같은 스키마를 생성하고
+ * shard 별 시퀀스 시작 값을 (shard << ID_SHIFT) 로 맞춘다.
+ * Integrator 로 hibernate 가 만든 Metadata 를 받아서 SchemaExport 에 그대로 사용
+ */
+@Slf4j
+public class ShardSchemaInitializer implements Integrator {
+
+    private final List<? extends DataSource> shards;
+    private final boolean createSchema;
+
+    private volatile Metadata metadata;
+
+    public ShardSchemaInitializer(List<? extends DataSource> shards, String ddlAuto) {
+        this.shards = shards;
+        this.createSchema = "create".equals(ddlAuto) || "create-drop".equals(ddlAuto);
+    }
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        this.metadata = metadata;
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void initShards() {
+        if (!createSchema || metadata == null) {
+            return;
+        }
+
+        for (int shard = 1; shard < shards.size(); shard++) {
+            // SchemaExport 는 hibernate 의 커넥션( = 라우팅 datasource )을 사용하므로 shard 를 지정
+            ShardContext.bind(shard);
+            try {
+                new SchemaExport().create(EnumSet.of(TargetType.DATABASE), metadata);
+            } finally {
+                ShardContext.clear();
+            }
+
+            new JdbcTemplate(shards.get(shard))
+                    .execute("alter sequence hibernate_sequence restart with " + ShardRouter.firstId(shard));
+            log.info("shard {} 스키마 생성", shard);
+        }
+    }
+}
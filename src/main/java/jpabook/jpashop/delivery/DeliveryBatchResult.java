@@ -0,0 +1,14 @@
+package jpabook.jpashop.delivery;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class DeliveryBatchResult {
+
+    private String jobName;
+    private int partitions;     // 이번 실행에서 처리한 파티션 수 ( 이어서 실행하면 남은 것만 )
+    private long updated;       // 상태가 바뀐 배송 수
+    private long elapsedMillis;
+}
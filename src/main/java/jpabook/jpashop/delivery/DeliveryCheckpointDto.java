@@ -0,0 +1,17 @@
+package jpabook.jpashop.delivery;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class DeliveryCheckpointDto {
+
+    private String jobName;
+    private int shard;
+    private int partition;
+    private long lo;
+    private long hi;
+    private long lastId;        // 여기까지 처리 ( lo - 1 이면 시작 전 )
+    private boolean done;
+}
@@ -0,0 +1,324 @@
+package jpabook.jpashop.delivery;
+
+import jpabook.jpashop.datasource.shard.ShardContext;
+import jpabook.jpashop.datasource.shard.ShardRouter;
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.version.Aggregate;
+import jpabook.jpashop.version.DataVersion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 배송 상태 일괄 변경 ( 기본 : 야간 READY -> COMP 정산 )
+ * - 배송 id 범위를 파티션으로 나누고, 파티션마다 작업 스레드가 자기 커넥션 / 트랜잭션으로 처리
+ * - 파티션 안에서는 id 구간 chunk 단위 set-based update ( 엔티티를 읽지 않음 )
+ * - chunk 갱신과 체크포인트 기록이 한 트랜잭션이라 중간에 죽어도 다시 실행하면 남은 구간부터 이어서 진행
+ * - where 절에 변경 전 상태가 들어가므로 같은 구간을 다시 처리해도 결과가 같음
+ * - 취소된 주문의 배송은 바꾸지 않음
+ * - sharding 사용 시 shard 마다 따로 파티션을 나누고, 체크포인트도 그 shard 에 기록
+ */
+@Slf4j
+@Component
+public class DeliveryStatusBatchJob {
+
+    private static final String CHECKPOINT_TABLE = "delivery_batch_checkpoint";
+
+    private final EntityManager em;
+    private final TransactionTemplate chunkTx;
+    private final DataVersion dataVersion;
+    private final ShardRouter router;
+
+    private final boolean enabled;
+    private final int threads;
+    private final int partitions;
+    private final int chunkSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean checkpointTableReady;
+
+    public DeliveryStatusBatchJob(EntityManager em,
+                                  PlatformTransactionManager transactionManager,
+                                  DataVersion dataVersion,
+                                  ObjectProvider<ShardRouter> router,
+                                  @Value("${jpashop.delivery-batch.enabled:false}") boolean enabled,
+                                  @Value("${jpashop.delivery-batch.threads:0}") int threads,
+                                  @Value("${jpashop.delivery-batch.partitions:0}") int partitions,
+                                  @Value("${jpashop.delivery-batch.chunk-size:5000}") int chunkSize) {
+        this.em = em;
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.chunkTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.dataVersion = dataVersion;
+        this.router = router.getIfAvailable();
+        this.enabled = enabled;
+        // 0 이면 코어 수 기준
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.partitions = partitions > 0 ? partitions : this.threads * 4;
+        this.chunkSize = chunkSize;
+    }
+
+    // 체크포인트 테이블은 hibernate 가 관리하지 않으므로 ( ddl-auto 로 지워지지 않음 ) 없을 때만 생성
+    // 스케줄을 사용할 때만 기동 시 생성. 아니면 처음 수동 실행할 때 생성
+    @EventListener(ContextRefreshedEvent.class)
+    public void createCheckpointTable() {
+        if (enabled) {
+            ensureCheckpointTable();
+        }
+    }
+
+    private synchronized void ensureCheckpointTable() {
+        if (checkpointTableReady) {
+            return;
+        }
+        for (int shard = 0; shard < shardCount(); shard++) {
+            onShard(shard, () -> chunkTx.execute(status -> em.createNativeQuery(
+                    "create table if not exists " + CHECKPOINT_TABLE + " (" +
+                            " job_name varchar(100) not null," +
+                            " partition_no int not null," +
+                            " lo bigint not null," +
+                            " hi bigint not null," +
+                            " last_id bigint not null," +
+                            " done boolean not null," +
+                            " updated_at timestamp," +
+                            " primary key (job_name, partition_no))").executeUpdate()));
+        }
+        checkpointTableReady = true;
+    }
+
+    @Scheduled(cron = "${jpashop.delivery-batch.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (enabled) {
+            run(DeliveryStatus.READY, DeliveryStatus.COMP);
+        }
+    }
+
+    public DeliveryBatchResult run(DeliveryStatus from, DeliveryStatus to) {
+        if (from == to) {
+            throw new IllegalArgumentException("변경 전후 상태가 같습니다. " + from);
+        }
+        String jobName = jobName(from, to);
+        ensureCheckpointTable();
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("배송 상태 일괄 변경이 이미 실행 중입니다.");
+        }
+
+        long start = System.currentTimeMillis();
+        AtomicInteger seq = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "delivery-batch-" + seq.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int shard = 0; shard < shardCount(); shard++) {
+                int target = shard;
+                for (DeliveryCheckpointDto partition : onShard(shard, () -> plan(jobName, from))) {
+                    futures.add(executor.submit(() -> onShard(target, () -> runPartition(partition, from, to))));
+                }
+            }
+
+            long updated = 0;
+            for (Future<Long> future : futures) {
+                updated += join(future);
+            }
+            if (updated > 0) {
+                dataVersion.bump(Aggregate.ORDER);
+            }
+
+            long elapsed = System.currentTimeMillis() - start;
+            log.info("배송 상태 일괄 변경 {} : 파티션 {}개, {}건, {}ms", jobName, futures.size(), updated, elapsed);
+            return new DeliveryBatchResult(jobName, futures.size(), updated, elapsed);
+        } finally {
+            executor.shutdownNow();
+            running.set(false);
+        }
+    }
+
+    public List<DeliveryCheckpointDto> checkpoints(DeliveryStatus from, DeliveryStatus to) {
+        String jobName = jobName(from, to);
+        ensureCheckpointTable();
+        List<DeliveryCheckpointDto> result = new ArrayList<>();
+        for (int shard = 0; shard < shardCount(); shard++) {
+            int target = shard;
+            result.addAll(onShard(shard, () -> chunkTx.execute(status -> findCheckpoints(target, jobName))));
+        }
+        return result;
+    }
+
+    /**
+     * 끝나지 않은 체크포인트가 있으면 그대로 이어서 진행
+     * 없으면 ( 처음이거나 지난 실행이 다 끝났으면 ) 지금 대상 id 범위로 파티션을 새로 나눔
+     */
+    private List<DeliveryCheckpointDto> plan(String jobName, DeliveryStatus from) {
+        return chunkTx.execute(status -> {
+            int shard = ShardContext.isBound() ? ShardContext.current() : 0;
+            List<DeliveryCheckpointDto> pending = new ArrayList<>();
+            for (DeliveryCheckpointDto checkpoint : findCheckpoints(shard, jobName)) {
+                if (!checkpoint.isDone()) {
+                    pending.add(checkpoint);
+                }
+            }
+            if (!pending.isEmpty()) {
+                log.info("배송 상태 일괄 변경 {} : 남은 파티션 {}개부터 이어서 진행", jobName, pending.size());
+                return pending;
+            }
+
+            em.createNativeQuery("delete from " + CHECKPOINT_TABLE + " where job_name = :jobName")
+                    .setParameter("jobName", jobName)
+                    .executeUpdate();
+
+            Object[] range = em.createQuery(
+                            "select min(d.id), max(d.id) from Delivery d where " + statusCondition(from), Object[].class)
+                    .setParameter("from", from)
+                    .setParameter("cancel", OrderStatus.CANCEL)
+                    .getSingleResult();
+            if (range[0] == null) {
+                return pending;
+            }
+
+            long min = (Long) range[0];
+            long max = (Long) range[1];
+            long width = Math.max(chunkSize, (max - min + partitions) / partitions);
+            int partitionNo = 0;
+            for (long lo = min; lo <= max; lo += width) {
+                long hi = Math.min(max, lo + width - 1);
+                em.createNativeQuery("insert into " + CHECKPOINT_TABLE +
+                                " (job_name, partition_no, lo, hi, last_id, done, updated_at)" +
+                                " values (:jobName, :partitionNo, :lo, :hi, :lastId, false, current_timestamp)")
+                        .setParameter("jobName", jobName)
+                        .setParameter("partitionNo", partitionNo)
+                        .setParameter("lo", lo)
+                        .setParameter("hi", hi)
+                        .setParameter("lastId", lo - 1)
+                        .executeUpdate();
+                pending.add(new DeliveryCheckpointDto(jobName, shard, partitionNo, lo, hi, lo - 1, false));
+                partitionNo++;
+            }
+            return pending;
+        });
+    }
+
+    // 파티션 하나를 chunk 단위로 끝까지 처리
+    private long runPartition(DeliveryCheckpointDto partition, DeliveryStatus from, DeliveryStatus to) {
+        long updated = 0;
+        long lastId = partition.getLastId();
+        while (lastId < partition.getHi()) {
+            long after = lastId;
+            long upTo = Math.min(partition.getHi(), after + chunkSize);
+            Integer count = chunkTx.execute(status -> {
+                int changed = em.createQuery(
+                                "update Delivery d set d.status = :to" +
+                                        " where d.id > :after and d.id <= :upTo and " + statusCondition(from))
+                        .setParameter("to", to)
+                        .setParameter("from", from)
+                        .setParameter("cancel", OrderStatus.CANCEL)
+                        .setParameter("after", after)
+                        .setParameter("upTo", upTo)
+                        .executeUpdate();
+                em.createNativeQuery("update " + CHECKPOINT_TABLE +
+                                " set last_id = :lastId, done = :done, updated_at = current_timestamp" +
+                                " where job_name = :jobName and partition_no = :partitionNo")
+                        .setParameter("lastId", upTo)
+                        .setParameter("done", upTo >= partition.getHi())
+                        .setParameter("jobName", partition.getJobName())
+                        .setParameter("partitionNo", partition.getPartition())
+                        .executeUpdate();
+                return changed;
+            });
+            updated += count == null ? 0 : count;
+            lastId = upTo;
+        }
+        return updated;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<DeliveryCheckpointDto> findCheckpoints(int shard, String jobName) {
+        List<Object[]> rows = em.createNativeQuery(
+                        "select partition_no, lo, hi, last_id, done from " + CHECKPOINT_TABLE +
+                                " where job_name = :jobName order by partition_no")
+                .setParameter("jobName", jobName)
+                .getResultList();
+
+        List<DeliveryCheckpointDto> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(new DeliveryCheckpointDto(jobName, shard,
+                    ((Number) row[0]).intValue(),
+                    ((Number) row[1]).longValue(),
+                    ((Number) row[2]).longValue(),
+                    ((Number) row[3]).longValue(),
+                    Boolean.TRUE.equals(row[4])));
+        }
+        return result;
+    }
+
+    // 상태 기본값이 생기기 전에 만들어진 배송은 status 가 null 이므로 READY 로 취급
+    // 취소된 주문의 배송은 제외 ( bulk update 안의 상관 서브쿼리는 별칭 없이 풀려서 orders 컬럼으로 해석되므로 not in 사용 )
+    private String statusCondition(DeliveryStatus from) {
+        String status = from == DeliveryStatus.READY
+                ? "(d.status = :from or d.status is null)"
+                : "d.status = :from";
+        return status + " and d.id not in" +
+                " (select o.delivery.id from Order o where o.status = :cancel and o.delivery.id is not null)";
+    }
+
+    private String jobName(DeliveryStatus from, DeliveryStatus to) {
+        return "delivery-status:" + from + "->" + to;
+    }
+
+    private int shardCount() {
+        return router == null ? 1 : router.getShardCount();
+    }
+
+    // sharding 을 사용하면 해당 shard 에 묶어서 실행 ( 트랜잭션이 시작되기 전에 정해져야 함 )
+    private <T> T onShard(int shard, Supplier<T> task) {
+        if (router == null) {
+            return task.get();
+        }
+        Integer previous = ShardContext.current();
+        ShardContext.bind(shard);
+        try {
+            return task.get();
+        } finally {
+            if (previous == null) {
+                ShardContext.clear();
+            } else {
+                ShardContext.bind(previous);
+            }
+        }
+    }
+
+    private long join(Future<Long> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("배송 상태 일괄 변경이 중단되었습니다.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -20,5 +20,5 @@ public class Delivery {
     private Address address;
 
     @Enumerated(EnumType.STRING)
-    private DeliveryStatus status; // READY, COMP
+    private DeliveryStatus status = DeliveryStatus.READY; // READY, COMP
 }
@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "idx_member_name", columnList = "name"))   // 이름 앞부분 검색 ( 자동완성 )
 @Getter @Setter
 public class Member {
 
@@ -2,6 +2,7 @@ package jpabook.jpashop.domain;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
@@ -12,7 +13,8 @@ import java.util.List;
 import static javax.persistence.CascadeType.ALL;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_member_date",
+        columnList = "member_id, order_date desc, order_id desc"))   // 회원별 주문 내역 ( 키셋 페이징 )
 @Getter @Setter
 public class Order {
 
@@ -34,13 +36,18 @@ public class Order {
 
     private LocalDateTime orderDate;    // 주문시간
 
+    private LocalDateTime cancelDate;   // 취소시간 ( 보관 정책 기준 )
+
     @Enumerated(EnumType.STRING)
     private OrderStatus status; // 주문상태 [ORDER, CANCEL]
 
     // == 연관관계 메서드 == //
     public void setMember (Member member){
         this.member = member;
-        member.getOrders().add(this);
+        // 프록시( getReference )면 컬렉션을 채우려고 회원을 조회하지 않음
+        if (Hibernate.isInitialized(member)) {
+            member.getOrders().add(this);
+        }
     }
 
     public void addOrderItem(OrderItem orderItem){
@@ -71,14 +78,22 @@ public class Order {
      * 주문 취소
      */
     public void cancel(){
+        markCancelled();
+        for (OrderItem orderItem : orderItems) {
+            orderItem.cancel();
+        }
+    }
+
+    /**
+     * 상태만 취소로 변경 ( 재고 복구는 호출한 쪽에서 )
+     */
+    public void markCancelled(){
         if(delivery.getStatus() == DeliveryStatus.COMP){
             throw new IllegalStateException("이미 배송완료된 상품은 취소가 불가능합니다.");
         }
 
         this.setStatus((OrderStatus.CANCEL));
-        for (OrderItem orderItem : orderItems) {
-            orderItem.cancel();
-        }
+        this.setCancelDate(LocalDateTime.now());
     }
 
     // == 조회 로직 == //
@@ -48,6 +48,15 @@ public class OrderItem {
         return orderItem;
     }
 
+    // 재고는 건드리지 않음 ( 재고 원장 사용 시 StockLedger 에서 차감 )
+    public static OrderItem createOrderItemWithoutStock(Item item, int orderPrice, int count){
+        OrderItem orderItem = new OrderItem();
+        orderItem.setItem(item);
+        orderItem.setOrderPrice(orderPrice);
+        orderItem.setCount(count);
+        return orderItem;
+    }
+
     // == 비즈니스 로직 == //
     public void cancel() {
         getItem().addStock(count);
@@ -0,0 +1,43 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 재고 변화 기록 ( insert 만 함 )
+ * 주문 : -수량, 취소 : +수량. 가용 재고 = item.stock_quantity + 아직 합치지 않은 기록의 합
+ */
+@Entity
+@Table(name = "stock_ledger", indexes = @Index(name = "idx_stock_ledger_item", columnList = "item_id"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class StockLedgerEntry {
+
+    @Id @GeneratedValue
+    @Column(name = "stock_ledger_id")
+    private Long id;
+
+    // 상품 row 를 건드리지 않도록 연관관계 대신 id 만 저장
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    private int delta;
+
+    private LocalDateTime createdAt;
+
+    public static StockLedgerEntry of(Long itemId, Long orderId, int delta) {
+        StockLedgerEntry entry = new StockLedgerEntry();
+        entry.itemId = itemId;
+        entry.orderId = orderId;
+        entry.delta = delta;
+        entry.createdAt = LocalDateTime.now();
+        return entry;
+    }
+}
@@ -5,14 +5,17 @@ import jpabook.jpashop.domain.OrderItem;
 import jpabook.jpashop.exception.NotEnoughStockException;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "idx_item_name", columnList = "name"))     // 이름 앞부분 검색 ( 자동완성 )
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "dtype")
+@DynamicUpdate  // 변경된 컬럼만 update
 @Getter @Setter
 public abstract class Item {
 
@@ -27,6 +30,9 @@ public abstract class Item {
 
     private int stockQuantity;
 
+    @Version
+    private Long version;   // 동시 수정 충돌 감지 ( 낙관적 락 )
+
     @ManyToMany(mappedBy = "items")
     private List<Category> categories = new ArrayList<>();
 
@@ -0,0 +1,48 @@
+package jpabook.jpashop.event;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 주문 생성 / 취소 이벤트
+ * OrderService 가 발행하고 커밋 이후에 저널, 통계 등에서 받아서 사용
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class OrderEvent {
+
+    private final OrderEventType type;
+    private final Long orderId;
+    private final Long memberId;
+    private final LocalDateTime orderDate;
+    private final List<StockDelta> stockDeltas;
+
+    public static OrderEvent created(Order order) {
+        return of(OrderEventType.CREATED, order, -1);
+    }
+
+    public static OrderEvent cancelled(Order order) {
+        return of(OrderEventType.CANCELLED, order, 1);
+    }
+
+    // 엔티티를 읽지 않는 일괄 취소용 ( stockDeltas 는 상품별 +수량 )
+    public static OrderEvent cancelled(Long orderId, Long memberId, LocalDateTime orderDate, List<StockDelta> stockDeltas) {
+        return new OrderEvent(OrderEventType.CANCELLED, orderId, memberId, orderDate, stockDeltas);
+    }
+
+    private static OrderEvent of(OrderEventType type, Order order, int sign) {
+        List<StockDelta> deltas = new ArrayList<>();
+        for (OrderItem orderItem : order.getOrderItems()) {
+            deltas.add(new StockDelta(orderItem.getItem().getId(), sign * orderItem.getCount()));
+        }
+        return new OrderEvent(type, order.getId(), order.getMember().getId(), order.getOrderDate(), deltas);
+    }
+}
@@ -0,0 +1,5 @@
+package jpabook.jpashop.event;
+
+public enum OrderEventType {
+    CREATED, CANCELLED
+}
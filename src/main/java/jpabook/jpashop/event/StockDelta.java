@@ -0,0 +1,17 @@
+package jpabook.jpashop.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 상품 재고 변화량 ( 주문 : 음수, 취소 : 양수 )
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class StockDelta {
+
+    private final Long itemId;
+    private final int delta;
+}
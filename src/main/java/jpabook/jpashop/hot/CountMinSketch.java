@@ -0,0 +1,67 @@
+package jpabook.jpashop.hot;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * count-min sketch ( 고정 메모리로 키별 빈도 추정, 실제보다 작게 추정하지는 않음 )
+ * depth 개의 행에 서로 다른 해시로 더하고, 추정은 행들의 최솟값
+ * 오차는 대략 전체 합 * e / width 이하 ( 확률 1 - e^-depth )
+ */
+public class CountMinSketch {
+
+    private final int width;
+    private final AtomicLongArray[] rows;
+    private final long[] seeds;
+
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("width, depth 는 0 보다 커야 합니다.");
+        }
+        this.width = width;
+        this.rows = new AtomicLongArray[depth];
+        this.seeds = new long[depth];
+        for (int i = 0; i < depth; i++) {
+            rows[i] = new AtomicLongArray(width);
+            seeds[i] = 0x9E3779B97F4A7C15L * (i + 1);
+        }
+    }
+
+    /**
+     * @return 더한 뒤의 추정 빈도
+     */
+    public long add(long key, long count) {
+        long estimate = Long.MAX_VALUE;
+        for (int i = 0; i < rows.length; i++) {
+            estimate = Math.min(estimate, rows[i].addAndGet(index(key, i), count));
+        }
+        return estimate;
+    }
+
+    public long estimate(long key) {
+        long estimate = Long.MAX_VALUE;
+        for (int i = 0; i < rows.length; i++) {
+            estimate = Math.min(estimate, rows[i].get(index(key, i)));
+        }
+        return estimate;
+    }
+
+    /**
+     * 모든 칸에 factor 를 곱함 ( 0.5 면 절반 ). 오래된 빈도의 영향을 줄임
+     * 동시에 들어온 add 와 섞여도 추정치가 조금 흔들릴 뿐이라 락을 걸지 않음
+     */
+    public void decay(double factor) {
+        for (AtomicLongArray row : rows) {
+            for (int j = 0; j < width; j++) {
+                row.set(j, (long) (row.get(j) * factor));
+            }
+        }
+    }
+
+    private int index(long key, int row) {
+        long h = (key ^ seeds[row]) * 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 31;
+        h *= 0x94D049BB133111EBL;
+        h ^= h >>> 29;
+        return (int) ((h & Long.MAX_VALUE) % width);
+    }
+}
@@ -0,0 +1,12 @@
+package jpabook.jpashop.hot;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class HotItemDto {
+
+    private Long itemId;
+    private long score;         // 감쇠된 추정 빈도 ( 주문 수량 * order-weight + 조회 수 )
+}
@@ -0,0 +1,193 @@
+package jpabook.jpashop.hot;
+
+import jpabook.jpashop.event.OrderEvent;
+import jpabook.jpashop.event.OrderEventType;
+import jpabook.jpashop.event.StockDelta;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * 인기 상품 추적 ( heavy hitters )
+ * - 주문 수량( 커밋 후 ) 과 상품 조회를 count-min sketch 에 더함 ( 상품 수와 상관없이 고정 메모리 )
+ * - 추정 빈도 상위 top-k 개만 min-heap 으로 유지
+ * - decay-interval 마다 sketch 와 heap 의 값을 decay-factor 배로 줄여서 최근 빈도 위주로 유지
+ * - refresh-interval 마다 score 가 min-score 이상인 상위 상품을 인기 상품으로 보고, 바뀌었으면 HotSetChangedEvent 발행
+ */
+@Component
+public class HotItemTracker {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final CountMinSketch sketch;
+    private final int topK;
+    private final long minScore;
+    private final int orderWeight;
+    private final double decayFactor;
+
+    // top-k 후보 ( heap 의 맨 앞이 score 가 가장 작은 후보 )
+    private final PriorityQueue<Candidate> heap = new PriorityQueue<>(Comparator.comparingLong(c -> c.score));
+    private final Map<Long, Candidate> candidates = new HashMap<>();
+    // heap 이 가득 찼을 때의 최솟값. 이보다 작은 상품은 락 없이 바로 돌아감
+    private volatile long admission;
+
+    private volatile Set<Long> hotItemIds = Collections.emptySet();
+
+    public HotItemTracker(ApplicationEventPublisher eventPublisher,
+                          @Value("${jpashop.hot-items.top-k:20}") int topK,
+                          @Value("${jpashop.hot-items.min-score:50}") long minScore,
+                          @Value("${jpashop.hot-items.order-weight:10}") int orderWeight,
+                          @Value("${jpashop.hot-items.sketch-width:2048}") int sketchWidth,
+                          @Value("${jpashop.hot-items.sketch-depth:4}") int sketchDepth,
+                          @Value("${jpashop.hot-items.decay-factor:0.5}") double decayFactor) {
+        this.eventPublisher = eventPublisher;
+        this.sketch = new CountMinSketch(sketchWidth, sketchDepth);
+        this.topK = Math.max(1, topK);
+        this.minScore = minScore;
+        this.orderWeight = orderWeight;
+        this.decayFactor = decayFactor;
+    }
+
+    // 주문 생성만 반영 ( 취소는 인기도를 줄이지 않음 )
+    @TransactionalEventListener
+    public void onOrderEvent(OrderEvent event) {
+        if (event.getType() != OrderEventType.CREATED) {
+            return;
+        }
+        for (StockDelta delta : event.getStockDeltas()) {
+            record(delta.getItemId(), (long) -delta.getDelta() * orderWeight);
+        }
+    }
+
+    public void recordRead(Long itemId) {
+        record(itemId, 1);
+    }
+
+    public void record(Long itemId, long weight) {
+        if (itemId == null || weight <= 0) {
+            return;
+        }
+        long estimate = sketch.add(itemId, weight);
+        if (estimate <= admission) {
+            return;
+        }
+        synchronized (this) {
+            offer(itemId, estimate);
+        }
+    }
+
+    /**
+     * 인기 상품 ( score 내림차순 )
+     */
+    public List<HotItemDto> top() {
+        List<HotItemDto> result = new ArrayList<>();
+        synchronized (this) {
+            for (Candidate candidate : heap) {
+                if (candidate.score >= minScore) {
+                    result.add(new HotItemDto(candidate.itemId, candidate.score));
+                }
+            }
+        }
+        result.sort(Comparator.comparingLong(HotItemDto::getScore).reversed());
+        return result;
+    }
+
+    public Set<Long> hotItemIds() {
+        return hotItemIds;
+    }
+
+    public boolean isHot(Long itemId) {
+        return hotItemIds.contains(itemId);
+    }
+
+    @Scheduled(fixedRateString = "${jpashop.hot-items.refresh-interval-millis:1000}")
+    public void refresh() {
+        Set<Long> current = new LinkedHashSet<>();
+        for (HotItemDto item : top()) {
+            current.add(item.getItemId());
+        }
+        Set<Long> previous = hotItemIds;
+        if (current.equals(previous)) {
+            return;
+        }
+
+        Set<Long> added = new HashSet<>(current);
+        added.removeAll(previous);
+        Set<Long> removed = new HashSet<>(previous);
+        removed.removeAll(current);
+
+        hotItemIds = Collections.unmodifiableSet(current);
+        eventPublisher.publishEvent(new HotSetChangedEvent(hotItemIds,
+                Collections.unmodifiableSet(added), Collections.unmodifiableSet(removed)));
+    }
+
+    @Scheduled(fixedRateString = "${jpashop.hot-items.decay-interval-millis:60000}",
+            initialDelayString = "${jpashop.hot-items.decay-interval-millis:60000}")
+    public void decay() {
+        sketch.decay(decayFactor);
+        synchronized (this) {
+            List<Candidate> decayed = new ArrayList<>(heap);
+            heap.clear();
+            candidates.clear();
+            for (Candidate candidate : decayed) {
+                candidate.score = (long) (candidate.score * decayFactor);
+                if (candidate.score > 0) {
+                    heap.add(candidate);
+                    candidates.put(candidate.itemId, candidate);
+                }
+            }
+            updateAdmission();
+        }
+        refresh();
+    }
+
+    // synchronized 안에서 호출
+    private void offer(Long itemId, long estimate) {
+        Candidate candidate = candidates.get(itemId);
+        if (candidate != null) {
+            if (estimate > candidate.score) {
+                heap.remove(candidate);
+                candidate.score = estimate;
+                heap.add(candidate);
+            }
+        } else if (heap.size() < topK) {
+            add(new Candidate(itemId, estimate));
+        } else if (estimate > heap.peek().score) {
+            candidates.remove(heap.poll().itemId);
+            add(new Candidate(itemId, estimate));
+        }
+        updateAdmission();
+    }
+
+    private void add(Candidate candidate) {
+        heap.add(candidate);
+        candidates.put(candidate.itemId, candidate);
+    }
+
+    // heap 이 가득 차기 전에는 모두 받음 ( 후보의 추정치는 더할 때마다 커지므로 최솟값 이하로 오는 일은 없음 )
+    private void updateAdmission() {
+        admission = heap.size() < topK ? 0 : heap.peek().score;
+    }
+
+    private static class Candidate {
+        private final Long itemId;
+        private long score;
+
+        private Candidate(Long itemId, long score) {
+            this.itemId = itemId;
+            this.score = score;
+        }
+    }
+}
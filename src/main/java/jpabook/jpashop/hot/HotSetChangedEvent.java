@@ -0,0 +1,21 @@
+package jpabook.jpashop.hot;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Set;
+
+/**
+ * 인기 상품 집합이 바뀌었을 때 발행 ( HotItemTracker 의 갱신 주기마다 비교 )
+ * 캐시 / 재고 처리 등에서 받아서 인기 상품을 따로 다룰 수 있음
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class HotSetChangedEvent {
+
+    private final Set<Long> hotItemIds;     // 현재 인기 상품 전체
+    private final Set<Long> added;          // 새로 인기 상품이 된 것
+    private final Set<Long> removed;        // 인기 상품에서 빠진 것
+}
@@ -0,0 +1,19 @@
+package jpabook.jpashop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("jpashop.Commit")
+@Label("Commit")
+@Category({"jpashop", "Persistence"})
+@StackTrace(false)
+public class CommitEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;   // 트랜잭션을 시작한 service 메서드
+
+    @Label("Committed")
+    boolean committed;
+}
@@ -0,0 +1,22 @@
+package jpabook.jpashop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("jpashop.Flush")
+@Label("Flush")
+@Category({"jpashop", "Persistence"})
+@StackTrace(false)
+public class FlushEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Entities")
+    int entities;
+
+    @Label("Collections")
+    int collections;
+}
@@ -0,0 +1,69 @@
+package jpabook.jpashop.jfr;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * service / repository 메서드 실행 시간 이벤트
+ * 트랜잭션, 커넥션 풀 / shard 선택까지 포함하도록 가장 바깥에서 실행
+ * ( ShardRoutingAspect / ConnectionPoolAspect 는 HIGHEST_PRECEDENCE + 1 )
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class JfrAspect {
+
+    @Around("execution(public * jpabook.jpashop.service..*(..)) || execution(public * jpabook.jpashop.cart.CartService.*(..))")
+    public Object service(ProceedingJoinPoint joinPoint) throws Throwable {
+        ServiceCallEvent event = new ServiceCallEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+
+        String operation = operation(joinPoint);
+        JfrContext.push(operation);
+        event.begin();
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            event.failed = true;
+            throw e;
+        } finally {
+            event.end();
+            JfrContext.pop();
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.commit();
+            }
+        }
+    }
+
+    @Around("execution(public * jpabook.jpashop.repository..*(..))")
+    public Object repository(ProceedingJoinPoint joinPoint) throws Throwable {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+
+        String operation = operation(joinPoint);
+        JfrContext.Frame frame = JfrContext.push(operation);
+        event.begin();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            event.end();
+            JfrContext.pop();
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.statements = frame.statements;
+                event.commit();
+            }
+        }
+    }
+
+    private String operation(ProceedingJoinPoint joinPoint) {
+        return joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+    }
+}
@@ -0,0 +1,54 @@
+package jpabook.jpashop.jfr;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+
+/**
+ * JFR 사용자 이벤트 ( jpashop.jfr.enabled=true, --spring.profiles.active=jfr )
+ * service / repository 호출, sql, flush, commit, JSON 직렬화
+ * 요약 : ./gradlew jfrSummary -Pjfr=jfr/jpashop.jfr
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "jpashop.jfr", name = "enabled", havingValue = "true")
+public class JfrConfig {
+
+    @Bean
+    public JfrAspect jfrAspect() {
+        return new JfrAspect();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer jfrHibernateCustomizer() {
+        return properties -> {
+            properties.put("hibernate.session.events.auto", JfrSessionEventListener.class.getName());
+            properties.put("hibernate.session_factory.statement_inspector", new JfrStatementInspector());
+        };
+    }
+
+    // 스프링 부트 기본 converter 대신 사용 ( 같은 ObjectMapper )
+    @Bean
+    public MappingJackson2HttpMessageConverter jfrJacksonHttpMessageConverter(ObjectMapper objectMapper) {
+        return new JfrJacksonHttpMessageConverter(objectMapper);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "jpashop.jfr", name = "recording", havingValue = "true", matchIfMissing = true)
+    public JfrRecorder jfrRecorder(@Value("${jpashop.jfr.settings:classpath:jfr/jpashop.jfc}") Resource settings,
+                                   @Value("${jpashop.jfr.max-age-minutes:360}") long maxAgeMinutes,
+                                   @Value("${jpashop.jfr.max-size-mb:256}") long maxSizeMb,
+                                   @Value("${jpashop.jfr.dump-file:./jfr/jpashop.jfr}") String dumpFile)
+            throws IOException, ParseException {
+        return new JfrRecorder(settings, Duration.ofMinutes(maxAgeMinutes), maxSizeMb * 1024 * 1024, Paths.get(dumpFile));
+    }
+}
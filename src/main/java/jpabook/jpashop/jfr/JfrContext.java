@@ -0,0 +1,58 @@
+package jpabook.jpashop.jfr;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 현재 스레드에서 실행 중인 service / repository 메서드 이름과 마지막으로 실행한 sql
+ * ( 쿼리 / flush / commit 이벤트에 어느 작업에서 발생했는지 기록하기 위함 )
+ */
+final class JfrContext {
+
+    private static final ThreadLocal<Deque<Frame>> FRAMES = ThreadLocal.withInitial(ArrayDeque::new);
+    private static final ThreadLocal<String> LAST_SQL = new ThreadLocal<>();
+
+    private JfrContext() {
+    }
+
+    static Frame push(String operation) {
+        Frame frame = new Frame(operation);
+        FRAMES.get().push(frame);
+        return frame;
+    }
+
+    static void pop() {
+        FRAMES.get().poll();
+    }
+
+    static String operation() {
+        Frame frame = FRAMES.get().peek();
+        return frame == null ? "" : frame.operation;
+    }
+
+    // 현재 작업에서 실행한 sql 수 증가
+    static void countStatement() {
+        Frame frame = FRAMES.get().peek();
+        if (frame != null) {
+            frame.statements++;
+        }
+    }
+
+    static void lastSql(String sql) {
+        LAST_SQL.set(sql);
+    }
+
+    static String lastSql() {
+        String sql = LAST_SQL.get();
+        return sql == null ? "" : sql;
+    }
+
+    static final class Frame {
+        final String operation;
+        int statements;
+
+        Frame(String operation) {
+            this.operation = operation;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package jpabook.jpashop.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 항상 켜져 있는 JFR 기록
+ * JDK 기본 설정( default, 오버헤드 1% 미만 ) + jpashop 이벤트 설정( jfr/jpashop.jfc 의 threshold )
+ * 최근 maxAge / maxSize 만큼만 디스크에 유지하고 종료 시 dumpFile 로 저장
+ * 실행 중 덤프 : jcmd <pid> JFR.dump name=jpashop filename=now.jfr
+ */
+@Slf4j
+public class JfrRecorder implements AutoCloseable {
+
+    private final Recording recording;
+
+    public JfrRecorder(Resource settings, Duration maxAge, long maxSizeBytes, Path dumpFile) throws IOException, ParseException {
+        Map<String, String> merged = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+        try (Reader reader = new InputStreamReader(settings.getInputStream(), StandardCharsets.UTF_8)) {
+            merged.putAll(Configuration.create(reader).getSettings());
+        }
+
+        if (dumpFile.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(dumpFile.toAbsolutePath().getParent());
+        }
+        recording = new Recording(merged);
+        recording.setName("jpashop");
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSizeBytes);
+        recording.setDumpOnExit(true);
+        recording.setDestination(dumpFile);
+        recording.start();
+        log.info("jfr recording started. maxAge={}, maxSize={}, dump={}", maxAge, maxSizeBytes, dumpFile);
+    }
+
+    @Override
+    public void close() {
+        recording.close();
+    }
+}
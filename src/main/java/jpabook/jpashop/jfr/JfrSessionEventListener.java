@@ -0,0 +1,112 @@
+package jpabook.jpashop.jfr;
+
+import jpabook.jpashop.sql.SqlNormalizer;
+import org.hibernate.BaseSessionEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hibernate 세션 이벤트 -> 쿼리 / flush / commit 이벤트
+ * 세션마다 새로 만들어짐 ( hibernate.session.events.auto )
+ */
+public class JfrSessionEventListener extends BaseSessionEventListener {
+
+    private QueryEvent query;
+    private FlushEvent flush;
+    private boolean commitRegistered;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        startQuery();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        endQuery();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        startQuery();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        endQuery();
+    }
+
+    @Override
+    public void flushStart() {
+        registerCommit();
+        flush = new FlushEvent();
+        flush.begin();
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        if (flush == null) {
+            return;
+        }
+        flush.end();
+        if (flush.shouldCommit()) {
+            flush.operation = JfrContext.operation();
+            flush.entities = numberOfEntities;
+            flush.collections = numberOfCollections;
+            flush.commit();
+        }
+        flush = null;
+    }
+
+    private void startQuery() {
+        registerCommit();
+        JfrContext.countStatement();
+        query = new QueryEvent();
+        query.begin();
+    }
+
+    private void endQuery() {
+        if (query == null) {
+            return;
+        }
+        query.end();
+        if (query.shouldCommit()) {
+            query.operation = JfrContext.operation();
+            query.sql = SqlNormalizer.normalize(JfrContext.lastSql());
+            query.commit();
+        }
+        query = null;
+    }
+
+    // 트랜잭션 안에서 처음 sql / flush 가 일어날 때 commit 시간 측정 등록 ( beforeCommit ~ afterCompletion )
+    private void registerCommit() {
+        if (commitRegistered || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        commitRegistered = true;
+        String operation = JfrContext.operation();
+        CommitEvent event = new CommitEvent();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean began;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                began = true;
+                event.begin();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                commitRegistered = false;
+                if (!began) {
+                    return;     // commit 없이 롤백
+                }
+                event.end();
+                if (event.shouldCommit()) {
+                    event.operation = operation;
+                    event.committed = status == STATUS_COMMITTED;
+                    event.commit();
+                }
+            }
+        });
+    }
+}
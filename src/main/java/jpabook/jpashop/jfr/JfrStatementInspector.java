@@ -0,0 +1,16 @@
+package jpabook.jpashop.jfr;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * 실행 직전 sql 을 기억 ( JfrSessionEventListener 가 쿼리 이벤트에 기록 )
+ * 정규화는 이벤트를 실제로 기록할 때만 함
+ */
+public class JfrStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        JfrContext.lastSql(sql);
+        return sql;
+    }
+}
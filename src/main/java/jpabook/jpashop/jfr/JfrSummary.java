@@ -0,0 +1,110 @@
+package jpabook.jpashop.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * .jfr 파일의 jpashop 이벤트를 작업별 지연시간 표로 출력
+ * 사용 : ./gradlew jfrSummary -Pjfr=jfr/jpashop.jfr
+ *
+ * == jpashop.ServiceCall ==
+ * operation                    count   total ms   p50 ms   p95 ms   p99 ms   max ms
+ * OrderService.order             120     3400.1     21.3     60.2     90.4    120.7
+ */
+public class JfrSummary {
+
+    private static final int TOP = 30;  // 이벤트 종류별 total 기준 상위 몇 개
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: JfrSummary <file.jfr>");
+            System.exit(1);
+        }
+        print(summarize(Paths.get(args[0])), System.out);
+    }
+
+    // 이벤트 종류 -> 작업 -> 지연시간 목록( ns )
+    static Map<String, Map<String, List<Long>>> summarize(Path file) throws IOException {
+        Map<String, Map<String, List<Long>>> result = new TreeMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            String type = event.getEventType().getName();
+            if (!type.startsWith("jpashop.")) {
+                continue;
+            }
+            String key = type.equals("jpashop.Query") ? event.getString("sql") : event.getString("operation");
+            if (key == null || key.isEmpty()) {
+                key = "(unknown)";
+            }
+            result.computeIfAbsent(type, t -> new TreeMap<>())
+                    .computeIfAbsent(key, k -> new ArrayList<>())
+                    .add(event.getDuration().toNanos());
+        }
+        return result;
+    }
+
+    static void print(Map<String, Map<String, List<Long>>> summary, PrintStream out) {
+        if (summary.isEmpty()) {
+            out.println("jpashop 이벤트가 없습니다.");
+            return;
+        }
+        summary.forEach((type, operations) -> {
+            out.println();
+            out.println("== " + type + " ==");
+            out.printf("%-60s %8s %11s %9s %9s %9s %9s%n", "operation", "count", "total ms", "p50 ms", "p95 ms", "p99 ms", "max ms");
+
+            List<Row> rows = new ArrayList<>();
+            operations.forEach((operation, durations) -> rows.add(new Row(operation, durations)));
+            rows.sort((a, b) -> Long.compare(b.total, a.total));
+
+            for (Row row : rows.subList(0, Math.min(TOP, rows.size()))) {
+                out.printf("%-60s %8d %11.1f %9.1f %9.1f %9.1f %9.1f%n",
+                        abbreviate(row.operation, 60), row.durations.size(), ms(row.total),
+                        ms(row.percentile(50)), ms(row.percentile(95)), ms(row.percentile(99)), ms(row.percentile(100)));
+            }
+            if (rows.size() > TOP) {
+                out.println("... " + (rows.size() - TOP) + " more");
+            }
+        });
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static String abbreviate(String value, int width) {
+        return value.length() <= width ? value : value.substring(0, width - 3) + "...";
+    }
+
+    private static class Row {
+        private final String operation;
+        private final List<Long> durations;
+        private final long total;
+
+        Row(String operation, List<Long> durations) {
+            this.operation = operation;
+            this.durations = new ArrayList<>(durations);
+            Collections.sort(this.durations);
+            long sum = 0;
+            for (Long duration : durations) {
+                sum += duration;
+            }
+            this.total = sum;
+        }
+
+        // nearest-rank
+        long percentile(int p) {
+            int rank = (int) Math.ceil(p / 100.0 * durations.size());
+            return durations.get(Math.max(0, rank - 1));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package jpabook.jpashop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("jpashop.JsonSerialization")
+@Label("JSON Serialization")
+@Category({"jpashop", "Web"})
+@StackTrace(false)
+public class JsonSerializationEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;   // 응답 타입 ( Result, List<...> 등 )
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+}
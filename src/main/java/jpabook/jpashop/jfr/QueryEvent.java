@@ -0,0 +1,21 @@
+package jpabook.jpashop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("jpashop.Query")
+@Label("Query")
+@Description("sql 한 건 실행 ( 값은 ? 로 바꾼 sql )")
+@Category({"jpashop", "Persistence"})
+@StackTrace(false)
+public class QueryEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;   // 실행한 repository 메서드 ( 없으면 빈 값 )
+
+    @Label("SQL")
+    String sql;
+}
@@ -0,0 +1,21 @@
+package jpabook.jpashop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("jpashop.RepositoryCall")
+@Label("Repository Call")
+@Description("repository 메서드 실행 ( 쿼리 + 결과 매핑 )")
+@Category({"jpashop", "Repository"})
+@StackTrace(false)
+public class RepositoryCallEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;   // OrderQueryRepository.findOrderQueryDtos
+
+    @Label("Statements")
+    int statements;     // 실행된 sql 수
+}
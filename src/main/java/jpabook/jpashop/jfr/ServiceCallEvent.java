@@ -0,0 +1,21 @@
+package jpabook.jpashop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("jpashop.ServiceCall")
+@Label("Service Call")
+@Description("service 메서드 실행 ( 트랜잭션 포함 )")
+@Category({"jpashop", "Service"})
+@StackTrace(false)
+public class ServiceCallEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;   // OrderService.order
+
+    @Label("Failed")
+    boolean failed;
+}
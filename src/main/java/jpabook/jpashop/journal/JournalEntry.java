@@ -0,0 +1,19 @@
+package jpabook.jpashop.journal;
+
+import jpabook.jpashop.event.OrderEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 저널에 기록된 이벤트 한 건
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class JournalEntry {
+
+    private final long seq;
+    private final long timestamp;   // 기록 시각 ( epoch millis )
+    private final OrderEvent event;
+}
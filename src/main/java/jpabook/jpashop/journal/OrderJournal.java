@@ -0,0 +1,296 @@
+package jpabook.jpashop.journal;
+
+import jpabook.jpashop.event.OrderEvent;
+import jpabook.jpashop.event.OrderEventType;
+import jpabook.jpashop.event.StockDelta;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 주문 이벤트 추가 전용 저널
+ *
+ * 세그먼트 파일( 시작 seq 가 파일 이름 )을 메모리 매핑해서 순서대로 이어 씀
+ * 레코드 : [length int][crc int][type byte][seq long][timestamp long][orderId long][memberId long][orderDate long][lineCount short]([itemId long][delta int])*
+ * - length 0 은 세그먼트의 끝 ( 매핑된 파일은 0 으로 채워져 있음 )
+ * - 세그먼트에 남은 공간이 부족하면 다음 세그먼트로 넘어감
+ * - fsync 는 syncIntervalMillis 마다 모아서 한번 ( group fsync )
+ * - 재시작 시 마지막 세그먼트를 읽어서 crc 가 깨진 곳( 기록 도중 종료 ) 직전까지를 유효한 끝으로 봄
+ */
+@Slf4j
+public class OrderJournal implements AutoCloseable {
+
+    private static final String SUFFIX = ".seg";
+    private static final int HEADER = 4 + 4;                            // length + crc
+    private static final int FIXED = 1 + 8 + 8 + 8 + 8 + 8 + 2;         // type ~ lineCount
+    private static final int LINE = 8 + 4;
+
+    private final Path dir;
+    private final int segmentSize;
+    private final ScheduledExecutorService syncer;
+
+    private MappedByteBuffer segment;
+    private long nextSeq = 1;
+    private long writtenSeq;
+    private volatile long syncedSeq;
+    private final Object syncLock = new Object();
+
+    public OrderJournal(Path dir, int segmentSize, long syncIntervalMillis) {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        try {
+            Files.createDirectories(dir);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        this.syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "order-journal-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.syncer.scheduleWithFixedDelay(this::sync, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return 기록된 seq
+     */
+    public synchronized long append(OrderEvent event) {
+        List<StockDelta> lines = event.getStockDeltas();
+        int size = HEADER + FIXED + lines.size() * LINE;
+        if (size + 4 > segmentSize) {
+            throw new IllegalArgumentException("이벤트가 세그먼트 크기보다 큽니다. size=" + size);
+        }
+        // 다음 레코드 자리에 끝 표시( length 0 )를 쓸 4 byte 는 남겨둠
+        if (segment == null || segment.remaining() < size + 4) {
+            rotate();
+        }
+
+        long seq = nextSeq++;
+        ByteBuffer payload = ByteBuffer.allocate(FIXED + lines.size() * LINE);
+        payload.put((byte) event.getType().ordinal());
+        payload.putLong(seq);
+        payload.putLong(System.currentTimeMillis());
+        payload.putLong(event.getOrderId());
+        payload.putLong(event.getMemberId() == null ? 0 : event.getMemberId());
+        payload.putLong(event.getOrderDate() == null ? 0 : event.getOrderDate().toInstant(ZoneOffset.UTC).toEpochMilli());
+        payload.putShort((short) lines.size());
+        for (StockDelta line : lines) {
+            payload.putLong(line.getItemId());
+            payload.putInt(line.getDelta());
+        }
+        payload.flip();
+
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+
+        segment.putInt(4 + payload.remaining());
+        segment.putInt((int) crc.getValue());
+        segment.put(payload);
+        writtenSeq = seq;
+        return seq;
+    }
+
+    /**
+     * 기록한 내용을 디스크에 반영 ( 주기적으로 자동 호출 )
+     */
+    public void sync() {
+        MappedByteBuffer current;
+        long seq;
+        synchronized (this) {
+            current = segment;
+            seq = writtenSeq;
+        }
+        if (current == null || seq <= syncedSeq) {
+            return;
+        }
+        current.force();
+        synchronized (syncLock) {
+            syncedSeq = seq;
+            syncLock.notifyAll();
+        }
+    }
+
+    /**
+     * seq 까지 디스크에 반영될 때까지 대기 ( 다음 group fsync 를 기다림 )
+     */
+    public void awaitDurable(long seq, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (syncLock) {
+            while (syncedSeq < seq) {
+                long wait = deadline - System.currentTimeMillis();
+                if (wait <= 0) {
+                    return;
+                }
+                syncLock.wait(wait);
+            }
+        }
+    }
+
+    public synchronized long lastSeq() {
+        return nextSeq - 1;
+    }
+
+    /**
+     * 가장 오래된 기록 ( 없으면 null ). 저널이 언제부터 기록했는지 확인용
+     */
+    public JournalEntry first() {
+        sync();
+        List<Path> segments = segments();
+        if (segments.isEmpty()) {
+            return null;
+        }
+        return read(map(segments.get(0), FileChannel.MapMode.READ_ONLY));
+    }
+
+    /**
+     * fromSeq 부터 저널 전체를 순서대로 읽음 ( 세그먼트 파일을 순차로 읽으므로 디스크 순차 읽기 속도 )
+     */
+    public void replay(long fromSeq, Consumer<JournalEntry> consumer) {
+        sync();
+        List<Path> segments = segments();
+        for (int i = 0; i < segments.size(); i++) {
+            // 다음 세그먼트가 fromSeq 이하에서 시작하면 이 세그먼트는 건너뜀
+            if (i + 1 < segments.size() && firstSeqOf(segments.get(i + 1)) <= fromSeq) {
+                continue;
+            }
+            ByteBuffer buffer = map(segments.get(i), FileChannel.MapMode.READ_ONLY);
+            JournalEntry entry;
+            while ((entry = read(buffer)) != null) {
+                if (entry.getSeq() >= fromSeq) {
+                    consumer.accept(entry);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        syncer.shutdown();
+        sync();
+    }
+
+    private void rotate() {
+        if (segment != null) {
+            segment.force();
+        }
+        segment = map(dir.resolve(String.format("%020d", nextSeq) + SUFFIX), FileChannel.MapMode.READ_WRITE);
+    }
+
+    private void recover() {
+        List<Path> segments = segments();
+        if (segments.isEmpty()) {
+            return;
+        }
+
+        Path last = segments.get(segments.size() - 1);
+        MappedByteBuffer buffer = map(last, FileChannel.MapMode.READ_WRITE);
+        long lastSeq = firstSeqOf(last) - 1;
+        JournalEntry entry;
+        while ((entry = read(buffer)) != null) {
+            lastSeq = entry.getSeq();
+        }
+        // 중간에 잘린 레코드가 있으면 그 자리부터 다시 씀
+        int end = buffer.position();
+        if (end + 4 <= buffer.limit()) {
+            buffer.putInt(end, 0);
+        }
+        buffer.position(end);
+
+        segment = buffer;
+        nextSeq = lastSeq + 1;
+        writtenSeq = lastSeq;
+        syncedSeq = lastSeq;
+        log.info("주문 저널 복구 segment={} lastSeq={}", last.getFileName(), lastSeq);
+    }
+
+    /**
+     * 다음 레코드를 읽음. 끝이거나 깨진 레코드면 position 을 레코드 시작으로 두고 null
+     */
+    private JournalEntry read(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER) {
+            return null;
+        }
+        int length = buffer.getInt();
+        if (length < 4 + FIXED || length - 4 > buffer.remaining() - 4) {
+            buffer.position(start);
+            return null;
+        }
+        int storedCrc = buffer.getInt();
+
+        ByteBuffer payload = buffer.slice();
+        payload.limit(length - 4);
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != storedCrc) {
+            buffer.position(start);
+            return null;
+        }
+
+        OrderEventType type = OrderEventType.values()[payload.get()];
+        long seq = payload.getLong();
+        long timestamp = payload.getLong();
+        long orderId = payload.getLong();
+        long memberId = payload.getLong();
+        long orderDate = payload.getLong();
+        int lineCount = payload.getShort();
+        List<StockDelta> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            lines.add(new StockDelta(payload.getLong(), payload.getInt()));
+        }
+        buffer.position(start + HEADER + length - 4);
+
+        OrderEvent event = new OrderEvent(type, orderId, memberId == 0 ? null : memberId,
+                orderDate == 0 ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(orderDate), ZoneOffset.UTC),
+                lines);
+        return new JournalEntry(seq, timestamp, event);
+    }
+
+    private MappedByteBuffer map(Path file, FileChannel.MapMode mode) {
+        StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+                ? new StandardOpenOption[]{StandardOpenOption.READ}
+                : new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE};
+        try (FileChannel channel = FileChannel.open(file, options)) {
+            long size = mode == FileChannel.MapMode.READ_ONLY ? channel.size() : segmentSize;
+            return channel.map(mode, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Path> segments() {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long firstSeqOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,29 @@
+package jpabook.jpashop.journal;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * jpashop.journal.enabled=true 일 때 주문 이벤트를 저널 파일에 기록
+ * 기동 시 베스트셀러 카운터를 저널 재생으로 다시 채움 ( BestSellerService.rebuild )
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "jpashop.journal", name = "enabled", havingValue = "true")
+public class OrderJournalConfig {
+
+    @Bean(destroyMethod = "close")
+    public OrderJournal orderJournal(@Value("${jpashop.journal.dir:./journal}") String dir,
+                                     @Value("${jpashop.journal.segment-size:67108864}") int segmentSize,
+                                     @Value("${jpashop.journal.sync-interval-millis:10}") long syncIntervalMillis) {
+        return new OrderJournal(Paths.get(dir), segmentSize, syncIntervalMillis);
+    }
+
+    @Bean
+    public OrderJournalWriter orderJournalWriter(OrderJournal orderJournal) {
+        return new OrderJournalWriter(orderJournal);
+    }
+}
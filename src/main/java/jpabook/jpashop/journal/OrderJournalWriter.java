@@ -0,0 +1,19 @@
+package jpabook.jpashop.journal;
+
+import jpabook.jpashop.event.OrderEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 커밋된 주문 이벤트만 저널에 기록
+ */
+@RequiredArgsConstructor
+public class OrderJournalWriter {
+
+    private final OrderJournal orderJournal;
+
+    @TransactionalEventListener
+    public void onOrderEvent(OrderEvent event) {
+        orderJournal.append(event);
+    }
+}
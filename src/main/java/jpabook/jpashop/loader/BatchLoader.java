@@ -0,0 +1,178 @@
+package jpabook.jpashop.loader;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 여러 요청에서 거의 동시에 들어온 단건 조회를 모아서 한번에 조회 ( DataLoader 방식 )
+ * - windowMillis 동안 또는 maxBatchSize 개가 모이면 batchFunction( IN 쿼리 ) 한번 실행 후 결과를 나눠줌
+ * - 같은 키가 이미 조회 중이면 새로 조회하지 않고 같은 결과를 기다림 ( single-flight )
+ * 캐시가 아님. 조회가 끝나면 키를 잊으므로 다음 요청은 다시 조회한다.
+ * batchFunction 은 별도 스레드에서 실행되므로 엔티티가 아닌 값( dto )을 반환해야 한다.
+ * 로더 스레드가 커넥션을 따로 잡으므로 트랜잭션 안( 커넥션을 이미 잡은 상태 )에서 호출하지 않는다.
+ * 기다리는 시간은 timeoutMillis 까지 ( 넘으면 IllegalStateException )
+ */
+@Slf4j
+public class BatchLoader<K, V> implements AutoCloseable {
+
+    private final Function<Set<K>, Map<K, V>> batchFunction;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final long timeoutMillis;
+    private final ScheduledExecutorService executor;
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private List<K> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    public BatchLoader(String name, Function<Set<K>, Map<K, V>> batchFunction,
+                       long windowMillis, int maxBatchSize, int threads, long timeoutMillis) {
+        this.batchFunction = batchFunction;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(threads, r -> {
+            Thread thread = new Thread(r, name + "-loader-" + seq.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<V> load(K key) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        enqueue(key);
+        return created;
+    }
+
+    /**
+     * 없는 키는 null
+     */
+    public V get(K key) {
+        return join(key, load(key));
+    }
+
+    /**
+     * 없는 키는 결과에서 빠짐. 요청한 순서 유지
+     */
+    public Map<K, V> getAll(Collection<K> keys) {
+        Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+        for (K key : new LinkedHashSet<>(keys)) {
+            futures.put(key, load(key));
+        }
+        Map<K, V> result = new LinkedHashMap<>();
+        futures.forEach((key, future) -> {
+            V value = join(key, future);
+            if (value != null) {
+                result.put(key, value);
+            }
+        });
+        return result;
+    }
+
+    private void enqueue(K key) {
+        synchronized (lock) {
+            pending.add(key);
+            if (pending.size() >= maxBatchSize) {
+                if (scheduledFlush != null) {
+                    scheduledFlush.cancel(false);
+                    scheduledFlush = null;
+                }
+                List<K> batch = drain();
+                executor.execute(() -> dispatch(batch));
+            } else if (scheduledFlush == null) {
+                scheduledFlush = executor.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void flush() {
+        List<K> batch;
+        synchronized (lock) {
+            scheduledFlush = null;
+            batch = drain();
+        }
+        dispatch(batch);
+    }
+
+    private List<K> drain() {
+        List<K> batch = pending;
+        pending = new ArrayList<>();
+        return batch;
+    }
+
+    private void dispatch(List<K> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            Map<K, V> values = batchFunction.apply(new LinkedHashSet<>(batch));
+            for (K key : batch) {
+                complete(key, values.get(key), null);
+            }
+        } catch (RuntimeException e) {
+            log.warn("batch load failed. keys={}", batch.size(), e);
+            for (K key : batch) {
+                complete(key, null, e);
+            }
+        }
+    }
+
+    // 먼저 inFlight 에서 지워야 완료 후 들어온 요청이 새로 조회함
+    private void complete(K key, V value, RuntimeException error) {
+        CompletableFuture<V> future = inFlight.remove(key);
+        if (future == null) {
+            return;
+        }
+        if (error != null) {
+            future.completeExceptionally(error);
+        } else {
+            future.complete(value);
+        }
+    }
+
+    private V join(K key, CompletableFuture<V> future) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // 다음 요청이 같은 future 를 계속 기다리지 않도록 잊음 ( 늦게 끝난 조회 결과는 버려짐 )
+            inFlight.remove(key, future);
+            throw new IllegalStateException("batch load timed out. key=" + key + ", " + timeoutMillis + "ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,41 @@
+package jpabook.jpashop.loader;
+
+import jpabook.jpashop.repository.catalog.CatalogItem;
+import jpabook.jpashop.repository.catalog.CatalogQueryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 상품 단건 조회 모으기 ( 카탈로그 캐시에 없는 상품 )
+ * jpashop.loader.window-millis ( 기본 2ms ) 동안 들어온 조회를 최대 max-batch-size 개씩 IN 쿼리로 조회
+ * 로더 스레드가 커넥션을 따로 잡으므로 트랜잭션 밖에서만 사용 ( 기다리는 시간은 timeout-millis 까지 )
+ */
+@Configuration
+public class LoaderConfig {
+
+    @Value("${jpashop.loader.window-millis:2}")
+    private long windowMillis;
+
+    @Value("${jpashop.loader.max-batch-size:100}")
+    private int maxBatchSize;
+
+    @Value("${jpashop.loader.threads:2}")
+    private int threads;
+
+    @Value("${jpashop.loader.timeout-millis:1000}")
+    private long timeoutMillis;
+
+    @Bean(destroyMethod = "close")
+    public BatchLoader<Long, CatalogItem> itemLoader(CatalogQueryRepository catalogQueryRepository) {
+        return new BatchLoader<>("item", ids -> {
+            Map<Long, CatalogItem> result = new HashMap<>();
+            catalogQueryRepository.findItems(new ArrayList<>(ids)).forEach(i -> result.put(i.getId(), i));
+            return result;
+        }, windowMillis, maxBatchSize, threads, timeoutMillis);
+    }
+}
@@ -5,6 +5,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.Query;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -26,10 +29,87 @@ public class ItemRepository {
         }
     }
 
+    // 벌크 update ( 부분 수정 )
+    // 장점 : select 없이 update 한번, 값이 있는 컬럼만 변경 되므로 null 로 덮어쓰지 않음
+    // 주의 : 영속성 컨텍스트를 거치지 않으므로 같은 트랜잭션에서 미리 조회한 엔티티는 옛날 값을 가지고 있음
+    // 변경된 row 가 없으면 OptimisticLockException ( 없는 상품인지는 exists 로 구분 )
+    // 바꿀 컬럼이 없어도 version 이 있으면 version 확인 + 증가는 함 ( 재고 원장 보정만 하는 수정 )
+    public void update(ItemUpdate update){
+        if(!update.hasChanges() && update.getVersion() == null){
+            return;
+        }
+
+        String jpql = "update Item i set i.version = i.version + 1";
+        if(update.getName() != null){
+            jpql += ", i.name = :name";
+        }
+        if(update.getPrice() != null){
+            jpql += ", i.price = :price";
+        }
+        if(update.getStockQuantity() != null){
+            jpql += ", i.stockQuantity = :stockQuantity";
+        }
+        jpql += " where i.id = :id";
+        if(update.getVersion() != null){
+            jpql += " and i.version = :version";
+        }
+
+        Query query = em.createQuery(jpql)
+                .setParameter("id", update.getId());
+        if(update.getName() != null){
+            query.setParameter("name", update.getName());
+        }
+        if(update.getPrice() != null){
+            query.setParameter("price", update.getPrice());
+        }
+        if(update.getStockQuantity() != null){
+            query.setParameter("stockQuantity", update.getStockQuantity());
+        }
+        if(update.getVersion() != null){
+            query.setParameter("version", update.getVersion());
+        }
+
+        if(query.executeUpdate() == 0){
+            throw new OptimisticLockException("상품이 없거나 다른 곳에서 먼저 수정되었습니다. id=" + update.getId());
+        }
+    }
+
+    // 재고가 충분할 때만 차감 ( 조건부 update 한번, 엔티티를 거치지 않으므로 버전도 같이 올림 ). 차감했으면 true
+    public boolean removeStock(Long itemId, int quantity){
+        return em.createQuery("update Item i set i.stockQuantity = i.stockQuantity - :quantity, i.version = i.version + 1" +
+                        " where i.id = :itemId and i.stockQuantity >= :quantity")
+                .setParameter("quantity", quantity)
+                .setParameter("itemId", itemId)
+                .executeUpdate() > 0;
+    }
+
+    public void addStock(Long itemId, int quantity){
+        em.createQuery("update Item i set i.stockQuantity = i.stockQuantity + :quantity, i.version = i.version + 1" +
+                        " where i.id = :itemId")
+                .setParameter("quantity", quantity)
+                .setParameter("itemId", itemId)
+                .executeUpdate();
+    }
+
+    public boolean exists(Long id){
+        return !em.createQuery("select i.id from Item i where i.id = :id", Long.class)
+                .setParameter("id", id)
+                .getResultList()
+                .isEmpty();
+    }
+
     public Item findOne(Long id){
         return em.find(Item.class, id);
     }
 
+    // 없는 id 는 결과에서 빠짐
+    // id 순서로 조회 ( 영속성 컨텍스트에 들어간 순서대로 flush 되므로 변경도 id 순서 )
+    public List<Item> findAllById(Collection<Long> ids){
+        return em.createQuery("select i from Item i where i.id in :ids order by i.id", Item.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
     public List<Item> findAll(){
         return em.createQuery("select i from Item i", Item.class)
                 .getResultList();
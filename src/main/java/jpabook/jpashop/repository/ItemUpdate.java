@@ -0,0 +1,22 @@
+package jpabook.jpashop.repository;
+
+import lombok.Data;
+
+/**
+ * 상품 부분 수정 값
+ * null 인 필드는 변경하지 않음
+ */
+@Data
+public class ItemUpdate {
+
+    private final Long id;
+    private final Long version;     // null 이면 버전 체크 안함
+
+    private String name;
+    private Integer price;
+    private Integer stockQuantity;
+
+    public boolean hasChanges(){
+        return name != null || price != null || stockQuantity != null;
+    }
+}
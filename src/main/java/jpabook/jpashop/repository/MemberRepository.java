@@ -1,10 +1,12 @@
 package jpabook.jpashop.repository;
 
+import jpabook.jpashop.datasource.shard.ShardQueries;
 import jpabook.jpashop.domain.Member;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.*;
+import java.util.Comparator;
 import java.util.List;
 
 // Bean 등록
@@ -15,6 +17,7 @@ public class MemberRepository {
     // EntityManager 주입
 //    @PersistenceContext
     private final EntityManager em;
+    private final ShardQueries shardQueries;
 
     public void save(Member member){
         em.persist(member);
@@ -24,9 +27,15 @@ public class MemberRepository {
         return em.find(Member.class, id);
     }
 
+    // 프록시 ( select 없음 ). 연관관계 세팅용
+    public Member getReference(Long id){
+        return em.getReference(Member.class, id);
+    }
+
     public List<Member> findAll(){
-        return em.createQuery("select m from Member m", Member.class)
-                .getResultList();
+        // sharding 사용 시 준영속 상태로 반환됨
+        return shardQueries.gather(() -> em.createQuery("select m from Member m order by m.id", Member.class)
+                .getResultList(), Comparator.comparing(Member::getId));
     }
 
     public List<Member> findByName(String name){
@@ -0,0 +1,101 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 주문 일괄 취소용 set-based 쿼리
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderBulkCancelRepository {
+
+    private final EntityManager em;
+
+    /**
+     * 취소 가능한 ( 주문 상태이고 배송완료가 아닌 ) 주문만 골라서 락
+     * 배송 상태는 DeliveryStatusBatchJob 이 delivery 만 update 하므로 배송 row 를 먼저 락 걸고 주문 row 를 락
+     * 취소 상태로 바꾸기 전까지 다른 트랜잭션이 취소 / 배송완료 처리하지 못하도록 함
+     */
+    public List<Long> lockCancellable(Collection<Long> orderIds) {
+        List<Long> deliveryIds = em.createQuery(
+                        "select d.id from Delivery d" +
+                                " where d.id in (select o.delivery.id from Order o where o.id in :orderIds)" +
+                                " and (d.status is null or d.status <> :comp)" +
+                                " order by d.id", Long.class)
+                .setParameter("orderIds", orderIds)
+                .setParameter("comp", DeliveryStatus.COMP)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+        if (deliveryIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return em.createQuery(
+                        "select o.id from Order o" +
+                                " where o.id in :orderIds and o.status = :order and o.delivery.id in :deliveryIds" +
+                                " order by o.id", Long.class)
+                .setParameter("orderIds", orderIds)
+                .setParameter("order", OrderStatus.ORDER)
+                .setParameter("deliveryIds", deliveryIds)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    // 검색 조건에 맞는 주문 상태의 주문 id ( afterId 다음부터 id 순서로 limit 개 )
+    public List<Long> findCandidates(OrderSearch orderSearch, Long afterId, int limit) {
+        boolean byName = StringUtils.hasText(orderSearch.getMemberName());
+        String jpql = "select o.id from Order o join o.member m" +
+                " where o.status = :order and o.id > :afterId" +
+                (byName ? " and m.name = :name" : "") +
+                " order by o.id";
+
+        TypedQuery<Long> query = em.createQuery(jpql, Long.class)
+                .setParameter("order", OrderStatus.ORDER)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit);
+        if (byName) {
+            query.setParameter("name", orderSearch.getMemberName());
+        }
+        return query.getResultList();
+    }
+
+    public List<OrderCancelLine> findLines(Collection<Long> orderIds) {
+        return em.createQuery(
+                        "select new jpabook.jpashop.repository.OrderCancelLine(o.id, o.member.id, o.orderDate, oi.item.id, oi.count)" +
+                                " from OrderItem oi join oi.order o" +
+                                " where o.id in :orderIds" +
+                                " order by o.id, oi.id", OrderCancelLine.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+    }
+
+    // 상태 변경은 chunk 당 update 한 번
+    public int markCancelled(Collection<Long> orderIds) {
+        return em.createQuery("update Order o set o.status = :cancel, o.cancelDate = :now where o.id in :orderIds")
+                .setParameter("cancel", OrderStatus.CANCEL)
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+    }
+
+    // 상품별로 합친 수량을 한 번에 복구 ( 엔티티를 거치지 않으므로 낙관적 락 버전도 같이 올림 )
+    public int addStock(Long itemId, int quantity) {
+        return em.createQuery("update Item i set i.stockQuantity = i.stockQuantity + :quantity, i.version = i.version + 1" +
+                        " where i.id = :itemId")
+                .setParameter("quantity", quantity)
+                .setParameter("itemId", itemId)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,20 @@
+package jpabook.jpashop.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 일괄 취소할 주문의 주문상품 한 줄 ( 엔티티를 읽지 않고 재고 복구 / 이벤트에 필요한 값만 )
+ */
+@Data
+@AllArgsConstructor
+public class OrderCancelLine {
+
+    private Long orderId;
+    private Long memberId;
+    private LocalDateTime orderDate;
+    private Long itemId;
+    private int count;
+}
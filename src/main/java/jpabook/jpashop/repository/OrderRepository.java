@@ -1,5 +1,7 @@
 package jpabook.jpashop.repository;
 
+import jpabook.jpashop.datasource.pool.ConnectionPool;
+import jpabook.jpashop.datasource.pool.PoolType;
 import jpabook.jpashop.domain.Order;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
@@ -115,6 +117,7 @@ public class OrderRepository {
 //                        " join o.delivery d", SimpleOrderQueryDto.class
 //        ).getResultList();
 //    }
+    @ConnectionPool(PoolType.REPORTING)
     public List<Order> findAllWithItem() {
         // db 에 있는 distinct 랑 다름. jpa 에서는 같은 객체도 제거 해줌
         // OneToMany 사용 시 페이징 처리 불가능.
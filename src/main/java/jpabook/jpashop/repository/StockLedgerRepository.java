@@ -0,0 +1,76 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.StockLedgerEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class StockLedgerRepository {
+
+    private final EntityManager em;
+
+    public void save(StockLedgerEntry entry){
+        em.persist(entry);
+    }
+
+    // 상품 row 잠금 ( select ... for update ). 같은 상품의 재고 확인 / 보정을 한 줄로 세움
+    // 영속성 컨텍스트의 상품으로 잠그면 version 도 비교하므로 ( 원장 합치기로 version 이 바뀜 ) id 로만 잠금
+    public void lockItem(Long itemId){
+        em.createNativeQuery("select item_id from item where item_id = :itemId for update")
+                .setParameter("itemId", itemId)
+                .getSingleResult();
+    }
+
+    // 합친 재고 + 아직 합치지 않은 기록의 합 ( 커밋된 기록 + 이 트랜잭션의 기록 )
+    public int available(Long itemId){
+        Integer balance = em.createQuery("select i.stockQuantity from Item i where i.id = :itemId", Integer.class)
+                .setParameter("itemId", itemId)
+                .getSingleResult();
+        Long pending = em.createQuery("select coalesce(sum(l.delta), 0) from StockLedgerEntry l where l.itemId = :itemId", Long.class)
+                .setParameter("itemId", itemId)
+                .getSingleResult();
+        return balance + pending.intValue();
+    }
+
+    public List<Long> findPendingItemIds(){
+        return em.createQuery("select distinct l.itemId from StockLedgerEntry l", Long.class)
+                .getResultList();
+    }
+
+    /**
+     * 기록을 최대 limit 건 상품 재고에 합치고 삭제. 합친 건수 반환
+     * 합친 row 의 id 를 직접 지정해서 지움 ( 늦게 커밋된 작은 id 의 기록이 합쳐지지 않고 지워지는 일이 없도록 )
+     */
+    public int fold(Long itemId, int limit){
+        List<Object[]> rows = em.createQuery(
+                        "select l.id, l.delta from StockLedgerEntry l where l.itemId = :itemId order by l.id", Object[].class)
+                .setParameter("itemId", itemId)
+                .setMaxResults(limit)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        int sum = 0;
+        for (Object[] row : rows) {
+            ids.add((Long) row[0]);
+            sum += (Integer) row[1];
+        }
+
+        em.createQuery("update Item i set i.stockQuantity = i.stockQuantity + :sum, i.version = i.version + 1 where i.id = :itemId")
+                .setParameter("sum", sum)
+                .setParameter("itemId", itemId)
+                .executeUpdate();
+        em.createQuery("delete from StockLedgerEntry l where l.id in :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        return rows.size();
+    }
+
+}
@@ -0,0 +1,36 @@
+package jpabook.jpashop.repository.bestseller;
+
+import jpabook.jpashop.datasource.shard.ShardQueries;
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 판매량 카운터 재구성용 ( 기동 시 한 번 )
+ */
+@Repository
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class BestSellerQueryRepository {
+
+    private final EntityManager em;
+    private final ShardQueries shardQueries;
+
+    // since 이후 주문 상태인 주문의 주문상품 ( 주문일 순 )
+    public List<SoldLine> findSoldSince(LocalDateTime since) {
+        return shardQueries.gather(() -> em.createQuery(
+                        "select new jpabook.jpashop.repository.bestseller.SoldLine(o.id, o.orderDate, oi.item.id, oi.count)" +
+                                " from OrderItem oi join oi.order o" +
+                                " where o.status = :status and o.orderDate >= :since" +
+                                " order by o.orderDate, o.id", SoldLine.class)
+                .setParameter("status", OrderStatus.ORDER)
+                .setParameter("since", since)
+                .getResultList(), Comparator.comparing(SoldLine::getOrderDate).thenComparing(SoldLine::getOrderId));
+    }
+}
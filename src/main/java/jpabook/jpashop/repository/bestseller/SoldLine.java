@@ -0,0 +1,16 @@
+package jpabook.jpashop.repository.bestseller;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class SoldLine {
+
+    private Long orderId;
+    private LocalDateTime orderDate;
+    private Long itemId;
+    private int count;
+}
@@ -0,0 +1,18 @@
+package jpabook.jpashop.repository.catalog;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class CatalogCategory {
+
+    private final Long id;
+    private final String name;
+    private final Long parentId;
+    private final List<Long> itemIds;
+}
@@ -0,0 +1,22 @@
+package jpabook.jpashop.repository.catalog;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 카탈로그 전체 버전 ( 상품 수, 상품 version 합, 최대 id, 카테고리 수 )
+ * 상품이 하나라도 추가 / 수정( @Version 증가 ) / 삭제되면 달라짐
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class CatalogFingerprint {
+
+    private final long itemCount;
+    private final long versionSum;
+    private final long maxItemId;
+    private final long categoryCount;
+}
@@ -0,0 +1,55 @@
+package jpabook.jpashop.repository.catalog;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jpabook.jpashop.domain.item.Album;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.item.Movie;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 캐시 / 스냅샷용 상품 값 ( 변경 불가 )
+ * type : B(Book), A(Album), M(Movie). 하위 타입 필드는 타입에 맞는 것만 채워짐
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CatalogItem {
+
+    private final Long id;
+    private final String type;
+    private final String name;
+    private final int price;
+    private final int stockQuantity;
+    private final Long version;
+
+    private final String author;
+    private final String isbn;
+    private final String artist;
+    private final String etc;
+    private final String director;
+    private final String actor;
+
+    public static CatalogItem from(Item item) {
+        String author = null, isbn = null, artist = null, etc = null, director = null, actor = null;
+        String type = "I";
+        if (item instanceof Book) {
+            type = "B";
+            author = ((Book) item).getAuthor();
+            isbn = ((Book) item).getIsbn();
+        } else if (item instanceof Album) {
+            type = "A";
+            artist = ((Album) item).getArtist();
+            etc = ((Album) item).getEtc();
+        } else if (item instanceof Movie) {
+            type = "M";
+            director = ((Movie) item).getDirector();
+            actor = ((Movie) item).getActor();
+        }
+        return new CatalogItem(item.getId(), type, item.getName(), item.getPrice(), item.getStockQuantity(),
+                item.getVersion(), author, isbn, artist, etc, director, actor);
+    }
+}
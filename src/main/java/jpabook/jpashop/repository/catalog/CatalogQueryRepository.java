@@ -0,0 +1,78 @@
+package jpabook.jpashop.repository.catalog;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Item;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.toList;
+
+@Repository
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class CatalogQueryRepository {
+
+    private final EntityManager em;
+
+    public CatalogFingerprint fingerprint() {
+        Object[] items = em.createQuery(
+                        "select count(i), coalesce(sum(i.version), 0), coalesce(max(i.id), 0) from Item i", Object[].class)
+                .getSingleResult();
+        Long categories = em.createQuery("select count(c) from Category c", Long.class)
+                .getSingleResult();
+        return new CatalogFingerprint(
+                ((Number) items[0]).longValue(),
+                ((Number) items[1]).longValue(),
+                ((Number) items[2]).longValue(),
+                categories);
+    }
+
+    public List<CatalogItem> findItems() {
+        return em.createQuery("select i from Item i", Item.class)
+                .getResultList().stream()
+                .map(CatalogItem::from)
+                .collect(toList());
+    }
+
+    public List<CatalogItem> findItems(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return em.createQuery("select i from Item i where i.id in :ids", Item.class)
+                .setParameter("ids", ids)
+                .getResultList().stream()
+                .map(CatalogItem::from)
+                .collect(toList());
+    }
+
+    // 캐시와 비교하기 위한 { id, version } 목록
+    public Map<Long, Long> findItemVersions() {
+        Map<Long, Long> versions = new HashMap<>();
+        em.createQuery("select i.id, i.version from Item i", Object[].class)
+                .getResultList()
+                .forEach(r -> versions.put((Long) r[0], (Long) r[1]));
+        return versions;
+    }
+
+    // Category 의 식별자 필드명은 Id
+    public List<CatalogCategory> findCategories() {
+        Map<Long, List<Long>> itemIds = new HashMap<>();
+        em.createQuery("select c.Id, i.id from Category c join c.items i", Object[].class)
+                .getResultList()
+                .forEach(r -> itemIds.computeIfAbsent((Long) r[0], k -> new ArrayList<>()).add((Long) r[1]));
+
+        return em.createQuery("select c from Category c left join fetch c.parent", Category.class)
+                .getResultList().stream()
+                .map(c -> new CatalogCategory(c.getId(), c.getName(),
+                        c.getParent() == null ? null : c.getParent().getId(),
+                        itemIds.getOrDefault(c.getId(), new ArrayList<>())))
+                .collect(toList());
+    }
+}
@@ -0,0 +1,20 @@
+package jpabook.jpashop.repository.member.query;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+// 요청한 필드만 채워지므로 null 필드는 json 에서 제외
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MemberQueryDto {
+
+    private Long id;
+    private String name;
+    private String city;
+    private String street;
+    private String zipcode;
+
+    public MemberQueryDto(Long id) {
+        this.id = id;
+    }
+}
@@ -0,0 +1,103 @@
+package jpabook.jpashop.repository.member.query;
+
+import jpabook.jpashop.datasource.shard.ShardQueries;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * 회원 목록 조회 전용 리포지토리
+ * 엔티티 대신 요청한 컬럼만 select 해서 dto 로 반환 ( orders 프록시, address 전체 로딩 X )
+ */
+@Repository
+@Transactional(readOnly = true)  // 조회 전용 ( replica 사용 시 replica 로 라우팅 )
+@RequiredArgsConstructor
+public class MemberQueryRepository {
+
+    // 요청 필드 -> select 컬럼
+    private static final Map<String, String> COLUMNS = new LinkedHashMap<>();
+
+    static {
+        COLUMNS.put("name", "m.name");
+        COLUMNS.put("city", "m.address.city");
+        COLUMNS.put("street", "m.address.street");
+        COLUMNS.put("zipcode", "m.address.zipcode");
+    }
+
+    private final EntityManager em;
+    private final ShardQueries shardQueries;
+
+    public long count(){
+        return shardQueries.sum(() -> em.createQuery("select count(m) from Member m", Long.class)
+                .getSingleResult());
+    }
+
+    // 키셋 페이징 : offset 대신 마지막 id 다음부터 조회하므로 뒤 페이지도 인덱스로 바로 찾음
+    public List<MemberQueryDto> findMembers(List<String> fields, Long lastId, int limit){
+        return shardQueries.gather(() -> createQuery(fields, lastId)
+                .setMaxResults(limit)
+                .getResultList().stream()
+                .map(t -> toDto(t, fields))
+                .collect(toList()), Comparator.comparing(MemberQueryDto::getId), limit);
+    }
+
+    // 전체를 메모리에 올리지 않고 한 건씩 흘려보냄 ( dto 라서 영속성 컨텍스트에 쌓이지 않음 )
+    public void streamMembers(List<String> fields, Consumer<MemberQueryDto> consumer){
+        // shard 순서( = id 순서 )대로 하나씩
+        shardQueries.forEachShard(() -> {
+            try (Stream<Tuple> stream = createQuery(fields, null)
+                    .setHint("org.hibernate.fetchSize", 500)
+                    .getResultStream()) {
+                stream.map(t -> toDto(t, fields)).forEach(consumer);
+            }
+        });
+    }
+
+    private TypedQuery<Tuple> createQuery(List<String> fields, Long lastId) {
+        String jpql = "select m.id as id";
+        for (String field : fields) {
+            String column = COLUMNS.get(field);
+            if(column == null){
+                throw new IllegalArgumentException("지원하지 않는 필드입니다. field=" + field);
+            }
+            jpql += ", " + column + " as " + field;
+        }
+        jpql += " from Member m";
+        if(lastId != null){
+            jpql += " where m.id > :lastId";
+        }
+        jpql += " order by m.id";
+
+        TypedQuery<Tuple> query = em.createQuery(jpql, Tuple.class);
+        if(lastId != null){
+            query.setParameter("lastId", lastId);
+        }
+        return query;
+    }
+
+    private MemberQueryDto toDto(Tuple tuple, List<String> fields) {
+        MemberQueryDto dto = new MemberQueryDto(tuple.get("id", Long.class));
+        for (String field : fields) {
+            String value = tuple.get(field, String.class);
+            switch (field) {
+                case "name": dto.setName(value); break;
+                case "city": dto.setCity(value); break;
+                case "street": dto.setStreet(value); break;
+                case "zipcode": dto.setZipcode(value); break;
+            }
+        }
+        return dto;
+    }
+}
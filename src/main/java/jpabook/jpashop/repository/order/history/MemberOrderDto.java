@@ -0,0 +1,23 @@
+package jpabook.jpashop.repository.order.history;
+
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class MemberOrderDto {
+
+    private Long orderId;
+    private LocalDateTime orderDate;
+    private OrderStatus status;
+    private List<MemberOrderItemDto> items = new ArrayList<>();
+
+    public MemberOrderDto(Long orderId, LocalDateTime orderDate, OrderStatus status) {
+        this.orderId = orderId;
+        this.orderDate = orderDate;
+        this.status = status;
+    }
+}
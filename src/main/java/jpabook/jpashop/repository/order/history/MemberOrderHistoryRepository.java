@@ -0,0 +1,75 @@
+package jpabook.jpashop.repository.order.history;
+
+import jpabook.jpashop.datasource.shard.ShardQueries;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * 회원별 주문 내역
+ * - ( order_date, order_id ) 키셋 페이징. idx_orders_member_date 인덱스를 역순으로 limit 건만 읽으므로
+ *   주문이 많은 회원도 페이지마다 읽는 양이 같음 ( offset 처럼 앞 페이지를 건너뛰며 읽지 않음 )
+ * - 페이지의 주문상품은 IN 쿼리 한 번
+ * - 회원의 주문은 모두 회원의 shard 에 있음
+ */
+@Repository
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class MemberOrderHistoryRepository {
+
+    private final EntityManager em;
+    private final ShardQueries shardQueries;
+
+    // lastOrderDate, lastOrderId : 이전 페이지의 마지막 주문 ( 첫 페이지는 null )
+    public List<MemberOrderDto> findPage(Long memberId, LocalDateTime lastOrderDate, Long lastOrderId, int limit) {
+        return shardQueries.onShardOf(memberId, () -> {
+            List<MemberOrderDto> orders = findOrders(memberId, lastOrderDate, lastOrderId, limit);
+            if (!orders.isEmpty()) {
+                Map<Long, MemberOrderDto> byId = orders.stream()
+                        .collect(toMap(MemberOrderDto::getOrderId, Function.identity()));
+                for (MemberOrderItemDto item : findItems(orders.stream().map(MemberOrderDto::getOrderId).collect(toList()))) {
+                    byId.get(item.getOrderId()).getItems().add(item);
+                }
+            }
+            return orders;
+        });
+    }
+
+    private List<MemberOrderDto> findOrders(Long memberId, LocalDateTime lastOrderDate, Long lastOrderId, int limit) {
+        boolean after = lastOrderDate != null && lastOrderId != null;
+        TypedQuery<MemberOrderDto> query = em.createQuery(
+                        "select new jpabook.jpashop.repository.order.history.MemberOrderDto(o.id, o.orderDate, o.status)" +
+                                " from Order o" +
+                                " where o.member.id = :memberId" +
+                                (after ? " and (o.orderDate < :lastOrderDate" +
+                                        " or (o.orderDate = :lastOrderDate and o.id < :lastOrderId))" : "") +
+                                " order by o.orderDate desc, o.id desc", MemberOrderDto.class)
+                .setParameter("memberId", memberId)
+                .setMaxResults(limit);
+        if (after) {
+            query.setParameter("lastOrderDate", lastOrderDate)
+                    .setParameter("lastOrderId", lastOrderId);
+        }
+        return query.getResultList();
+    }
+
+    private List<MemberOrderItemDto> findItems(List<Long> orderIds) {
+        return em.createQuery(
+                        "select new jpabook.jpashop.repository.order.history.MemberOrderItemDto(oi.order.id, i.id, i.name, oi.orderPrice, oi.count)" +
+                                " from OrderItem oi join oi.item i" +
+                                " where oi.order.id in :orderIds" +
+                                " order by oi.id", MemberOrderItemDto.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+    }
+}
@@ -0,0 +1,17 @@
+package jpabook.jpashop.repository.order.history;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class MemberOrderItemDto {
+
+    @JsonIgnore
+    private Long orderId;
+    private Long itemId;
+    private String itemName;
+    private int orderPrice;
+    private int count;
+}
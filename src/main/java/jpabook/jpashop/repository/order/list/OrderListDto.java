@@ -0,0 +1,31 @@
+package jpabook.jpashop.repository.order.list;
+
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 주문 목록 화면 한 줄 ( 대표상품 : 주문상품 중 id 가 가장 작은 것 )
+ */
+@Data
+public class OrderListDto {
+
+    private Long orderId;
+    private String memberName;
+    private String itemName;
+    private int orderPrice;
+    private int count;
+    private OrderStatus status;
+    private LocalDateTime orderDate;
+
+    public OrderListDto(Long orderId, String memberName, String itemName, int orderPrice, int count, OrderStatus status, LocalDateTime orderDate) {
+        this.orderId = orderId;
+        this.memberName = memberName;
+        this.itemName = itemName;
+        this.orderPrice = orderPrice;
+        this.count = count;
+        this.status = status;
+        this.orderDate = orderDate;
+    }
+}
@@ -0,0 +1,97 @@
+package jpabook.jpashop.repository.order.list;
+
+import jpabook.jpashop.datasource.shard.ShardQueries;
+import jpabook.jpashop.repository.OrderSearch;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 주문 목록 화면 조회
+ * 목록 쿼리 1번( 회원, 대표상품까지 join 해서 dto 로 ) + count 쿼리 1번. 데이터 양과 관계없이 쿼리 수 고정
+ */
+@Repository
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class OrderListQueryRepository {
+
+    private static final Comparator<OrderListDto> NEWEST_FIRST =
+            Comparator.comparing(OrderListDto::getOrderId).reversed();
+
+    private final EntityManager em;
+    private final ShardQueries shardQueries;
+
+    public Page<OrderListDto> findPage(OrderSearch orderSearch, Pageable pageable) {
+        int offset = (int) pageable.getOffset();
+        int size = pageable.getPageSize();
+
+        List<OrderListDto> content;
+        if (shardQueries.scatters()) {
+            // shard 마다 앞에서부터 offset + size 건을 가져와 합친 뒤 잘라냄
+            List<OrderListDto> merged = shardQueries.gather(
+                    () -> findOnShard(orderSearch, 0, offset + size), NEWEST_FIRST, offset + size);
+            content = merged.subList(Math.min(offset, merged.size()), merged.size());
+        } else {
+            content = findOnShard(orderSearch, offset, size);
+        }
+
+        long total = shardQueries.sum(() -> countOnShard(orderSearch));
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private List<OrderListDto> findOnShard(OrderSearch orderSearch, int offset, int limit) {
+        String jpql = "select new jpabook.jpashop.repository.order.list.OrderListDto(o.id, m.name, i.name, oi.orderPrice, oi.count, o.status, o.orderDate)" +
+                " from Order o" +
+                " join o.member m" +
+                " join o.orderItems oi" +
+                " join oi.item i" +
+                " where oi.id = (select min(oi2.id) from OrderItem oi2 where oi2.order = o)" +
+                where(orderSearch) +
+                " order by o.id desc";
+        TypedQuery<OrderListDto> query = em.createQuery(jpql, OrderListDto.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit);
+        bind(query, orderSearch);
+        return query.getResultList();
+    }
+
+    private Long countOnShard(OrderSearch orderSearch) {
+        String jpql = "select count(o) from Order o" +
+                " join o.member m" +
+                " where 1 = 1" +
+                where(orderSearch);
+        TypedQuery<Long> query = em.createQuery(jpql, Long.class);
+        bind(query, orderSearch);
+        return query.getSingleResult();
+    }
+
+    private String where(OrderSearch orderSearch) {
+        String where = "";
+        if (orderSearch.getOrderStatus() != null) {
+            where += " and o.status = :status";
+        }
+        if (StringUtils.hasText(orderSearch.getMemberName())) {
+            where += " and m.name like :name";
+        }
+        return where;
+    }
+
+    private void bind(Query query, OrderSearch orderSearch) {
+        if (orderSearch.getOrderStatus() != null) {
+            query.setParameter("status", orderSearch.getOrderStatus());
+        }
+        if (StringUtils.hasText(orderSearch.getMemberName())) {
+            query.setParameter("name", orderSearch.getMemberName());
+        }
+    }
+}
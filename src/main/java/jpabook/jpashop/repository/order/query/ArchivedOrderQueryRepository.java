@@ -0,0 +1,88 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 보관 테이블( *_archive ) 조회
+ * 엔티티 매핑이 없는 테이블이라 native 쿼리로 조회해서 OrderQueryDto 로 변환
+ * 보관 작업을 사용하지 않으면 ( jpashop.archive.enabled=false ) 보관 테이블이 없으므로 조회하지 않음
+ * 가장 큰 테이블이므로 항상 주문 id 키셋 페이징으로 limit 건까지만 읽음
+ */
+@Repository
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class ArchivedOrderQueryRepository {
+
+    private final EntityManager em;
+
+    @Value("${jpashop.archive.enabled:false}")
+    private boolean enabled;
+
+    // lastId : 이전 페이지의 마지막 주문 id ( 첫 페이지는 null )
+    @SuppressWarnings("unchecked")
+    public List<OrderQueryDto> findOrders(Long lastId, int limit) {
+        if (!enabled) {
+            return new ArrayList<>();
+        }
+        Query query = em.createNativeQuery(
+                        "select o.order_id, m.name, o.order_date, o.status, d.city, d.street, d.zipcode" +
+                                " from orders_archive o" +
+                                " join member m on m.member_id = o.member_id" +
+                                " left join delivery_archive d on d.delivery_id = o.delivery_id" +
+                                (lastId != null ? " where o.order_id > :lastId" : "") +
+                                " order by o.order_id")
+                .setMaxResults(limit);
+        if (lastId != null) {
+            query.setParameter("lastId", lastId);
+        }
+        List<Object[]> rows = query.getResultList();
+
+        List<OrderQueryDto> result = rows.stream()
+                .map(r -> new OrderQueryDto(
+                        ((Number) r[0]).longValue(),
+                        (String) r[1],
+                        r[2] == null ? null : ((Timestamp) r[2]).toLocalDateTime(),
+                        r[3] == null ? null : OrderStatus.valueOf((String) r[3]),
+                        new Address((String) r[4], (String) r[5], (String) r[6])))
+                .collect(Collectors.toList());
+        if (result.isEmpty()) {
+            return result;
+        }
+
+        List<Long> orderIds = result.stream()
+                .map(OrderQueryDto::getOrderId)
+                .collect(Collectors.toList());
+
+        List<Object[]> itemRows = em.createNativeQuery(
+                        "select oi.order_id, i.name, oi.order_price, oi.count" +
+                                " from order_item_archive oi" +
+                                " join item i on i.item_id = oi.item_id" +
+                                " where oi.order_id in (:orderIds)")
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = itemRows.stream()
+                .map(r -> new OrderItemQueryDto(
+                        ((Number) r[0]).longValue(),
+                        (String) r[1],
+                        ((Number) r[2]).intValue(),
+                        ((Number) r[3]).intValue()))
+                .collect(Collectors.groupingBy(OrderItemQueryDto::getOrderId));
+
+        result.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+        return result;
+    }
+}
@@ -0,0 +1,136 @@
+package jpabook.jpashop.repository.order.query;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 주문 조회 fields / expand 파라미터 해석
+ * - fields : 주문 필드( orderDate, status ) 와 연관 필드( member.name, delivery.city, items.count ... )
+ *            연관 필드를 지정하면 그 연관도 펼침. fields 가 없으면 주문 필드 전체
+ * - expand : 펼칠 연관( member, delivery, items ). 연관 필드를 지정하지 않았으면 그 연관의 필드 전체
+ * 펼친 연관만 join / 조회하고 지정한 필드만 select 한다.
+ */
+@Getter
+public class OrderFieldSelection {
+
+    // 요청 필드 -> select 컬럼
+    static final Map<String, String> ORDER_FIELDS = new LinkedHashMap<>();
+    static final Map<String, String> MEMBER_FIELDS = new LinkedHashMap<>();
+    static final Map<String, String> DELIVERY_FIELDS = new LinkedHashMap<>();
+    static final Map<String, String> ITEM_FIELDS = new LinkedHashMap<>();
+
+    static {
+        ORDER_FIELDS.put("orderDate", "o.orderDate");
+        ORDER_FIELDS.put("status", "o.status");
+
+        MEMBER_FIELDS.put("id", "o.member.id");       // FK 컬럼이라 회원 join 없음
+        MEMBER_FIELDS.put("name", "m.name");
+
+        DELIVERY_FIELDS.put("status", "d.status");
+        DELIVERY_FIELDS.put("city", "d.address.city");
+        DELIVERY_FIELDS.put("street", "d.address.street");
+        DELIVERY_FIELDS.put("zipcode", "d.address.zipcode");
+
+        ITEM_FIELDS.put("itemId", "oi.item.id");     // FK 컬럼이라 상품 join 없음
+        ITEM_FIELDS.put("itemName", "i.name");
+        ITEM_FIELDS.put("orderPrice", "oi.orderPrice");
+        ITEM_FIELDS.put("count", "oi.count");
+    }
+
+    private static final Map<String, Map<String, String>> ASSOCIATIONS = new LinkedHashMap<>();
+
+    static {
+        ASSOCIATIONS.put("member", MEMBER_FIELDS);
+        ASSOCIATIONS.put("delivery", DELIVERY_FIELDS);
+        ASSOCIATIONS.put("items", ITEM_FIELDS);
+    }
+
+    private final List<String> orderFields;
+    private final List<String> memberFields;
+    private final List<String> deliveryFields;
+    private final List<String> itemFields;
+
+    private OrderFieldSelection(List<String> orderFields, Map<String, List<String>> associationFields) {
+        this.orderFields = orderFields;
+        this.memberFields = associationFields.getOrDefault("member", Collections.emptyList());
+        this.deliveryFields = associationFields.getOrDefault("delivery", Collections.emptyList());
+        this.itemFields = associationFields.getOrDefault("items", Collections.emptyList());
+    }
+
+    /**
+     * @param fields null 이면 주문 필드 전체
+     * @param expand null 이면 펼치지 않음
+     */
+    public static OrderFieldSelection of(List<String> fields, List<String> expand) {
+        List<String> orderFields = new ArrayList<>();
+        Map<String, Set<String>> associationFields = new LinkedHashMap<>();
+
+        if (fields == null) {
+            orderFields.addAll(ORDER_FIELDS.keySet());
+        } else {
+            for (String field : fields) {
+                int dot = field.indexOf('.');
+                if (dot < 0) {
+                    if (!ORDER_FIELDS.containsKey(field)) {
+                        throw new IllegalArgumentException("지원하지 않는 필드입니다. field=" + field);
+                    }
+                    if (!orderFields.contains(field)) {
+                        orderFields.add(field);
+                    }
+                    continue;
+                }
+                String association = field.substring(0, dot);
+                String name = field.substring(dot + 1);
+                Map<String, String> columns = ASSOCIATIONS.get(association);
+                if (columns == null || !columns.containsKey(name)) {
+                    throw new IllegalArgumentException("지원하지 않는 필드입니다. field=" + field);
+                }
+                associationFields.computeIfAbsent(association, a -> new LinkedHashSet<>()).add(name);
+            }
+        }
+
+        if (expand != null) {
+            for (String association : expand) {
+                Map<String, String> columns = ASSOCIATIONS.get(association);
+                if (columns == null) {
+                    throw new IllegalArgumentException("지원하지 않는 연관입니다. expand=" + association);
+                }
+                // 필드를 따로 지정하지 않은 연관은 전체 필드
+                associationFields.computeIfAbsent(association, a -> new LinkedHashSet<>(columns.keySet()));
+            }
+        }
+
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        associationFields.forEach((association, names) -> result.put(association, new ArrayList<>(names)));
+        return new OrderFieldSelection(orderFields, result);
+    }
+
+    public boolean hasMember() {
+        return !memberFields.isEmpty();
+    }
+
+    // 회원 id 외의 필드를 요청했을 때만 회원 join
+    public boolean needsMemberJoin() {
+        return memberFields.stream().anyMatch(name -> !name.equals("id"));
+    }
+
+    public boolean hasDelivery() {
+        return !deliveryFields.isEmpty();
+    }
+
+    public boolean hasItems() {
+        return !itemFields.isEmpty();
+    }
+
+    // 상품 이름을 요청했을 때만 상품 join
+    public boolean needsItemJoin() {
+        return itemFields.contains("itemName");
+    }
+}
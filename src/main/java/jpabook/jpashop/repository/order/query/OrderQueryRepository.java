@@ -1,21 +1,42 @@
 package jpabook.jpashop.repository.order.query;
 
+import jpabook.jpashop.datasource.pool.ConnectionPool;
+import jpabook.jpashop.datasource.pool.PoolType;
+import jpabook.jpashop.datasource.shard.ShardMerge;
+import jpabook.jpashop.datasource.shard.ShardQueries;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 @Repository
+@Transactional(readOnly = true)  // 조회 전용 ( replica 사용 시 replica 로 라우팅 )
+@ConnectionPool(PoolType.REPORTING)  // 전체 주문 조회는 리포트용 풀 사용
 @RequiredArgsConstructor
 public class OrderQueryRepository {
 
     private final EntityManager em;
+    private final ShardQueries shardQueries;
+    private final ArchivedOrderQueryRepository archivedOrderQueryRepository;
+
+    private static final Comparator<OrderQueryDto> BY_ID = Comparator.comparing(OrderQueryDto::getOrderId);
 
     // N + 1 문제 발생
     public List<OrderQueryDto> findOrderQueryDtos(){
+        // sharding 사용 시 shard 별로 실행 후 주문 id 순으로 합침
+        return shardQueries.gather(this::findOrderQueryDtosOnShard, Comparator.comparing(OrderQueryDto::getOrderId));
+    }
+
+    private List<OrderQueryDto> findOrderQueryDtosOnShard(){
         List<OrderQueryDto> result = findOrders();
 
         result.forEach(o -> {
@@ -26,8 +47,30 @@ public class OrderQueryRepository {
     }
 
     public List<OrderQueryDto> findAllByDto_optimization() {
+        return shardQueries.gather(this::findAllByDto_optimizationOnShard, BY_ID);
+    }
+
+    /**
+     * 보관 테이블의 주문까지 주문 id 순으로 합쳐서 lastId 다음 limit 건 ( 키셋 페이징 )
+     * 보관 테이블은 가장 큰 테이블이므로 운영 / 보관 모두 lastId 다음 limit 건씩만 읽고, 합친 뒤 limit 건만 남김
+     */
+    public List<OrderQueryDto> findAllByDto_withArchived(Long lastId, int limit) {
+        List<OrderQueryDto> live = shardQueries.gather(
+                () -> withOrderItems(findOrders(lastId, limit)), BY_ID, limit);
+        List<OrderQueryDto> archived = archivedOrderQueryRepository.findOrders(lastId, limit);
+        return ShardMerge.mergeSorted(List.of(live, archived), BY_ID, limit);
+    }
+
+    private List<OrderQueryDto> findAllByDto_optimizationOnShard() {
         // Order 찾아옴
-        List<OrderQueryDto> result = findOrders();
+        return withOrderItems(findOrders());
+    }
+
+    // 주문들의 OrderItem 을 IN 쿼리 한번으로 찾아서 채움
+    private List<OrderQueryDto> withOrderItems(List<OrderQueryDto> result) {
+        if (result.isEmpty()) {
+            return result;
+        }
 
         List<Long> orderIds = result.stream()
                 .map(o -> o.getOrderId())
@@ -69,19 +112,136 @@ public class OrderQueryRepository {
                         "select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address) " +
                                 " from Order o" +
                                 " join o.member m" +
-                                " join o.delivery d", OrderQueryDto.class)
+                                " join o.delivery d" +
+                                " order by o.id", OrderQueryDto.class)
                 .getResultList();
     }
 
+    private List<OrderQueryDto> findOrders(Long lastId, int limit) {
+        TypedQuery<OrderQueryDto> query = em.createQuery(
+                        "select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address) " +
+                                " from Order o" +
+                                " join o.member m" +
+                                " join o.delivery d" +
+                                (lastId != null ? " where o.id > :lastId" : "") +
+                                " order by o.id", OrderQueryDto.class)
+                .setMaxResults(limit);
+        if (lastId != null) {
+            query.setParameter("lastId", lastId);
+        }
+        return query.getResultList();
+    }
+
     public List<OrderFlatDto> findAllByDto_flat() {
-        return em.createQuery(
+        return shardQueries.gather(() -> em.createQuery(
                         "select new " +
                                 " jpabook.jpashop.repository.order.query.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count)" +
                                 " from Order o" +
                                 " join o.member m" +
                                 " join o.delivery d" +
                                 " join o.orderItems oi" +
-                                " join oi.item i", OrderFlatDto.class)
+                                " join oi.item i" +
+                                " order by o.id", OrderFlatDto.class)
+                .getResultList(), Comparator.comparing(OrderFlatDto::getOrderId));
+    }
+
+    //======================= fields / expand ======================= //
+    private static final Comparator<Map<String, Object>> BY_ORDER_ID = Comparator.comparing(o -> (Long) o.get("orderId"));
+
+    /**
+     * 요청한 필드만 select 하고 펼친 연관만 join ( 회원, 배송 ) / 조회 ( 주문상품은 IN 쿼리 한 번 )
+     * 요청한 필드만 담기도록 Map 으로 반환. 주문 id 키셋 페이징
+     */
+    public List<Map<String, Object>> findSparse(OrderFieldSelection selection, Long lastId, int limit) {
+        return shardQueries.gather(() -> findSparseOnShard(selection, lastId, limit), BY_ORDER_ID, limit);
+    }
+
+    private List<Map<String, Object>> findSparseOnShard(OrderFieldSelection selection, Long lastId, int limit) {
+        StringBuilder jpql = new StringBuilder("select o.id as orderId");
+        for (String field : selection.getOrderFields()) {
+            jpql.append(", ").append(OrderFieldSelection.ORDER_FIELDS.get(field)).append(" as o_").append(field);
+        }
+        for (String field : selection.getMemberFields()) {
+            jpql.append(", ").append(OrderFieldSelection.MEMBER_FIELDS.get(field)).append(" as m_").append(field);
+        }
+        for (String field : selection.getDeliveryFields()) {
+            jpql.append(", ").append(OrderFieldSelection.DELIVERY_FIELDS.get(field)).append(" as d_").append(field);
+        }
+        jpql.append(" from Order o");
+        if (selection.needsMemberJoin()) {
+            jpql.append(" join o.member m");
+        }
+        if (selection.hasDelivery()) {
+            jpql.append(" left join o.delivery d");
+        }
+        if (lastId != null) {
+            jpql.append(" where o.id > :lastId");
+        }
+        jpql.append(" order by o.id");
+
+        TypedQuery<Tuple> query = em.createQuery(jpql.toString(), Tuple.class).setMaxResults(limit);
+        if (lastId != null) {
+            query.setParameter("lastId", lastId);
+        }
+
+        List<Map<String, Object>> orders = new ArrayList<>();
+        Map<Long, List<Map<String, Object>>> itemsByOrder = new LinkedHashMap<>();
+        for (Tuple tuple : query.getResultList()) {
+            Map<String, Object> order = new LinkedHashMap<>();
+            Long orderId = tuple.get("orderId", Long.class);
+            order.put("orderId", orderId);
+            for (String field : selection.getOrderFields()) {
+                order.put(field, tuple.get("o_" + field));
+            }
+            if (selection.hasMember()) {
+                order.put("member", nested(tuple, "m_", selection.getMemberFields()));
+            }
+            if (selection.hasDelivery()) {
+                order.put("delivery", nested(tuple, "d_", selection.getDeliveryFields()));
+            }
+            if (selection.hasItems()) {
+                List<Map<String, Object>> items = new ArrayList<>();
+                order.put("items", items);
+                itemsByOrder.put(orderId, items);
+            }
+            orders.add(order);
+        }
+
+        if (!itemsByOrder.isEmpty()) {
+            findSparseItems(selection, itemsByOrder);
+        }
+        return orders;
+    }
+
+    private void findSparseItems(OrderFieldSelection selection, Map<Long, List<Map<String, Object>>> itemsByOrder) {
+        // alias 는 예약어( count 등 ) 와 겹치지 않도록 접두어를 붙임
+        StringBuilder jpql = new StringBuilder("select oi.order.id as orderId");
+        for (String field : selection.getItemFields()) {
+            jpql.append(", ").append(OrderFieldSelection.ITEM_FIELDS.get(field)).append(" as i_").append(field);
+        }
+        jpql.append(" from OrderItem oi");
+        if (selection.needsItemJoin()) {
+            jpql.append(" join oi.item i");
+        }
+        jpql.append(" where oi.order.id in :orderIds order by oi.id");
+
+        List<Tuple> tuples = em.createQuery(jpql.toString(), Tuple.class)
+                .setParameter("orderIds", itemsByOrder.keySet())
                 .getResultList();
+        for (Tuple tuple : tuples) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            for (String field : selection.getItemFields()) {
+                item.put(field, tuple.get("i_" + field));
+            }
+            itemsByOrder.get(tuple.get("orderId", Long.class)).add(item);
+        }
+    }
+
+    private Map<String, Object> nested(Tuple tuple, String prefix, List<String> fields) {
+        Map<String, Object> nested = new LinkedHashMap<>();
+        for (String field : fields) {
+            nested.put(field, tuple.get(prefix + field));
+        }
+        return nested;
     }
 }
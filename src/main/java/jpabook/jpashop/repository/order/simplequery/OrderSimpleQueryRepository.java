@@ -1,21 +1,60 @@
 package jpabook.jpashop.repository.order.simplequery;
 
+import jpabook.jpashop.datasource.shard.ShardQueries;
+import jpabook.jpashop.repository.OrderSearch;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.Comparator;
 import java.util.List;
 
 @Repository
+@Transactional(readOnly = true)  // 조회 전용 ( replica 사용 시 replica 로 라우팅 )
 @RequiredArgsConstructor
 public class OrderSimpleQueryRepository {
     private final EntityManager em;
+    private final ShardQueries shardQueries;
 
     public List<SimpleOrderQueryDto> findorderDtos() {
-        return em.createQuery(
+        return shardQueries.gather(() -> em.createQuery(
                 "select new jpabook.jpashop.repository.order.simplequery.SimpleOrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address) from Order o" +
                         " join o.member m" +
-                        " join o.delivery d", SimpleOrderQueryDto.class
-        ).getResultList();
+                        " join o.delivery d" +
+                        " order by o.id", SimpleOrderQueryDto.class
+        ).getResultList(), Comparator.comparing(SimpleOrderQueryDto::getOrderId));
+    }
+
+    // 주문 검색 ( 회원 이름, 주문 상태 ). shard 별 최대 1000 건 조회 후 합쳐서 1000 건
+    public List<SimpleOrderQueryDto> findOrderDtos(OrderSearch orderSearch) {
+        return shardQueries.gather(() -> searchOnShard(orderSearch),
+                Comparator.comparing(SimpleOrderQueryDto::getOrderId), 1000);
+    }
+
+    private List<SimpleOrderQueryDto> searchOnShard(OrderSearch orderSearch) {
+        String jpql = "select new jpabook.jpashop.repository.order.simplequery.SimpleOrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address) from Order o" +
+                " join o.member m" +
+                " join o.delivery d" +
+                " where 1 = 1";
+        if(orderSearch.getOrderStatus() != null){
+            jpql += " and o.status = :status";
+        }
+        if(StringUtils.hasText(orderSearch.getMemberName())){
+            jpql += " and m.name like :name";
+        }
+        jpql += " order by o.id";
+
+        TypedQuery<SimpleOrderQueryDto> query = em.createQuery(jpql, SimpleOrderQueryDto.class)
+                .setMaxResults(1000);
+        if(orderSearch.getOrderStatus() != null){
+            query.setParameter("status", orderSearch.getOrderStatus());
+        }
+        if(StringUtils.hasText(orderSearch.getMemberName())){
+            query.setParameter("name", orderSearch.getMemberName());
+        }
+        return query.getResultList();
     }
 }
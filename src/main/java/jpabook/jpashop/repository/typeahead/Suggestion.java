@@ -0,0 +1,24 @@
+package jpabook.jpashop.repository.typeahead;
+
+import lombok.Data;
+
+/**
+ * 자동완성 한 건 ( detail : 회원은 도시, 상품은 가격 )
+ */
+@Data
+public class Suggestion {
+
+    private Long id;
+    private String name;
+    private String detail;
+
+    public Suggestion(Long id, String name, String detail) {
+        this.id = id;
+        this.name = name;
+        this.detail = detail;
+    }
+
+    public Suggestion(Long id, String name, int price) {
+        this(id, name, String.valueOf(price));
+    }
+}
@@ -0,0 +1,54 @@
+package jpabook.jpashop.repository.typeahead;
+
+import jpabook.jpashop.datasource.shard.ShardQueries;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 이름 앞부분 검색 ( like 'q%' 로 이름 인덱스 범위 조회 ) + 필요한 컬럼만 조회 + 최대 limit 건
+ */
+@Repository
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class TypeaheadQueryRepository {
+
+    private static final Comparator<Suggestion> BY_NAME =
+            Comparator.comparing(Suggestion::getName).thenComparing(Suggestion::getId);
+
+    private final EntityManager em;
+    private final ShardQueries shardQueries;
+
+    public List<Suggestion> findMembers(String prefix, int limit) {
+        return shardQueries.gather(() -> em.createQuery(
+                        "select new jpabook.jpashop.repository.typeahead.Suggestion(m.id, m.name, m.address.city)" +
+                                " from Member m" +
+                                " where m.name like :prefix escape '!'" +
+                                " order by m.name, m.id", Suggestion.class)
+                .setParameter("prefix", likePrefix(prefix))
+                .setMaxResults(limit)
+                .getResultList(), BY_NAME, limit);
+    }
+
+    public List<Suggestion> findItems(String prefix, int limit) {
+        return em.createQuery(
+                        "select new jpabook.jpashop.repository.typeahead.Suggestion(i.id, i.name, i.price)" +
+                                " from Item i" +
+                                " where i.name like :prefix escape '!'" +
+                                " order by i.name, i.id", Suggestion.class)
+                .setParameter("prefix", likePrefix(prefix))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // 입력값의 %, _ 는 문자 그대로 검색
+    static String likePrefix(String prefix) {
+        return prefix.replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_") + "%";
+    }
+}
@@ -0,0 +1,57 @@
+package jpabook.jpashop.retry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @RetryOnConflict 메서드를 ConcurrencyFailureException 이면 다시 실행
+ * 트랜잭션 advice 보다 바깥( 새 트랜잭션으로 재시도 ), 커넥션 풀 / shard 선택보다는 안쪽에서 실행
+ * 재시도 사이에는 짧게 임의로 쉬어서 충돌한 요청끼리 다시 같은 시점에 부딪히지 않게 함
+ */
+@Slf4j
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class ConflictRetryAspect {
+
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    public ConflictRetryAspect(int maxAttempts, long backoffMillis) {
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.backoffMillis = backoffMillis;
+    }
+
+    @Around("@annotation(jpabook.jpashop.retry.RetryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("conflict on {}, retry {}/{}", joinPoint.getSignature().toShortString(), attempt, maxAttempts - 1);
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) throws InterruptedException {
+        if (backoffMillis <= 0) {
+            return;
+        }
+        Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMillis * attempt) + 1);
+    }
+}
@@ -0,0 +1,18 @@
+package jpabook.jpashop.retry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 주문 / 취소처럼 같은 상품 row 를 동시에 수정하는 쓰기의 충돌 재시도
+ */
+@Configuration
+public class RetryConfig {
+
+    @Bean
+    public ConflictRetryAspect conflictRetryAspect(@Value("${jpashop.retry.max-attempts:3}") int maxAttempts,
+                                                   @Value("${jpashop.retry.backoff-millis:10}") long backoffMillis) {
+        return new ConflictRetryAspect(maxAttempts, backoffMillis);
+    }
+}
@@ -0,0 +1,14 @@
+package jpabook.jpashop.retry;
+
+import java.lang.annotation.*;
+
+/**
+ * 동시 수정 충돌( 낙관적 락 버전 불일치, 데드락, 락 타임아웃 )로 트랜잭션이 실패하면 메서드 전체를 새 트랜잭션으로 다시 실행
+ * 재시도 횟수는 jpashop.retry.max-attempts ( 기본 3 )
+ * 이미 진행 중인 트랜잭션 안에서 호출되면 재시도하지 않음 ( 바깥 트랜잭션이 rollback-only 가 되므로 의미 없음 )
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RetryOnConflict {
+}
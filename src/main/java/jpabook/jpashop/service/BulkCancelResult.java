@@ -0,0 +1,13 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BulkCancelResult {
+
+    private int requested;      // 요청한 id 수 ( 검색 조건이면 조건에 맞은 주문 수 )
+    private int cancelled;
+    private int skipped;        // 이미 취소 / 배송완료 / 없는 주문
+}
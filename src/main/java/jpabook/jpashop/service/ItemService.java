@@ -1,9 +1,17 @@
 package jpabook.jpashop.service;
 
+import jpabook.jpashop.catalog.CatalogCache;
+import jpabook.jpashop.datasource.shard.CatalogShard;
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.ItemUpdate;
+import jpabook.jpashop.stock.StockLedger;
+import jpabook.jpashop.version.Aggregate;
+import jpabook.jpashop.version.DataVersion;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,10 +23,20 @@ import java.util.List;
 public class ItemService {
 
     private final ItemRepository itemRepository;
+    private final DataVersion dataVersion;
+    private final CatalogCache catalogCache;
+    private final ObjectProvider<StockLedger> stockLedger;
+    private final CatalogShard catalogShard;
 
     @Transactional
     public void saveItem(Item item){
         itemRepository.save(item);
+        dataVersion.bump(Aggregate.ITEM);
+        if (item.getId() != null) {
+            catalogCache.evictOnCompletion(item.getId());
+            // sharding 사용 시 나머지 shard 의 상품 복제본도 갱신 ( 주문상품 FK, 주문 조회 join 용 )
+            catalogShard.replicateOnCommit(item.getId());
+        }
     }
 
     // 변경 감지 기능 사용
@@ -27,7 +45,47 @@ public class ItemService {
         Item findItem = itemRepository.findOne(itemId);
         findItem.setPrice(price);
         findItem.setName(name);
-        findItem.setStockQuantity(stockQuantity);
+        // 재고 원장 사용 시 재고 컬럼은 그대로 두고 가용 재고가 지정한 값이 되도록 원장에 보정 기록
+        StockLedger ledger = stockLedger.getIfAvailable();
+        if (ledger == null) {
+            findItem.setStockQuantity(stockQuantity);
+        } else if (stockQuantity != ledger.available(itemId)) {
+            ledger.reset(itemId, stockQuantity);
+        }
+        dataVersion.bump(Aggregate.ITEM);
+        catalogCache.evictOnCompletion(itemId);
+        catalogShard.replicateOnCommit(itemId);
+    }
+
+    /**
+     * 부분 수정
+     * 엔티티를 조회하지 않고 값이 있는 컬럼만 update 쿼리 한번으로 변경
+     * version 이 다르면 ( 다른 곳에서 먼저 수정 ) OptimisticLockingFailureException, 없는 상품이면 IllegalArgumentException
+     */
+    @Transactional
+    public void updateItemPartial(ItemUpdate update){
+        // 재고 원장 사용 시 재고 컬럼은 update 하지 않고 수정 후 원장에 보정 기록 ( 화면에 보여준 가용 재고 그대로면 생략 )
+        StockLedger ledger = stockLedger.getIfAvailable();
+        Integer resetStock = null;
+        if (ledger != null) {
+            resetStock = update.getStockQuantity();
+            update.setStockQuantity(null);
+        }
+        try {
+            itemRepository.update(update);
+        } catch (OptimisticLockingFailureException e) {
+            // 변경된 row 가 없는 이유가 버전 충돌이 아니라 없는 상품이면 잘못된 요청
+            if (!itemRepository.exists(update.getId())) {
+                throw new IllegalArgumentException("상품이 없습니다. itemId=" + update.getId());
+            }
+            throw e;
+        }
+        if (resetStock != null && resetStock != ledger.available(update.getId())) {
+            ledger.reset(update.getId(), resetStock);
+        }
+        dataVersion.bump(Aggregate.ITEM);
+        catalogCache.evictOnCompletion(update.getId());
+        catalogShard.replicateOnCommit(update.getId());
     }
 
     public List<Item> findItem(){
@@ -38,4 +96,12 @@ public class ItemService {
         return itemRepository.findOne(itemId);
     }
 
+    /**
+     * 주문 가능한 재고 ( 재고 원장 사용 시 합치지 않은 원장까지 반영 )
+     */
+    public int availableStock(Item item){
+        StockLedger ledger = stockLedger.getIfAvailable();
+        return ledger == null ? item.getStockQuantity() : ledger.available(item.getId());
+    }
+
 }
@@ -2,12 +2,18 @@ package jpabook.jpashop.service;
 
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.member.query.MemberQueryDto;
+import jpabook.jpashop.repository.member.query.MemberQueryRepository;
+import jpabook.jpashop.version.Aggregate;
+import jpabook.jpashop.version.DataVersion;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 @Service
 @Transactional(readOnly = true)
@@ -15,6 +21,11 @@ import java.util.List;
 public class MemberService {
 
     private final MemberRepository memberRepository;
+    private final MemberQueryRepository memberQueryRepository;
+    private final DataVersion dataVersion;
+
+    // { 회원 데이터 버전, 회원 수 }
+    private final AtomicReference<long[]> countCache = new AtomicReference<>();
 
     /**
      * 회원가입
@@ -23,6 +34,7 @@ public class MemberService {
     public Long join(Member member){
         validateDuplicateMember(member);
         memberRepository.save(member);
+        dataVersion.bump(Aggregate.MEMBER);
         return member.getId();
     }
 
@@ -39,6 +51,32 @@ public class MemberService {
         return memberRepository.findAll();
     }
 
+    // 회원 목록 ( 필요한 컬럼만, 키셋 페이징 )
+    public List<MemberQueryDto> findMemberPage(List<String> fields, Long lastId, int limit){
+        return memberQueryRepository.findMembers(fields, lastId, limit);
+    }
+
+    // 회원 목록 스트리밍
+    public void streamMembers(List<String> fields, Consumer<MemberQueryDto> consumer){
+        memberQueryRepository.streamMembers(fields, consumer);
+    }
+
+    /**
+     * 전체 회원 수
+     * 회원 데이터 버전이 바뀌지 않았으면 count 쿼리를 다시 날리지 않음
+     */
+    public long countMembers(){
+        long version = dataVersion.current(Aggregate.MEMBER);
+        long[] cached = countCache.get();
+        if(cached != null && cached[0] == version){
+            return cached[1];
+        }
+
+        long count = memberQueryRepository.count();
+        countCache.set(new long[]{version, count});
+        return count;
+    }
+
     public Member findOne(Long memberId){
         return memberRepository.findOne(memberId);
     }
@@ -50,5 +88,6 @@ public class MemberService {
     public void update(Long id, String name) {
         Member member = memberRepository.findOne(id);
         member.setName(name);
+        dataVersion.bump(Aggregate.MEMBER);
     }
 }
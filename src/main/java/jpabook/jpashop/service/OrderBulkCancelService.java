@@ -0,0 +1,177 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.datasource.shard.ShardContext;
+import jpabook.jpashop.datasource.shard.ShardRouter;
+import jpabook.jpashop.event.OrderEvent;
+import jpabook.jpashop.event.StockDelta;
+import jpabook.jpashop.repository.OrderBulkCancelRepository;
+import jpabook.jpashop.repository.OrderCancelLine;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.stock.CatalogStock;
+import jpabook.jpashop.stock.StockLedger;
+import jpabook.jpashop.version.Aggregate;
+import jpabook.jpashop.version.DataVersion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * 주문 일괄 취소 ( 부정 주문 정리 등 )
+ * 주문을 엔티티로 읽어서 하나씩 취소하지 않고 chunk 단위로
+ * - 취소 가능한 주문만 락 ( 배송완료 검사도 쿼리에서 )
+ * - 상태 변경 update 한 번
+ * - 상품별로 합친 수량으로 재고 update 한 번씩 ( 재고 원장 사용 시 원장에 기록 )
+ * chunk 마다 별도 트랜잭션이라 중간에 실패해도 앞 chunk 는 유지되고, 다시 요청하면 남은 주문만 취소된다.
+ */
+@Slf4j
+@Service
+public class OrderBulkCancelService {
+
+    private final OrderBulkCancelRepository orderBulkCancelRepository;
+    private final TransactionTemplate chunkTx;
+    private final DataVersion dataVersion;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<StockLedger> stockLedger;
+    private final CatalogStock catalogStock;
+    private final ShardRouter router;
+    private final int chunkSize;
+
+    public OrderBulkCancelService(OrderBulkCancelRepository orderBulkCancelRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  DataVersion dataVersion,
+                                  ApplicationEventPublisher eventPublisher,
+                                  ObjectProvider<StockLedger> stockLedger,
+                                  CatalogStock catalogStock,
+                                  ObjectProvider<ShardRouter> router,
+                                  @Value("${jpashop.bulk-cancel.chunk-size:500}") int chunkSize) {
+        this.orderBulkCancelRepository = orderBulkCancelRepository;
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.chunkTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.dataVersion = dataVersion;
+        this.eventPublisher = eventPublisher;
+        this.stockLedger = stockLedger;
+        this.catalogStock = catalogStock;
+        this.router = router.getIfAvailable();
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 주문 id 로 일괄 취소
+     */
+    public BulkCancelResult cancel(List<Long> orderIds) {
+        // 주문 id 에 shard 가 들어 있으므로 shard 별로 나눠서 처리
+        Map<Integer, List<Long>> byShard = new TreeMap<>();
+        for (Long orderId : new LinkedHashSet<>(orderIds)) {
+            byShard.computeIfAbsent(router == null ? 0 : router.shardOfId(orderId), shard -> new ArrayList<>()).add(orderId);
+        }
+
+        int requested = 0;
+        int cancelled = 0;
+        for (Map.Entry<Integer, List<Long>> shard : byShard.entrySet()) {
+            List<Long> ids = shard.getValue();
+            requested += ids.size();
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + chunkSize));
+                cancelled += onShard(shard.getKey(), () -> cancelChunk(chunk));
+            }
+        }
+        log.info("주문 일괄 취소 요청 {}건, 취소 {}건", requested, cancelled);
+        return new BulkCancelResult(requested, cancelled, requested - cancelled);
+    }
+
+    /**
+     * 검색 조건 ( 회원 이름 - 정확히 일치, like 패턴 아님 ) 에 맞는 주문 상태의 주문을 모두 취소
+     */
+    public BulkCancelResult cancel(OrderSearch orderSearch) {
+        int requested = 0;
+        int cancelled = 0;
+        int shardCount = router == null ? 1 : router.getShardCount();
+        for (int shard = 0; shard < shardCount; shard++) {
+            Long afterId = 0L;
+            while (true) {
+                Long after = afterId;
+                List<Long> chunk = onShard(shard, () -> chunkTx.execute(
+                        status -> orderBulkCancelRepository.findCandidates(orderSearch, after, chunkSize)));
+                if (chunk == null || chunk.isEmpty()) {
+                    break;
+                }
+                requested += chunk.size();
+                cancelled += onShard(shard, () -> cancelChunk(chunk));
+                if (chunk.size() < chunkSize) {
+                    break;
+                }
+                afterId = chunk.get(chunk.size() - 1);
+            }
+        }
+        log.info("주문 일괄 취소 검색 {}건, 취소 {}건", requested, cancelled);
+        return new BulkCancelResult(requested, cancelled, requested - cancelled);
+    }
+
+    private int cancelChunk(List<Long> orderIds) {
+        Integer cancelled = chunkTx.execute(status -> {
+            List<Long> cancellable = orderBulkCancelRepository.lockCancellable(orderIds);
+            if (cancellable.isEmpty()) {
+                return 0;
+            }
+
+            // 주문별 ( 이벤트 ), 상품별 ( 재고 복구 ) 로 수량을 모음
+            Map<Long, List<StockDelta>> deltasByOrder = new LinkedHashMap<>();
+            Map<Long, OrderCancelLine> firstLineByOrder = new LinkedHashMap<>();
+            Map<Long, Integer> quantityByItem = new TreeMap<>();
+            for (OrderCancelLine line : orderBulkCancelRepository.findLines(cancellable)) {
+                deltasByOrder.computeIfAbsent(line.getOrderId(), id -> new ArrayList<>())
+                        .add(new StockDelta(line.getItemId(), line.getCount()));
+                firstLineByOrder.putIfAbsent(line.getOrderId(), line);
+                quantityByItem.merge(line.getItemId(), line.getCount(), Integer::sum);
+            }
+
+            orderBulkCancelRepository.markCancelled(cancellable);
+
+            // 재고 복구 ( 상품 id 순서 - 주문과 같은 락 순서 )
+            // 카탈로그 shard 가 아닌 shard 의 주문이면 chunk 커밋 후 카탈로그 shard 에 복구
+            StockLedger ledger = stockLedger.getIfAvailable();
+            if (catalogStock.isRemote()) {
+                deltasByOrder.forEach(catalogStock::releaseOnCommit);
+            } else if (ledger == null) {
+                quantityByItem.forEach(orderBulkCancelRepository::addStock);
+            } else {
+                deltasByOrder.forEach(ledger::release);
+            }
+
+            dataVersion.bump(Aggregate.ORDER, Aggregate.ITEM);
+            for (Map.Entry<Long, List<StockDelta>> entry : deltasByOrder.entrySet()) {
+                OrderCancelLine line = firstLineByOrder.get(entry.getKey());
+                eventPublisher.publishEvent(OrderEvent.cancelled(
+                        entry.getKey(), line.getMemberId(), line.getOrderDate(), entry.getValue()));
+            }
+            return cancellable.size();
+        });
+        return cancelled == null ? 0 : cancelled;
+    }
+
+    // sharding 을 사용하면 해당 shard 에 묶어서 실행 ( 트랜잭션이 시작되기 전에 정해져야 함 )
+    private <T> T onShard(int shard, Supplier<T> task) {
+        if (router == null || ShardContext.isBound()) {
+            return task.get();
+        }
+        ShardContext.bind(shard);
+        try {
+            return task.get();
+        } finally {
+            ShardContext.clear();
+        }
+    }
+}
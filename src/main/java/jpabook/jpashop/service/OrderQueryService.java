@@ -1,5 +1,7 @@
 package jpabook.jpashop.service;
 
+import jpabook.jpashop.datasource.pool.ConnectionPool;
+import jpabook.jpashop.datasource.pool.PoolType;
 import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
@@ -18,6 +20,7 @@ import static java.util.stream.Collectors.toList;
 
 @Service
 @Transactional(readOnly = true)
+@ConnectionPool(PoolType.REPORTING)
 @RequiredArgsConstructor
 public class OrderQueryService {
 
@@ -1,19 +1,34 @@
 package jpabook.jpashop.service;
 
+import jpabook.jpashop.datasource.pool.ConnectionPool;
+import jpabook.jpashop.datasource.pool.PoolType;
 import jpabook.jpashop.domain.Delivery;
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
 import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.event.OrderEvent;
 import jpabook.jpashop.repository.ItemRepository;
 import jpabook.jpashop.repository.MemberRepository;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.retry.RetryOnConflict;
+import jpabook.jpashop.stock.CatalogStock;
+import jpabook.jpashop.stock.StockLedger;
+import jpabook.jpashop.version.Aggregate;
+import jpabook.jpashop.version.DataVersion;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 @Transactional(readOnly = true)
@@ -23,29 +38,79 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final MemberRepository memberRepository;
     private final ItemRepository itemRepository;
+    private final DataVersion dataVersion;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<StockLedger> stockLedger;
+    private final CatalogStock catalogStock;
 
     /**
      * 주문
+     * 같은 상품을 동시에 주문해서 상품 version 이 충돌하면 새 트랜잭션으로 다시 시도 ( @RetryOnConflict )
      */
     @Transactional
+    @ConnectionPool(PoolType.CHECKOUT)
+    @RetryOnConflict
     public Long order(Long memberId, Long itemId, int count){
+        return order(memberId, Collections.singletonMap(itemId, count));
+    }
+
+    /**
+     * 여러 상품 주문 ( 장바구니 결제 ). 주문 하나에 주문상품 여러 개, 트랜잭션 하나
+     * @param itemCounts 상품 id -> 수량
+     */
+    @Transactional
+    @ConnectionPool(PoolType.CHECKOUT)
+    @RetryOnConflict
+    public Long order(Long memberId, Map<Long, Integer> itemCounts){
+        if (itemCounts.isEmpty()) {
+            throw new IllegalArgumentException("주문할 상품이 없습니다.");
+        }
 
         // 엔티티 조회
+        // 트랜잭션 안에서는 BatchLoader 를 쓰지 않음 ( 로더 스레드가 커넥션을 하나 더 잡아야 해서 풀이 고갈될 수 있음 )
         Member member = memberRepository.findOne(memberId);
-        Item item = itemRepository.findOne(itemId);
+        if (member == null) {
+            throw new IllegalArgumentException("회원이 없습니다. memberId=" + memberId);
+        }
+        // 상품은 IN 쿼리 한번으로 조회 ( sharding 사용 시 회원 shard 의 상품 복제본 )
+        Map<Long, Item> items = new HashMap<>();
+        for (Item item : itemRepository.findAllById(itemCounts.keySet())) {
+            items.put(item.getId(), item);
+        }
 
         // 배송정보 생성
         Delivery delivery = new Delivery();
         delivery.setAddress(member.getAddress());
 
-        // 주문상품 생성
-        OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), count);
+        // 주문상품 생성 ( 재고 원장 사용 시, 카탈로그 shard 가 아닌 shard 의 주문이면 상품 row 는 변경하지 않음 )
+        // 상품 update 는 flush 때 id 순서로 실행 ( id 순 조회 + hibernate.order_updates ) 되어 동시에 여러 상품을 주문해도 락 순서가 같음
+        StockLedger ledger = stockLedger.getIfAvailable();
+        boolean remoteStock = catalogStock.isRemote();
+        List<OrderItem> orderItems = new ArrayList<>();
+        for (Map.Entry<Long, Integer> line : new TreeMap<>(itemCounts).entrySet()) {
+            Item item = items.get(line.getKey());
+            if (item == null) {
+                throw new IllegalArgumentException("상품이 없습니다. itemId=" + line.getKey());
+            }
+            orderItems.add(ledger == null && !remoteStock
+                    ? OrderItem.createOrderItem(item, item.getPrice(), line.getValue())
+                    : OrderItem.createOrderItemWithoutStock(item, item.getPrice(), line.getValue()));
+        }
 
         // 주문 생성
-        Order order = Order.createOrder(member, delivery, orderItem);
+        Order order = Order.createOrder(member, delivery, orderItems.toArray(new OrderItem[0]));
 
         // 주문 저장
         orderRepository.save(order);
+        OrderEvent event = OrderEvent.created(order);
+        if (remoteStock) {
+            catalogStock.reserve(order.getId(), event.getStockDeltas());
+        } else if (ledger != null) {
+            ledger.reserve(order);
+        }
+        // 재고도 변경되므로 상품 버전도 같이 올림
+        dataVersion.bump(Aggregate.ORDER, Aggregate.ITEM);
+        eventPublisher.publishEvent(event);
 
         return order.getId();
 
@@ -55,13 +120,29 @@ public class OrderService {
      * 주문 취소
      */
     @Transactional
+    @ConnectionPool(PoolType.CHECKOUT)
+    @RetryOnConflict
     public void cancelOrder(Long orderId){
 
         // 주문 엔티티 조회
         Order order = orderRepository.finOne(orderId);
 
-        //주문 취소
-        order.cancel();
+        //주문 취소 ( 카탈로그 shard 가 아닌 shard 의 주문이면 재고는 커밋 후 카탈로그 shard 에 복구 )
+        StockLedger ledger = stockLedger.getIfAvailable();
+        boolean remoteStock = catalogStock.isRemote();
+        if (ledger == null && !remoteStock) {
+            order.cancel();
+        } else {
+            order.markCancelled();
+        }
+        OrderEvent event = OrderEvent.cancelled(order);
+        if (remoteStock) {
+            catalogStock.releaseOnCommit(orderId, event.getStockDeltas());
+        } else if (ledger != null) {
+            ledger.release(order);
+        }
+        dataVersion.bump(Aggregate.ORDER, Aggregate.ITEM);
+        eventPublisher.publishEvent(event);
     }
 
     // 검색
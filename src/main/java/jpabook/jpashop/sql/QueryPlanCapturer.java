@@ -0,0 +1,121 @@
+package jpabook.jpashop.sql;
+
+import jpabook.jpashop.datasource.shard.ShardContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 느린 sql 의 H2 EXPLAIN 실행 계획을 fingerprint 당 한번만 남김
+ * 요청 스레드를 막지 않도록 별도 스레드에서 실행. 대기열이 차면 버림 ( 같은 sql 이 다시 느리면 재시도 )
+ * DataSource 는 p6spy 로 감싼 것을 쓰므로 EXPLAIN 은 집계에서 제외한다.
+ * 라우팅 DataSource 를 거치므로 느린 sql 을 실행한 스레드의 shard / readOnly 여부를 그대로 옮겨서 같은 대상에서 실행하고,
+ * replica 가 여러 개면 다른 replica 로 갈 수 있으므로 계획 첫 줄에 실행 노드( 와 EXPLAIN 노드 ) url 을 남긴다.
+ */
+@Slf4j
+public class QueryPlanCapturer implements AutoCloseable {
+
+    private static final String PENDING = "";
+
+    private final ObjectProvider<DataSource> dataSource;
+    private final Map<String, String> plans = new ConcurrentHashMap<>();
+    private final int maxPlans;
+    private final ExecutorService executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(100), r -> {
+        Thread thread = new Thread(r, "sql-explain");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public QueryPlanCapturer(ObjectProvider<DataSource> dataSource, int maxPlans) {
+        this.dataSource = dataSource;
+        this.maxPlans = maxPlans;
+    }
+
+    static boolean isExplain(String sql) {
+        return sql.regionMatches(true, 0, "explain", 0, 7);
+    }
+
+    void captureOnce(String fingerprint, String sqlWithValues, Connection executedOn) {
+        if (!isExplainable(sqlWithValues) || plans.size() >= maxPlans || plans.putIfAbsent(fingerprint, PENDING) != null) {
+            return;
+        }
+        // 라우팅 정보는 스레드 로컬이므로 실행한 스레드에서 꺼내 둠
+        Integer shard = ShardContext.current();
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        String node = url(executedOn);
+        try {
+            executor.execute(() -> explain(fingerprint, sqlWithValues, shard, readOnly, node));
+        } catch (RejectedExecutionException e) {
+            plans.remove(fingerprint, PENDING);
+        }
+    }
+
+    private void explain(String fingerprint, String sqlWithValues, Integer shard, boolean readOnly, String node) {
+        if (shard != null) {
+            ShardContext.bind(shard);
+        }
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+        try (Connection connection = dataSource.getObject().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("EXPLAIN " + sqlWithValues)) {
+            StringBuilder plan = new StringBuilder();
+            String explainedOn = url(connection);
+            plan.append("-- node: ").append(node == null ? explainedOn : node);
+            if (node != null && explainedOn != null && !node.equals(explainedOn)) {
+                plan.append(" ( explain: ").append(explainedOn).append(" )");
+            }
+            plan.append('\n');
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+            plans.put(fingerprint, plan.toString().trim());
+        } catch (Exception e) {
+            // 실패하면 다음에 다시 느릴 때 재시도
+            plans.remove(fingerprint, PENDING);
+            log.debug("explain failed. sql={}", fingerprint, e);
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+            ShardContext.clear();
+        }
+    }
+
+    private static String url(Connection connection) {
+        if (connection == null) {
+            return null;
+        }
+        try {
+            return connection.getMetaData().getURL();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    String plan(String fingerprint) {
+        String plan = plans.get(fingerprint);
+        return plan == null || plan.isEmpty() ? null : plan;
+    }
+
+    private static boolean isExplainable(String sql) {
+        String lower = sql.trim().toLowerCase(Locale.ROOT);
+        return lower.startsWith("select") || lower.startsWith("update") || lower.startsWith("delete");
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
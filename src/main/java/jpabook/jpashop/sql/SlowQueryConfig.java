@@ -0,0 +1,53 @@
+package jpabook.jpashop.sql;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * sql fingerprint 집계 + 느린 쿼리 실행 계획 ( jpashop.slow-query.enabled=true, --spring.profiles.active=slow-query )
+ * p6spy starter 가 JdbcEventListener 빈을 자동으로 등록한다.
+ * 조회 : /api/admin/slow-queries
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "jpashop.slow-query", name = "enabled", havingValue = "true")
+public class SlowQueryConfig {
+
+    @Bean(destroyMethod = "close")
+    public QueryPlanCapturer queryPlanCapturer(ObjectProvider<DataSource> dataSource,
+                                               @Value("${jpashop.slow-query.max-plans:500}") int maxPlans) {
+        return new QueryPlanCapturer(dataSource, maxPlans);
+    }
+
+    @Bean
+    public SqlFingerprintListener sqlFingerprintListener(QueryPlanCapturer queryPlanCapturer,
+                                                         @Value("${jpashop.slow-query.threshold-millis:100}") long thresholdMillis,
+                                                         @Value("${jpashop.slow-query.max-fingerprints:2000}") int maxFingerprints) {
+        return new SqlFingerprintListener(thresholdMillis, maxFingerprints, queryPlanCapturer);
+    }
+
+    @Bean
+    public WindowRotator slowQueryWindowRotator(SqlFingerprintListener sqlFingerprintListener) {
+        return new WindowRotator(sqlFingerprintListener);
+    }
+
+    // window-minutes 마다 집계를 새로 시작 ( 직전 window 는 ?window=previous 로 조회 )
+    public static class WindowRotator {
+        private final SqlFingerprintListener listener;
+
+        WindowRotator(SqlFingerprintListener listener) {
+            this.listener = listener;
+        }
+
+        @Scheduled(fixedRateString = "#{${jpashop.slow-query.window-minutes:60} * 60000}",
+                initialDelayString = "#{${jpashop.slow-query.window-minutes:60} * 60000}")
+        public void rotate() {
+            listener.rotate();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package jpabook.jpashop.sql;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * p6spy 이벤트 -> fingerprint 별 누적 ( 실행 수, 전체 / 최대 시간, 조회 / 변경 row 수 )
+ * 누적은 window 단위로 새로 시작 ( rotate ). 이전 window 하나는 조회용으로 유지
+ * threshold 보다 느린 sql 은 fingerprint 당 한번 EXPLAIN 실행 계획을 남김 ( QueryPlanCapturer )
+ */
+public class SqlFingerprintListener extends SimpleJdbcEventListener {
+
+    private static final String OTHER = "(other)";
+
+    private final long thresholdNanos;
+    private final int maxFingerprints;
+    private final QueryPlanCapturer planCapturer;
+
+    private final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+    private volatile Window current = new Window();
+    private volatile Window previous = new Window();
+
+    public SqlFingerprintListener(long thresholdMillis, int maxFingerprints, QueryPlanCapturer planCapturer) {
+        this.thresholdNanos = thresholdMillis * 1_000_000;
+        this.maxFingerprints = maxFingerprints;
+        this.planCapturer = planCapturer;
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        String sql = statementInformation.getSql();
+        if (sql == null || sql.isEmpty() || QueryPlanCapturer.isExplain(sql)) {
+            return;
+        }
+        String fingerprint = fingerprintOf(sql);
+        stats(fingerprint).record(timeElapsedNanos, e != null);
+
+        if (timeElapsedNanos >= thresholdNanos && e == null) {
+            planCapturer.captureOnce(fingerprint, statementInformation.getSqlWithValues(),
+                    statementInformation.getConnectionInformation().getConnection());
+        }
+    }
+
+    @Override
+    public void onAfterExecuteUpdate(PreparedStatementInformation statementInformation, long timeElapsedNanos, int rowCount, SQLException e) {
+        super.onAfterExecuteUpdate(statementInformation, timeElapsedNanos, rowCount, e);     // -> onAfterAnyExecute
+        addRows(statementInformation, rowCount);
+    }
+
+    @Override
+    public void onAfterExecuteUpdate(StatementInformation statementInformation, long timeElapsedNanos, String sql, int rowCount, SQLException e) {
+        super.onAfterExecuteUpdate(statementInformation, timeElapsedNanos, sql, rowCount, e);
+        addRows(statementInformation, rowCount);
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext, SQLException e) {
+        if (hasNext) {
+            addRows(resultSetInformation.getStatementInformation(), 1);
+        }
+    }
+
+    /**
+     * sort : total, max, avg, count
+     */
+    public List<SqlStatsDto> top(String sort, int limit, boolean previousWindow) {
+        ToDoubleFunction<SqlStatsDto> key;
+        switch (sort) {
+            case "total": key = SqlStatsDto::getTotalMillis; break;
+            case "max": key = SqlStatsDto::getMaxMillis; break;
+            case "avg": key = SqlStatsDto::getAvgMillis; break;
+            case "count": key = SqlStatsDto::getCount; break;
+            default: throw new IllegalArgumentException("sort 는 total, max, avg, count 중 하나입니다. sort=" + sort);
+        }
+
+        List<SqlStatsDto> result = new ArrayList<>();
+        for (SqlStats stats : (previousWindow ? previous : current).stats.values()) {
+            result.add(stats.toDto(planCapturer.plan(stats.fingerprint)));
+        }
+        result.sort(Comparator.comparingDouble(key).reversed());
+        return result.subList(0, Math.min(limit, result.size()));
+    }
+
+    public long windowStartedAt(boolean previousWindow) {
+        return (previousWindow ? previous : current).startedAt;
+    }
+
+    // 새 window 시작
+    public void rotate() {
+        previous = current;
+        current = new Window();
+    }
+
+    private void addRows(StatementInformation statementInformation, int rows) {
+        String sql = statementInformation.getSql();
+        if (rows <= 0 || sql == null || sql.isEmpty() || QueryPlanCapturer.isExplain(sql)) {
+            return;
+        }
+        stats(fingerprintOf(sql)).rows.add(rows);
+    }
+
+    // prepared statement 의 sql 은 종류가 많지 않으므로 정규화 결과를 캐시 ( row 마다 정규화하지 않도록 )
+    private String fingerprintOf(String sql) {
+        String fingerprint = fingerprints.get(sql);
+        if (fingerprint == null) {
+            if (fingerprints.size() >= maxFingerprints * 2) {
+                fingerprints.clear();
+            }
+            fingerprint = SqlNormalizer.normalize(sql);
+            fingerprints.put(sql, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    // fingerprint 수가 maxFingerprints 를 넘으면 ( 값이 sql 에 직접 들어가는 쿼리 등 ) 하나로 묶음
+    private SqlStats stats(String fingerprint) {
+        Map<String, SqlStats> stats = current.stats;
+        SqlStats existing = stats.get(fingerprint);
+        if (existing != null) {
+            return existing;
+        }
+        if (stats.size() >= maxFingerprints) {
+            return stats.computeIfAbsent(OTHER, SqlStats::new);
+        }
+        return stats.computeIfAbsent(fingerprint, SqlStats::new);
+    }
+
+    private static class Window {
+        final long startedAt = System.currentTimeMillis();
+        final Map<String, SqlStats> stats = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,26 @@
+package jpabook.jpashop.sql;
+
+import java.util.regex.Pattern;
+
+/**
+ * sql 의 값 부분을 ? 로 바꿔서 같은 모양의 쿼리를 하나로 묶음
+ * 'abc' -> ?, 123 -> ?, in (?, ?, ?) -> in (?), 공백 정리, 소문자
+ */
+public final class SqlNormalizer {
+
+    private static final Pattern STRING = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private SqlNormalizer() {
+    }
+
+    public static String normalize(String sql) {
+        String normalized = STRING.matcher(sql).replaceAll("?");
+        normalized = NUMBER.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("(?)");
+        normalized = SPACES.matcher(normalized).replaceAll(" ");
+        return normalized.trim().toLowerCase();
+    }
+}
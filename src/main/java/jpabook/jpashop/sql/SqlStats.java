@@ -0,0 +1,43 @@
+package jpabook.jpashop.sql;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * fingerprint( 정규화된 sql ) 하나의 누적 값
+ */
+class SqlStats {
+
+    final String fingerprint;
+    final LongAdder count = new LongAdder();
+    final LongAdder totalNanos = new LongAdder();
+    final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    final LongAdder rows = new LongAdder();
+    final LongAdder errors = new LongAdder();
+    final AtomicLong lastSeenMillis = new AtomicLong();
+
+    SqlStats(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    void record(long elapsedNanos, boolean error) {
+        count.increment();
+        totalNanos.add(elapsedNanos);
+        maxNanos.accumulate(elapsedNanos);
+        if (error) {
+            errors.increment();
+        }
+        lastSeenMillis.set(System.currentTimeMillis());
+    }
+
+    SqlStatsDto toDto(String plan) {
+        long n = count.sum();
+        long total = totalNanos.sum();
+        return new SqlStatsDto(Integer.toHexString(fingerprint.hashCode()), fingerprint, n,
+                total / 1_000_000.0,
+                n == 0 ? 0 : total / 1_000_000.0 / n,
+                maxNanos.get() / 1_000_000.0,
+                rows.sum(), errors.sum(), plan);
+    }
+}
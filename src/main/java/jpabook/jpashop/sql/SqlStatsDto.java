@@ -0,0 +1,21 @@
+package jpabook.jpashop.sql;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SqlStatsDto {
+
+    private String id;
+    private String fingerprint;
+    private long count;
+    private double totalMillis;
+    private double avgMillis;
+    private double maxMillis;
+    private long rows;
+    private long errors;
+    private String plan;    // 느린 쿼리만 ( EXPLAIN 결과 )
+}
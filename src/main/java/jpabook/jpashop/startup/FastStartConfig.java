@@ -0,0 +1,36 @@
+package jpabook.jpashop.startup;
+
+import jpabook.jpashop.archive.OrderArchiveJob;
+import jpabook.jpashop.bestseller.BestSellerService;
+import jpabook.jpashop.catalog.CatalogService;
+import jpabook.jpashop.delivery.DeliveryStatusBatchJob;
+import jpabook.jpashop.hot.HotItemTracker;
+import jpabook.jpashop.datasource.replication.ReplicaHealthChecker;
+import jpabook.jpashop.journal.OrderJournal;
+import jpabook.jpashop.sql.SlowQueryConfig;
+import jpabook.jpashop.stock.StockLedgerCompactor;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * spring.main.lazy-initialization=true ( fast-start 프로파일 ) 일 때도 기동 시 바로 만들어야 하는 빈
+ * 스케줄 작업은 빈이 만들어질 때 등록되고, 저널은 기동 시 복구해야 첫 주문이 기다리지 않음
+ */
+@Configuration
+public class FastStartConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                ReplicaHealthChecker.class,
+                OrderArchiveJob.class,
+                DeliveryStatusBatchJob.class,
+                CatalogService.class,
+                OrderJournal.class,
+                StockLedgerCompactor.class,
+                HotItemTracker.class,
+                BestSellerService.class,
+                SlowQueryConfig.WindowRotator.class);
+    }
+}
@@ -0,0 +1,80 @@
+package jpabook.jpashop.startup;
+
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.catalog.CatalogQueryRepository;
+import jpabook.jpashop.repository.member.query.MemberQueryRepository;
+import jpabook.jpashop.repository.order.history.MemberOrderHistoryRepository;
+import jpabook.jpashop.repository.order.list.OrderListQueryRepository;
+import jpabook.jpashop.repository.typeahead.TypeaheadQueryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 준비 완료( ApplicationReadyEvent ) 전에 자주 쓰는 조회 repository 메서드를 한 번씩 호출해서
+ * Hibernate 쿼리 플랜 캐시( JPQL 파싱 결과 )와 커넥션 풀을 채움. 첫 요청이 파싱 비용을 내지 않도록 함
+ *
+ * 결과가 없거나 한 건만 나오는 값으로 호출 ( id 0, limit 1 )
+ * 같은 JPQL 문자열이면 파라미터 값과 관계없이 플랜이 재사용됨
+ * 쓰기 쿼리는 부수 효과가 있으므로 대상이 아님. 화면 / API 조회 경로가 바뀌면 여기 목록도 함께 수정
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "jpashop.startup", name = "prewarm-queries", havingValue = "true")
+@RequiredArgsConstructor
+public class QueryPlanPrewarmer implements ApplicationRunner {
+
+    private static final Long NONE = 0L;     // 없는 id ( shard 0 으로 라우팅됨 )
+
+    private final MemberRepository memberRepository;
+    private final ItemRepository itemRepository;
+    private final OrderRepository orderRepository;
+    private final MemberQueryRepository memberQueryRepository;
+    private final OrderListQueryRepository orderListQueryRepository;
+    private final MemberOrderHistoryRepository memberOrderHistoryRepository;
+    private final TypeaheadQueryRepository typeaheadQueryRepository;
+    private final CatalogQueryRepository catalogQueryRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        int prepared = 0;
+        Map<String, Runnable> queries = queries();
+        for (Map.Entry<String, Runnable> query : queries.entrySet()) {
+            try {
+                query.getValue().run();
+                prepared++;
+            } catch (RuntimeException e) {
+                // 미리 준비하지 못해도 첫 요청에서 파싱되므로 기동은 계속
+                log.warn("skip prewarm: {}", query.getKey(), e);
+            }
+        }
+        log.info("query plan prewarm. prepared={}, failed={}, {}ms",
+                prepared, queries.size() - prepared, System.currentTimeMillis() - start);
+    }
+
+    private Map<String, Runnable> queries() {
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("MemberRepository.findByName", () -> memberRepository.findByName(""));
+        queries.put("ItemRepository.findAllById", () -> itemRepository.findAllById(List.of(NONE)));
+        queries.put("OrderRepository.findAllWithMemberDelivery", () -> orderRepository.findAllWithMemberDelivery(0, 1));
+        queries.put("MemberQueryRepository.findMembers", () -> memberQueryRepository.findMembers(List.of("name"), null, 1));
+        queries.put("OrderListQueryRepository.findPage", () -> orderListQueryRepository.findPage(new OrderSearch(), PageRequest.of(0, 1)));
+        queries.put("MemberOrderHistoryRepository.findPage", () -> memberOrderHistoryRepository.findPage(NONE, null, null, 1));
+        queries.put("TypeaheadQueryRepository.findMembers", () -> typeaheadQueryRepository.findMembers("", 1));
+        queries.put("TypeaheadQueryRepository.findItems", () -> typeaheadQueryRepository.findItems("", 1));
+        queries.put("CatalogQueryRepository.findItems", () -> catalogQueryRepository.findItems(List.of(NONE)));
+        return queries;
+    }
+}
@@ -0,0 +1,57 @@
+package jpabook.jpashop.startup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.*;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 기동 단계별 소요 시간 기록
+ * jvm ( JVM 시작 ~ main ) / environment / context-prepare / refresh ( 빈 생성, JPA 초기화 ) / runners ( 쿼리 예열 등 ) / total
+ * SpringApplication 에 직접 등록해야 ApplicationStartingEvent 부터 받을 수 있음
+ */
+@Slf4j
+public class StartupTimingListener implements ApplicationListener<ApplicationEvent> {
+
+    private final long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private final Map<String, Long> marks = new LinkedHashMap<>();
+
+    @Override
+    public void onApplicationEvent(ApplicationEvent event) {
+        if (event instanceof ApplicationStartingEvent) {
+            mark("starting");
+        } else if (event instanceof ApplicationEnvironmentPreparedEvent) {
+            mark("environment");
+        } else if (event instanceof ApplicationPreparedEvent) {
+            mark("context-prepare");
+        } else if (event instanceof ContextRefreshedEvent) {
+            mark("refresh");
+        } else if (event instanceof ApplicationStartedEvent) {
+            mark("started");
+        } else if (event instanceof ApplicationReadyEvent) {
+            mark("runners");
+            report();
+        }
+    }
+
+    private synchronized void mark(String phase) {
+        marks.putIfAbsent(phase, System.currentTimeMillis());
+    }
+
+    private synchronized void report() {
+        StringBuilder sb = new StringBuilder("startup phases:");
+        long previous = jvmStart;
+        for (Map.Entry<String, Long> entry : marks.entrySet()) {
+            String phase = entry.getKey().equals("starting") ? "jvm" : entry.getKey();
+            sb.append(' ').append(phase).append('=').append(entry.getValue() - previous).append("ms");
+            previous = entry.getValue();
+        }
+        sb.append(" total=").append(previous - jvmStart).append("ms");
+        log.info(sb.toString());
+    }
+}
@@ -0,0 +1,87 @@
+package jpabook.jpashop.stock;
+
+import jpabook.jpashop.datasource.shard.CatalogShard;
+import jpabook.jpashop.event.StockDelta;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 카탈로그 shard( 0 번 )가 아닌 shard 의 주문 / 취소에서 재고 변경
+ * 재고는 카탈로그 shard 에만 있으므로 주문 shard 의 트랜잭션과 따로 커밋된다.
+ * - 주문 : 카탈로그 shard 에서 먼저 차감하고 커밋, 주문 트랜잭션이 롤백되면 되돌림
+ * - 취소 : 주문 트랜잭션이 커밋된 뒤 복구
+ * 두 단계 사이에 서버가 종료되면 재고가 덜 남을 수는 있어도 초과 판매는 없음
+ * 재고 원장 사용 시 원장 기록도 카탈로그 shard 에 남김
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogStock {
+
+    private final CatalogShard catalogShard;
+    private final ItemRepository itemRepository;
+    private final ObjectProvider<StockLedger> stockLedger;
+
+    // 재고를 카탈로그 shard 에서 따로 바꿔야 하는지
+    public boolean isRemote() {
+        return catalogShard.isRemote();
+    }
+
+    /**
+     * @param deltas 상품별 -수량 ( OrderEvent.created 와 같음 ). 재고가 부족하면 NotEnoughStockException
+     */
+    public void reserve(Long orderId, List<StockDelta> deltas) {
+        catalogShard.execute(() -> {
+            StockLedger ledger = stockLedger.getIfAvailable();
+            if (ledger != null) {
+                ledger.reserve(orderId, deltas);
+                return null;
+            }
+            // 상품 id 순서로 차감 ( 주문끼리 락 순서가 같도록 )
+            for (StockDelta delta : byItemId(deltas)) {
+                if (!itemRepository.removeStock(delta.getItemId(), -delta.getDelta())) {
+                    throw new NotEnoughStockException("need more stock");
+                }
+            }
+            return null;
+        });
+        catalogShard.onRollback(() -> release(orderId, negate(deltas)));
+    }
+
+    /**
+     * @param deltas 상품별 +수량 ( OrderEvent.cancelled 와 같음 )
+     */
+    public void releaseOnCommit(Long orderId, List<StockDelta> deltas) {
+        catalogShard.onCommit(() -> release(orderId, deltas));
+    }
+
+    private void release(Long orderId, List<StockDelta> deltas) {
+        catalogShard.execute(() -> {
+            StockLedger ledger = stockLedger.getIfAvailable();
+            if (ledger != null) {
+                ledger.release(orderId, deltas);
+            } else {
+                byItemId(deltas).forEach(delta -> itemRepository.addStock(delta.getItemId(), delta.getDelta()));
+            }
+            return null;
+        });
+    }
+
+    private List<StockDelta> byItemId(List<StockDelta> deltas) {
+        return deltas.stream()
+                .sorted(Comparator.comparing(StockDelta::getItemId))
+                .collect(Collectors.toList());
+    }
+
+    private List<StockDelta> negate(List<StockDelta> deltas) {
+        return deltas.stream()
+                .map(delta -> new StockDelta(delta.getItemId(), -delta.getDelta()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,95 @@
+package jpabook.jpashop.stock;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.StockLedgerEntry;
+import jpabook.jpashop.event.StockDelta;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.StockLedgerRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 재고 원장 ( jpashop.stock.ledger.enabled=true )
+ * 주문 / 취소 시 상품 row 를 update 하지 않고 stock_ledger 에 insert 만 한다. ( 상품 version 충돌 없음 )
+ * 상품 재고에는 StockLedgerCompactor 가 주기적으로 합친다.
+ *
+ * 초과 판매 방지 : 차감 전에 상품 row 를 select ... for update 로 잠그고 합친 재고 + 원장 합계를 DB 에서 다시 읽어 확인
+ * 같은 상품의 차감은 이 확인부터 커밋까지만 한 줄로 서므로 서버가 여러 대여도 초과 판매가 없다.
+ * 잠금은 주문 트랜잭션의 마지막 단계( 주문 저장 후 )에서 잡으므로 짧게 유지됨. 취소( 재고 증가 )는 잠그지 않음
+ */
+@Component
+@ConditionalOnProperty(prefix = "jpashop.stock.ledger", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class StockLedger {
+
+    private final StockLedgerRepository stockLedgerRepository;
+
+    // 주문 상품별 차감 기록. 재고가 부족하면 NotEnoughStockException
+    public void reserve(Order order) {
+        List<StockDelta> deltas = new ArrayList<>();
+        for (OrderItem orderItem : order.getOrderItems()) {
+            deltas.add(new StockDelta(orderItem.getItem().getId(), -orderItem.getCount()));
+        }
+        reserve(order.getId(), deltas);
+    }
+
+    // 엔티티 없이 상품별 수량만 ( deltas 는 상품별 -수량, 다른 shard 의 주문 )
+    public void reserve(Long orderId, List<StockDelta> deltas) {
+        // 상품 id 순서로 잠금 ( 여러 상품 주문끼리 락 순서가 같도록 )
+        List<StockDelta> sorted = deltas.stream()
+                .sorted(Comparator.comparing(StockDelta::getItemId))
+                .collect(Collectors.toList());
+        for (StockDelta delta : sorted) {
+            Long itemId = delta.getItemId();
+            int count = -delta.getDelta();
+
+            stockLedgerRepository.lockItem(itemId);
+            if (stockLedgerRepository.available(itemId) < count) {
+                throw new NotEnoughStockException("need more stock");
+            }
+            stockLedgerRepository.save(StockLedgerEntry.of(itemId, orderId, -count));
+        }
+    }
+
+    // 주문 취소 기록
+    public void release(Order order) {
+        for (OrderItem orderItem : order.getOrderItems()) {
+            release(order.getId(), orderItem.getItem().getId(), orderItem.getCount());
+        }
+    }
+
+    // 일괄 취소용 ( 엔티티 없이 상품별 수량만 )
+    public void release(Long orderId, List<StockDelta> deltas) {
+        for (StockDelta delta : deltas) {
+            release(orderId, delta.getItemId(), delta.getDelta());
+        }
+    }
+
+    private void release(Long orderId, Long itemId, int count) {
+        stockLedgerRepository.save(StockLedgerEntry.of(itemId, orderId, count));
+    }
+
+    public int available(Long itemId) {
+        return stockLedgerRepository.available(itemId);
+    }
+
+    /**
+     * 상품 수정으로 재고를 직접 지정하면 가용 재고가 그 값이 되도록 차이만큼 보정 기록을 남김
+     * 기존 기록은 지우지 않음 ( 다른 주문의 기록까지 지워져서 팔린 재고가 되살아나지 않도록 )
+     * 잠근 뒤에 읽으므로 확인을 통과한 주문은 모두 커밋된 뒤의 값 기준
+     */
+    public void reset(Long itemId, int stockQuantity) {
+        stockLedgerRepository.lockItem(itemId);
+        int delta = stockQuantity - stockLedgerRepository.available(itemId);
+        if (delta != 0) {
+            stockLedgerRepository.save(StockLedgerEntry.of(itemId, null, delta));
+        }
+    }
+}
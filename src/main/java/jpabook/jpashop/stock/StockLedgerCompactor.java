@@ -0,0 +1,59 @@
+package jpabook.jpashop.stock;
+
+import jpabook.jpashop.catalog.CatalogCache;
+import jpabook.jpashop.repository.StockLedgerRepository;
+import jpabook.jpashop.version.Aggregate;
+import jpabook.jpashop.version.DataVersion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 재고 원장을 상품 재고( item.stock_quantity )에 합침
+ * 상품별로 한 트랜잭션 ( 합계 update + 기록 delete ). 상품 row update 는 주문 수와 관계없이 주기당 한번
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "jpashop.stock.ledger", name = "enabled", havingValue = "true")
+public class StockLedgerCompactor {
+
+    private final StockLedgerRepository stockLedgerRepository;
+    private final TransactionTemplate tx;
+    private final CatalogCache catalogCache;
+    private final DataVersion dataVersion;
+    private final int batchSize;
+
+    public StockLedgerCompactor(StockLedgerRepository stockLedgerRepository,
+                                PlatformTransactionManager transactionManager,
+                                CatalogCache catalogCache,
+                                DataVersion dataVersion,
+                                @Value("${jpashop.stock.ledger.compact-batch-size:1000}") int batchSize) {
+        this.stockLedgerRepository = stockLedgerRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.catalogCache = catalogCache;
+        this.dataVersion = dataVersion;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${jpashop.stock.ledger.compact-interval-millis:1000}")
+    public void compact() {
+        for (Long itemId : tx.execute(status -> stockLedgerRepository.findPendingItemIds())) {
+            try {
+                Integer folded = tx.execute(status -> stockLedgerRepository.fold(itemId, batchSize));
+                if (folded != null && folded > 0) {
+                    catalogCache.evict(itemId);
+                    dataVersion.bump(Aggregate.ITEM);
+                }
+            } catch (RuntimeException e) {
+                // 다음 주기에 다시 시도
+                log.warn("stock ledger compaction failed. itemId={}", itemId, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package jpabook.jpashop.version;
+
+/**
+ * 버전 카운터를 따로 관리하는 데이터 묶음 단위
+ */
+public enum Aggregate {
+    MEMBER, ITEM, ORDER
+}
@@ -0,0 +1,67 @@
+package jpabook.jpashop.version;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregate 별 데이터 버전 카운터
+ * 서비스에서 쓰기가 일어날 때마다 bump 하고, 조회 API 는 이 값으로 ETag 를 만든다.
+ * 카운터는 메모리에만 있으므로 서버 기동 시각(epoch)을 ETag 에 같이 넣어 재시작 후 충돌을 막는다.
+ */
+@Component
+public class DataVersion {
+
+    private final long epoch = System.currentTimeMillis();
+    private final Map<Aggregate, AtomicLong> counters = new EnumMap<>(Aggregate.class);
+
+    public DataVersion() {
+        for (Aggregate aggregate : Aggregate.values()) {
+            counters.put(aggregate, new AtomicLong());
+        }
+    }
+
+    public long current(Aggregate aggregate) {
+        return counters.get(aggregate).get();
+    }
+
+    /**
+     * 지금 한 번, 트랜잭션이 끝난 뒤 한 번 더 증가시킨다.
+     * 커밋 전에 조회된 옛날 데이터가 새 ETag 로 캐시되어도 커밋 후 ETag 가 다시 바뀌므로 결국 재조회 된다.
+     */
+    public void bump(Aggregate... aggregates) {
+        increment(aggregates);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    increment(aggregates);
+                }
+            });
+        }
+    }
+
+    /**
+     * strong ETag ( "epoch-v1.v2..." )
+     */
+    public String etag(Aggregate... aggregates) {
+        StringBuilder sb = new StringBuilder("\"").append(Long.toString(epoch, 36)).append('-');
+        for (int i = 0; i < aggregates.length; i++) {
+            if (i > 0) {
+                sb.append('.');
+            }
+            sb.append(Long.toString(current(aggregates[i]), 36));
+        }
+        return sb.append('"').toString();
+    }
+
+    private void increment(Aggregate... aggregates) {
+        for (Aggregate aggregate : aggregates) {
+            counters.get(aggregate).incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package jpabook.jpashop.version;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 렌더링된 화면( html ) 캐시
+ * 경로 별로 데이터 버전과 함께 html 바이트( + gzip 압축본 )를 저장하고, 버전이 같으면 템플릿 렌더링 없이 그대로 응답
+ * 버전은 ItemService 등의 쓰기에서 DataVersion.bump 로 올라가므로 별도 삭제 없이 다음 요청에서 다시 렌더링 된다.
+ * GET + 쿼리 스트링 없는 요청만 대상 ( 검색 / 페이지 조건이 붙으면 그대로 통과 )
+ */
+public class RenderedPageCacheFilter extends OncePerRequestFilter {
+
+    private final DataVersion dataVersion;
+    private final Aggregate[] aggregates;
+    private final Map<String, Page> pages = new ConcurrentHashMap<>();
+
+    public RenderedPageCacheFilter(DataVersion dataVersion, Aggregate... aggregates) {
+        this.dataVersion = dataVersion;
+        this.aggregates = aggregates;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || request.getQueryString() != null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI();
+        String etag = dataVersion.etag(aggregates);
+
+        Page page = pages.get(path);
+        if (page != null && page.etag.equals(etag)) {
+            if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+                return;
+            }
+            write(request, response, page);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+
+        // 렌더링 도중 데이터가 바뀌었으면 저장하지 않음
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK
+                && isHtml(wrapper.getContentType())
+                && etag.equals(dataVersion.etag(aggregates))) {
+            byte[] body = wrapper.getContentAsByteArray();
+            pages.put(path, new Page(etag, wrapper.getContentType(), body, gzip(body)));
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private void write(HttpServletRequest request, HttpServletResponse response, Page page) throws IOException {
+        response.setContentType(page.contentType);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        byte[] body = page.html;
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = page.gzip;
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static boolean isHtml(String contentType) {
+        return contentType != null && contentType.startsWith("text/html");
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static class Page {
+        private final String etag;
+        private final String contentType;
+        private final byte[] html;
+        private final byte[] gzip;
+
+        Page(String etag, String contentType, byte[] html, byte[] gzip) {
+            this.etag = etag;
+            this.contentType = contentType;
+            this.html = html;
+            this.gzip = gzip;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package jpabook.jpashop.version;
+
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 조회 요청의 If-None-Match 가 현재 데이터 버전과 같으면 컨트롤러( = 리포지토리 쿼리 )까지 가지 않고 304 로 응답
+ */
+public class VersionEtagInterceptor implements HandlerInterceptor {
+
+    private final DataVersion dataVersion;
+    private final Aggregate[] aggregates;
+
+    public VersionEtagInterceptor(DataVersion dataVersion, Aggregate... aggregates) {
+        this.dataVersion = dataVersion;
+        this.aggregates = aggregates;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return true;
+        }
+
+        // ETag 헤더 세팅 + 일치하면 304 상태 세팅
+        boolean notModified = new ServletWebRequest(request, response)
+                .checkNotModified(dataVersion.etag(aggregates));
+        return !notModified;
+    }
+}
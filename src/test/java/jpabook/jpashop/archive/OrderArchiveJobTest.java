@@ -0,0 +1,133 @@
+package jpabook.jpashop.archive;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// chunk 마다 별도 트랜잭션으로 옮기므로 테스트 데이터는 커밋되어 있어야 함 ( @Transactional 사용 안함 )
+@SpringBootTest(properties = {
+        "jpashop.archive.enabled=true",
+        "jpashop.archive.cancelled-after-days=0",
+        "jpashop.archive.chunk-size=1",
+        "jpashop.archive.pause-millis=0"
+})
+class OrderArchiveJobTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    OrderArchiveJob orderArchiveJob;
+    @Autowired
+    OrderQueryRepository orderQueryRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    public void 취소된_주문_보관() throws Exception{
+
+        // given - 취소 주문 2 건, 진행 중 주문 1 건
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long memberId = tx.execute(status -> createMember());
+        Long itemId1 = tx.execute(status -> createBook("보관 JPA 1"));
+        Long itemId2 = tx.execute(status -> createBook("보관 JPA 2"));
+
+        Long cancelledId1 = orderService.order(memberId, itemId1, 1);
+        Long cancelledId2 = orderService.order(memberId, itemId2, 2);
+        Long activeId = orderService.order(memberId, itemId1, 3);
+        orderService.cancelOrder(cancelledId1);
+        orderService.cancelOrder(cancelledId2);
+        Long deliveryId1 = tx.execute(status -> em.find(Order.class, cancelledId1).getDelivery().getId());
+
+        // when - chunk 크기 1 이라 여러 chunk 로 나눠서 옮김
+        int moved = orderArchiveJob.run();
+
+        // then - 원본 삭제 ( 자식 order_item -> orders -> delivery 순서로 지워져야 FK 오류 없음 )
+        assertEquals(2, moved);
+        assertEquals(0L, count(tx, "select count(*) from orders where order_id in (:ids)", cancelledId1, cancelledId2));
+        assertEquals(0L, count(tx, "select count(*) from order_item where order_id in (:ids)", cancelledId1, cancelledId2));
+        assertEquals(0L, count(tx, "select count(*) from delivery where delivery_id in (:ids)", deliveryId1));
+        assertEquals(OrderStatus.ORDER, tx.execute(status -> em.find(Order.class, activeId).getStatus()));
+
+        // then - 보관 테이블로 복사 ( 컬럼 값이 제자리에 들어감 )
+        assertEquals(2L, count(tx, "select count(*) from orders_archive where order_id in (:ids)" +
+                " and status = 'CANCEL' and cancel_date is not null", cancelledId1, cancelledId2));
+        assertEquals(2L, count(tx, "select count(*) from order_item_archive where order_id in (:ids)" +
+                " and order_price = 10000", cancelledId1, cancelledId2));
+        assertEquals(1L, count(tx, "select count(*) from delivery_archive where delivery_id in (:ids)" +
+                " and city = '서울' and status = 'READY'", deliveryId1));
+
+        // 다시 실행해도 옮길 것이 없음
+        assertEquals(0, orderArchiveJob.run());
+
+        // then - 보관 주문 포함 조회 ( 주문 id 키셋 페이징 )
+        List<OrderQueryDto> live = orderQueryRepository.findAllByDto_optimization();
+        assertFalse(find(live, cancelledId1).isPresent());
+        assertTrue(find(live, activeId).isPresent());
+
+        List<OrderQueryDto> firstPage = orderQueryRepository.findAllByDto_withArchived(cancelledId1 - 1, 2);
+        assertEquals(List.of(cancelledId1, cancelledId2), ids(firstPage));
+
+        OrderQueryDto archived = firstPage.get(1);
+        assertEquals(OrderStatus.CANCEL, archived.getOrderStatus());
+        assertEquals("서울", archived.getAddress().getCity());
+        assertEquals(1, archived.getOrderItems().size());
+        assertEquals("보관 JPA 2", archived.getOrderItems().get(0).getItemName());
+        assertEquals(2, archived.getOrderItems().get(0).getCount());
+
+        // 다음 페이지는 운영 테이블의 주문부터
+        List<OrderQueryDto> nextPage = orderQueryRepository.findAllByDto_withArchived(cancelledId2, 2);
+        assertEquals(activeId, nextPage.get(0).getOrderId());
+        assertEquals(3, nextPage.get(0).getOrderItems().get(0).getCount());
+    }
+
+    private List<Long> ids(List<OrderQueryDto> orders) {
+        return orders.stream().map(OrderQueryDto::getOrderId).collect(Collectors.toList());
+    }
+
+    private Optional<OrderQueryDto> find(List<OrderQueryDto> orders, Long orderId) {
+        return orders.stream().filter(o -> o.getOrderId().equals(orderId)).findFirst();
+    }
+
+    private long count(TransactionTemplate tx, String sql, Long... ids) {
+        Number count = tx.execute(status -> (Number) em.createNativeQuery(sql)
+                .setParameter("ids", List.of(ids))
+                .getSingleResult());
+        return count.longValue();
+    }
+
+    private Long createBook(String name) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(100);
+        em.persist(book);
+        return book.getId();
+    }
+
+    private Long createMember() {
+        Member member = new Member();
+        member.setName("보관 회원");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+        return member.getId();
+    }
+}
@@ -0,0 +1,208 @@
+package jpabook.jpashop.bestseller;
+
+import jpabook.jpashop.catalog.CatalogCache;
+import jpabook.jpashop.event.OrderEvent;
+import jpabook.jpashop.event.OrderEventType;
+import jpabook.jpashop.event.StockDelta;
+import jpabook.jpashop.journal.OrderJournal;
+import jpabook.jpashop.repository.bestseller.BestSellerQueryRepository;
+import jpabook.jpashop.repository.bestseller.SoldLine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BestSellerServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-01T12:00:00Z");
+    private static final LocalDateTime ORDER_DATE = LocalDateTime.ofInstant(NOW, ZoneOffset.UTC);
+
+    private final TestClock clock = new TestClock(NOW);
+
+    @Test
+    public void 구간이_지나면_빠짐() throws Exception{
+
+        // given
+        SlidingCounter counter = new SlidingCounter(60_000L, 60);
+        counter.add(1L, 3, clock.millis(), clock.millis());
+        counter.add(2L, 5, clock.millis(), clock.millis());
+        clock.advance(Duration.ofMinutes(30));
+        counter.add(1L, 4, clock.millis(), clock.millis());
+
+        // then - 7 ( 1번 ), 5 ( 2번 )
+        List<long[]> top = counter.top(10, clock.millis());
+        assertArrayEquals(new long[]{1L, 7L}, top.get(0));
+        assertArrayEquals(new long[]{2L, 5L}, top.get(1));
+
+        // 처음 것들은 한 시간이 지나면 빠짐
+        clock.advance(Duration.ofMinutes(31));
+        assertEquals(4, counter.sold(1L, clock.millis()));
+        assertEquals(0, counter.sold(2L, clock.millis()));
+        assertEquals(1, counter.top(10, clock.millis()).size());
+    }
+
+    @Test
+    public void 주문_취소_반영() throws Exception{
+
+        // given
+        BestSellerService service = new BestSellerService(repository(List.of()), new CatalogCache(), 10, clock);
+        service.rebuild();
+
+        // when
+        service.onOrderEvent(created(1L, 10L, 2));
+        service.onOrderEvent(created(2L, 20L, 5));
+        service.onOrderEvent(cancelled(2L, 20L, 5));
+        service.onOrderEvent(created(3L, 20L, 1));
+        service.refreshSnapshots();
+
+        // then
+        List<BestSellerDto> top = service.top(BestSellerWindow.HOUR, 10);
+        assertEquals(2, top.size());
+        assertEquals(10L, top.get(0).getItemId());
+        assertEquals(2, top.get(0).getSold());
+        assertEquals(20L, top.get(1).getItemId());
+        assertEquals(1, top.get(1).getSold());
+    }
+
+    @Test
+    public void 재구성중_이벤트는_중복없이_반영() throws Exception{
+
+        // given - DB 에는 1번 주문만 있음
+        BestSellerService service = new BestSellerService(
+                repository(List.of(new SoldLine(1L, ORDER_DATE, 10L, 2))), new CatalogCache(), 10, clock);
+
+        // when - 재구성 전에 도착한 이벤트
+        service.onOrderEvent(created(1L, 10L, 2));      // 이미 DB 결과에 있음
+        service.onOrderEvent(cancelled(1L, 10L, 2));    // 카운터에 있는 주문의 취소
+        service.onOrderEvent(cancelled(2L, 10L, 7));    // DB 결과에 없는 ( 이미 취소된 ) 주문
+        service.onOrderEvent(created(3L, 10L, 4));      // 새 주문
+        service.rebuild();
+
+        // then
+        assertEquals(4, service.top(BestSellerWindow.WEEK, 10).get(0).getSold());
+    }
+
+    @Test
+    public void 저널로_재구성(@TempDir Path dir) throws Exception{
+
+        // given - 저널에 기록된 시각보다 8일 뒤에 기동 ( 저널이 최근 1주를 모두 담고 있음 )
+        TestClock later = new TestClock(Instant.now().plus(Duration.ofDays(8)));
+        LocalDateTime recent = LocalDateTime.ofInstant(later.instant().minus(Duration.ofHours(2)), ZoneOffset.UTC);
+        LocalDateTime old = LocalDateTime.ofInstant(later.instant().minus(Duration.ofDays(8)), ZoneOffset.UTC);
+
+        try (OrderJournal journal = new OrderJournal(dir, 4096, 10)) {
+            journal.append(created(1L, 10L, 3, old));         // 1주보다 오래된 주문
+            journal.append(created(2L, 10L, 2, recent));
+            journal.append(created(3L, 20L, 5, recent));
+            journal.append(cancelled(3L, 20L, 5, recent));
+            journal.append(cancelled(1L, 10L, 3, old));       // 카운터에 없는 주문의 취소
+
+            BestSellerService service = new BestSellerService(failingRepository(), new CatalogCache(), journal, 10, later);
+
+            // when - 재구성 중 도착한 이벤트 ( 저널에도 이미 있음 )
+            service.onOrderEvent(created(2L, 10L, 2, recent));
+            service.onOrderEvent(cancelled(3L, 20L, 5, recent));
+            service.onOrderEvent(created(4L, 20L, 1, recent));
+            service.rebuild();
+
+            // then - DB 조회 없이 저널만으로 재구성
+            List<BestSellerDto> top = service.top(BestSellerWindow.WEEK, 10);
+            assertEquals(2, top.size());
+            assertEquals(10L, top.get(0).getItemId());
+            assertEquals(2, top.get(0).getSold());
+            assertEquals(20L, top.get(1).getItemId());
+            assertEquals(1, top.get(1).getSold());
+        }
+    }
+
+    @Test
+    public void 저널이_1주를_담지_못하면_DB_로_재구성(@TempDir Path dir) throws Exception{
+
+        // given - 방금 켠 저널
+        TestClock now = new TestClock(Instant.now());
+        LocalDateTime orderDate = LocalDateTime.ofInstant(now.instant(), ZoneOffset.UTC);
+        try (OrderJournal journal = new OrderJournal(dir, 4096, 10)) {
+            journal.append(created(9L, 30L, 100, orderDate));
+            BestSellerService service = new BestSellerService(
+                    repository(List.of(new SoldLine(1L, orderDate, 10L, 2))), new CatalogCache(), journal, 10, now);
+
+            // when
+            service.rebuild();
+
+            // then
+            List<BestSellerDto> top = service.top(BestSellerWindow.WEEK, 10);
+            assertEquals(1, top.size());
+            assertEquals(10L, top.get(0).getItemId());
+        }
+    }
+
+    private static OrderEvent created(Long orderId, Long itemId, int count, LocalDateTime orderDate) {
+        return new OrderEvent(OrderEventType.CREATED, orderId, 1L, orderDate, List.of(new StockDelta(itemId, -count)));
+    }
+
+    private static OrderEvent cancelled(Long orderId, Long itemId, int count, LocalDateTime orderDate) {
+        return OrderEvent.cancelled(orderId, 1L, orderDate, List.of(new StockDelta(itemId, count)));
+    }
+
+    private static BestSellerQueryRepository failingRepository() {
+        return new BestSellerQueryRepository(null, null) {
+            @Override
+            public List<SoldLine> findSoldSince(LocalDateTime since) {
+                throw new AssertionError("저널이 있으면 DB 를 조회하지 않음");
+            }
+        };
+    }
+
+    private static OrderEvent created(Long orderId, Long itemId, int count) {
+        return new OrderEvent(OrderEventType.CREATED, orderId, 1L, ORDER_DATE, List.of(new StockDelta(itemId, -count)));
+    }
+
+    private static OrderEvent cancelled(Long orderId, Long itemId, int count) {
+        return OrderEvent.cancelled(orderId, 1L, ORDER_DATE, List.of(new StockDelta(itemId, count)));
+    }
+
+    private static BestSellerQueryRepository repository(List<SoldLine> lines) {
+        return new BestSellerQueryRepository(null, null) {
+            @Override
+            public List<SoldLine> findSoldSince(LocalDateTime since) {
+                return lines;
+            }
+        };
+    }
+
+    static class TestClock extends Clock {
+        private Instant now;
+
+        TestClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package jpabook.jpashop.cart;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartStoreTest {
+
+    private final TestClock clock = new TestClock();
+
+    @Test
+    public void 담기_수량합산() throws Exception {
+        CartStore store = new CartStore(10, 5, 999, 60_000, clock);
+
+        store.add(1L, 100L, 1);
+        store.add(1L, 200L, 2);
+        Map<Long, Integer> cart = store.add(1L, 100L, 3);
+
+        assertEquals(4, cart.get(100L));
+        assertEquals(List.of(100L, 200L), List.copyOf(cart.keySet()), "담은 순서 유지");
+        assertEquals(Map.of(200L, 2), store.remove(1L, 100L));
+    }
+
+    @Test
+    public void 최대_개수를_넘으면_오래된_장바구니_제거() throws Exception {
+        CartStore store = new CartStore(2, 5, 999, 60_000, clock);
+
+        store.add(1L, 100L, 1);
+        store.add(2L, 100L, 1);
+        store.get(1L);              // 1 번을 최근 사용으로
+        store.add(3L, 100L, 1);
+
+        assertEquals(2, store.size());
+        assertTrue(store.get(2L).isEmpty());
+        assertFalse(store.get(1L).isEmpty());
+    }
+
+    @Test
+    public void 만료() throws Exception {
+        CartStore store = new CartStore(10, 5, 999, 60_000, clock);
+        store.add(1L, 100L, 1);
+        store.add(2L, 100L, 1);
+
+        clock.advance(30_000);
+        store.get(2L);              // 사용하면 만료 시간 연장 안됨 ( 수정할 때만 연장 )
+        clock.advance(31_000);
+
+        assertTrue(store.get(1L).isEmpty());
+        store.purgeExpired();
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void 한도_초과() throws Exception {
+        CartStore store = new CartStore(10, 1, 5, 60_000, clock);
+        store.add(1L, 100L, 5);
+
+        assertThrows(IllegalArgumentException.class, () -> store.add(1L, 100L, 1));
+        assertThrows(IllegalArgumentException.class, () -> store.add(1L, 200L, 1));
+        assertThrows(IllegalArgumentException.class, () -> store.add(1L, 100L, 0));
+    }
+
+    static class TestClock extends Clock {
+        private long millis = 1_000_000;
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package jpabook.jpashop.catalog;
+
+import jpabook.jpashop.repository.catalog.CatalogCategory;
+import jpabook.jpashop.repository.catalog.CatalogFingerprint;
+import jpabook.jpashop.repository.catalog.CatalogItem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void 스냅샷_쓰기_읽기() throws Exception {
+        // given
+        Path file = dir.resolve("catalog.snapshot");
+        CatalogFingerprint fingerprint = new CatalogFingerprint(2, 5, 2, 1);
+        List<CatalogItem> items = List.of(
+                new CatalogItem(1L, "B", "JPA 책", 10000, 7, 3L, "김영한", "1234", null, null, null, null),
+                new CatalogItem(2L, "M", "영화", 20000, 0, 2L, null, null, null, null, "감독", null));
+        List<CatalogCategory> categories = List.of(new CatalogCategory(10L, "도서", null, List.of(1L)));
+
+        // when
+        CatalogSnapshot.write(file, fingerprint, items, categories);
+        CatalogSnapshot snapshot = CatalogSnapshot.read(file);
+
+        // then
+        assertEquals(fingerprint, snapshot.getFingerprint());
+        assertEquals(2, snapshot.getItems().size());
+
+        CatalogItem book = snapshot.getItems().get(0);
+        assertEquals("JPA 책", book.getName());
+        assertEquals("B", book.getType());
+        assertEquals(7, book.getStockQuantity());
+        assertEquals(3L, book.getVersion());
+        assertEquals("김영한", book.getAuthor());
+        assertNull(book.getArtist());
+
+        CatalogCategory category = snapshot.getCategories().get(0);
+        assertNull(category.getParentId());
+        assertEquals(List.of(1L), category.getItemIds());
+    }
+
+    @Test
+    public void 긴_문자열() throws Exception {
+        // given - utf8 로 32767 바이트가 넘는 값
+        Path file = dir.resolve("long.snapshot");
+        String etc = "가".repeat(20000);
+        List<CatalogItem> items = List.of(new CatalogItem(1L, "A", "앨범", 10000, 1, 0L, null, null, "가수", etc, null, null));
+
+        // when
+        CatalogSnapshot.write(file, new CatalogFingerprint(1, 0, 1, 0), items, List.of());
+        CatalogItem album = CatalogSnapshot.read(file).getItems().get(0);
+
+        // then
+        assertEquals(etc, album.getEtc());
+        assertEquals("가수", album.getArtist());
+        assertNull(album.getDirector());
+    }
+
+    @Test
+    public void 형식이_다른_파일() throws Exception {
+        Path file = dir.resolve("broken.snapshot");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6});
+
+        assertThrows(IOException.class, () -> CatalogSnapshot.read(file));
+    }
+}
@@ -0,0 +1,101 @@
+package jpabook.jpashop.datasource.pool;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 풀은 트랜잭션이 시작되기 전에 정해지므로 테스트 트랜잭션을 열지 않음 ( @Transactional 사용 안함 )
+@SpringBootTest(properties = {
+        "jpashop.pools.enabled=true",
+        "jpashop.pools.datasource.url=jdbc:h2:mem:pool_routing;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class ConnectionPoolRoutingTest {
+
+    @Autowired
+    ConnectionPools connectionPools;
+    @Autowired
+    OrderQueryRepository orderQueryRepository;
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    MemberService memberService;
+    @Autowired
+    ItemService itemService;
+
+    @Test
+    public void 리포트_조회는_리포트_풀() throws Exception {
+        // given
+        long reporting = acquisitions(PoolType.REPORTING);
+        long checkout = acquisitions(PoolType.CHECKOUT);
+
+        // when - 클래스에 @ConnectionPool(REPORTING)
+        orderQueryRepository.findAllByDto_optimization();
+
+        // then
+        assertTrue(acquisitions(PoolType.REPORTING) > reporting);
+        assertEquals(checkout, acquisitions(PoolType.CHECKOUT));
+    }
+
+    @Test
+    public void 주문은_주문_풀() throws Exception {
+        // given
+        Long memberId = memberService.join(createMember());
+        Long itemId = createBook();
+        long reporting = acquisitions(PoolType.REPORTING);
+        long checkout = acquisitions(PoolType.CHECKOUT);
+
+        // when - 메서드에 @ConnectionPool(CHECKOUT)
+        orderService.order(memberId, itemId, 1);
+
+        // then
+        assertTrue(acquisitions(PoolType.CHECKOUT) > checkout);
+        assertEquals(reporting, acquisitions(PoolType.REPORTING));
+        assertNull(PoolContext.current(), "호출이 끝나면 풀 지정 해제");
+    }
+
+    @Test
+    public void 지정이_없으면_일반_풀() throws Exception {
+        // given
+        long interactive = acquisitions(PoolType.INTERACTIVE);
+        long reporting = acquisitions(PoolType.REPORTING);
+        long checkout = acquisitions(PoolType.CHECKOUT);
+
+        // when
+        memberService.findMembers();
+
+        // then
+        assertTrue(acquisitions(PoolType.INTERACTIVE) > interactive);
+        assertEquals(reporting, acquisitions(PoolType.REPORTING));
+        assertEquals(checkout, acquisitions(PoolType.CHECKOUT));
+    }
+
+    private long acquisitions(PoolType pool) {
+        return connectionPools.getPools().get(pool).stats().getAcquisitions();
+    }
+
+    private Member createMember() {
+        Member member = new Member();
+        member.setName("풀 회원 " + System.nanoTime());
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        return member;
+    }
+
+    private Long createBook() {
+        Book book = new Book();
+        book.setName("풀 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+}
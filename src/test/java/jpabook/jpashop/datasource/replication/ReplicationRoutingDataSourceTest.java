@@ -0,0 +1,74 @@
+package jpabook.jpashop.datasource.replication;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// H2 메모리 DB 두 개로 라우팅만 확인
+class ReplicationRoutingDataSourceTest {
+
+    ReplicaState replica;
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        DriverManagerDataSource primary = h2("primary");
+        DriverManagerDataSource replicaDataSource = h2("replica");
+        replica = new ReplicaState("replica-0", replicaDataSource);
+
+        ReplicationRoutingDataSource routing = new ReplicationRoutingDataSource(primary, List.of(replica));
+        routing.afterPropertiesSet();
+        jdbcTemplate = new JdbcTemplate(routing);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        PrimaryPin.clear();
+    }
+
+    @Test
+    public void 쓰기는_primary() throws Exception {
+        assertEquals("primary", whoami());
+    }
+
+    @Test
+    public void 읽기전용은_replica() throws Exception {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals("replica", whoami());
+    }
+
+    @Test
+    public void 비정상_replica_는_primary_로_대체() throws Exception {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        replica.update(false, -1);
+        assertEquals("primary", whoami());
+    }
+
+    @Test
+    public void 쓰기_직후_조회는_primary() throws Exception {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        PrimaryPin.pin();
+        assertEquals("primary", whoami());
+    }
+
+    private String whoami() {
+        return jdbcTemplate.queryForObject("select name from whoami", String.class);
+    }
+
+    private DriverManagerDataSource h2(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("create table if not exists whoami (name varchar(20))");
+        template.update("delete from whoami");
+        template.update("insert into whoami values (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,37 @@
+package jpabook.jpashop.datasource.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardMergeTest {
+
+    @Test
+    public void 정렬된_결과_합치기() throws Exception {
+        List<List<Long>> parts = List.of(
+                List.of(1L, 4L, 9L),
+                List.of(),
+                List.of(2L, 3L, 10L, 11L));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 9L, 10L, 11L),
+                ShardMerge.mergeSorted(parts, Comparator.naturalOrder(), Integer.MAX_VALUE));
+        assertEquals(List.of(1L, 2L, 3L),
+                ShardMerge.mergeSorted(parts, Comparator.naturalOrder(), 3));
+    }
+
+    @Test
+    public void id_로_shard_찾기() throws Exception {
+        ShardRouter router = new ShardRouter(4);
+
+        assertEquals(0, router.shardOfId(1L));
+        assertEquals(3, router.shardOfId(ShardRouter.firstId(3)));
+        assertEquals(2, router.shardOfId(ShardRouter.firstId(2) + 12345));
+        assertThrows(IllegalArgumentException.class, () -> router.shardOfId(ShardRouter.firstId(4)));
+
+        // 같은 이름은 항상 같은 shard
+        assertEquals(router.shardForNewMember("userA"), router.shardForNewMember("userA"));
+    }
+}
@@ -0,0 +1,138 @@
+package jpabook.jpashop.datasource.shard;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.order.history.MemberOrderDto;
+import jpabook.jpashop.repository.order.history.MemberOrderHistoryRepository;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// H2 메모리 DB 두 개를 shard 로 사용 ( 상품은 0 번, 회원 / 주문은 1 번 shard )
+@SpringBootTest(properties = {
+        "jpashop.sharding.enabled=true",
+        "jpashop.sharding.shards[0].url=jdbc:h2:mem:shard-order-0;DB_CLOSE_DELAY=-1",
+        "jpashop.sharding.shards[1].url=jdbc:h2:mem:shard-order-1;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class ShardOrderTest {
+
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @Autowired
+    ItemService itemService;
+    @Autowired
+    MemberService memberService;
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    OrderQueryRepository orderQueryRepository;
+    @Autowired
+    MemberOrderHistoryRepository memberOrderHistoryRepository;
+    @Autowired
+    ShardRouter shardRouter;
+
+    @Test
+    public void 다른_shard_회원의_주문과_취소() throws Exception {
+        // given
+        Long itemId = createBook("샤드 JPA", 10);
+        Long memberId = memberService.join(createMember(1));
+        assertEquals(1, shardRouter.shardOfId(memberId));
+
+        // when
+        Long orderId = orderService.order(memberId, itemId, 3);
+
+        // then - 주문은 회원 shard, 재고는 카탈로그 shard 에서 차감
+        assertEquals(1, shardRouter.shardOfId(orderId));
+        assertEquals(7, itemService.finOne(itemId).getStockQuantity());
+
+        // 모든 shard 에서 모은 목록에 상품명까지 나옴 ( 1 번 shard 의 상품 복제본과 join )
+        OrderQueryDto order = findOrder(orderId);
+        assertEquals(OrderStatus.ORDER, order.getOrderStatus());
+        assertEquals("샤드 JPA", order.getOrderItems().get(0).getItemName());
+
+        List<MemberOrderDto> history = memberOrderHistoryRepository.findPage(memberId, null, null, 10);
+        assertEquals(1, history.size());
+        assertEquals(itemId, history.get(0).getItems().get(0).getItemId());
+
+        // when - 취소
+        orderService.cancelOrder(orderId);
+
+        // then - 주문은 1 번 shard 에서 취소, 재고는 카탈로그 shard 에 복구
+        assertEquals(OrderStatus.CANCEL, findOrder(orderId).getOrderStatus());
+        assertEquals(10, itemService.finOne(itemId).getStockQuantity());
+    }
+
+    @Test
+    public void 재고가_부족하면_주문도_남지_않음() throws Exception {
+        // given
+        Long itemId = createBook("샤드 스프링", 2);
+        Long memberId = memberService.join(createMember(1));
+
+        // when
+        assertThrows(NotEnoughStockException.class, () -> orderService.order(memberId, itemId, 3));
+
+        // then
+        assertEquals(2, itemService.finOne(itemId).getStockQuantity());
+        assertTrue(memberOrderHistoryRepository.findPage(memberId, null, null, 10).isEmpty());
+    }
+
+    @Test
+    public void 상품_수정은_복제본에도_반영() throws Exception {
+        // given
+        Long itemId = createBook("샤드 JPA", 10);
+        Long memberId = memberService.join(createMember(1));
+
+        // when
+        itemService.updateItem(itemId, "샤드 JPA 2판", 20000, 10);
+        Long orderId = orderService.order(memberId, itemId, 1);
+
+        // then - 1 번 shard 의 주문도 바뀐 이름 / 가격
+        OrderQueryDto order = findOrder(orderId);
+        assertEquals("샤드 JPA 2판", order.getOrderItems().get(0).getItemName());
+        assertEquals(20000, order.getOrderItems().get(0).getOrderPrice());
+        assertEquals(9, itemService.finOne(itemId).getStockQuantity());
+    }
+
+    private OrderQueryDto findOrder(Long orderId) {
+        return orderQueryRepository.findAllByDto_optimization().stream()
+                .filter(o -> o.getOrderId().equals(orderId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Long createBook(String name, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+
+    // 이름으로 shard 가 정해지므로 원하는 shard 에 들어가는 이름을 고름
+    private Member createMember(int shard) {
+        String name;
+        do {
+            name = "샤드회원" + SEQ.incrementAndGet();
+        } while (shardRouter.shardForNewMember(name) != shard);
+
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        return member;
+    }
+}
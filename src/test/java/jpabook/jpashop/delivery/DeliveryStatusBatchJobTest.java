@@ -0,0 +1,138 @@
+package jpabook.jpashop.delivery;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 작업 스레드가 각자 트랜잭션을 사용하므로 테스트 데이터는 커밋되어 있어야 함 ( @Transactional 사용 안함 )
+@SpringBootTest(properties = {
+        "jpashop.delivery-batch.threads=4",
+        "jpashop.delivery-batch.partitions=4",
+        "jpashop.delivery-batch.chunk-size=7"
+})
+class DeliveryStatusBatchJobTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    DeliveryStatusBatchJob job;
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    public void 배송완료_일괄변경() throws Exception{
+
+        // given - 초기 데이터 등 이전 배송은 먼저 처리해서 이번 실행 대상만 남김
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        job.run(DeliveryStatus.READY, DeliveryStatus.COMP);
+
+        List<Long> ids = tx.execute(status -> createDeliveries(100, DeliveryStatus.READY));
+        List<Long> completedIds = tx.execute(status -> createDeliveries(3, DeliveryStatus.COMP));
+        Long memberId = tx.execute(status -> createMember());
+        Long itemId = tx.execute(status -> createBook());
+        Long orderId = orderService.order(memberId, itemId, 1);
+        Long cancelledId = orderService.order(memberId, itemId, 1);
+        orderService.cancelOrder(cancelledId);
+        ids.add(deliveryId(tx, orderId));
+        Long cancelledDeliveryId = deliveryId(tx, cancelledId);
+
+        // when
+        DeliveryBatchResult result = job.run(DeliveryStatus.READY, DeliveryStatus.COMP);
+
+        // then - 대상 배송만 정확히 변경
+        assertEquals(ids.size(), result.getUpdated());
+        assertTrue(result.getPartitions() > 1);
+        assertEquals(0L, countNotCompleted(tx, ids));
+        assertTrue(job.checkpoints(DeliveryStatus.READY, DeliveryStatus.COMP).stream()
+                .allMatch(DeliveryCheckpointDto::isDone));
+
+        // 이미 배송완료였던 배송은 그대로, 취소된 주문의 배송은 READY 유지
+        assertEquals(0L, countNotCompleted(tx, completedIds));
+        assertEquals(DeliveryStatus.READY, tx.execute(status -> em.find(Delivery.class, cancelledDeliveryId).getStatus()));
+
+        // 다시 실행해도 바뀌는 것이 없음
+        assertEquals(0, job.run(DeliveryStatus.READY, DeliveryStatus.COMP).getUpdated());
+        assertEquals(DeliveryStatus.READY, tx.execute(status -> em.find(Delivery.class, cancelledDeliveryId).getStatus()));
+    }
+
+    @Test
+    public void 배송완료를_되돌릴때_다른_상태는_그대로() throws Exception{
+
+        // given
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        job.run(DeliveryStatus.COMP, DeliveryStatus.READY);
+        List<Long> completedIds = tx.execute(status -> createDeliveries(5, DeliveryStatus.COMP));
+        List<Long> readyIds = tx.execute(status -> createDeliveries(5, DeliveryStatus.READY));
+
+        // when
+        DeliveryBatchResult result = job.run(DeliveryStatus.COMP, DeliveryStatus.READY);
+
+        // then - COMP 였던 배송만 변경
+        assertEquals(completedIds.size(), result.getUpdated());
+        assertEquals((long) readyIds.size(), countNotCompleted(tx, readyIds));
+        assertEquals((long) completedIds.size(), countNotCompleted(tx, completedIds));
+    }
+
+    @Test
+    public void 같은_상태로_변경_불가() throws Exception{
+        assertThrows(IllegalArgumentException.class, () -> job.run(DeliveryStatus.COMP, DeliveryStatus.COMP));
+    }
+
+    private List<Long> createDeliveries(int count, DeliveryStatus deliveryStatus) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Delivery delivery = new Delivery();
+            delivery.setAddress(new Address("서울", "강가", "123-123"));
+            delivery.setStatus(deliveryStatus);
+            em.persist(delivery);
+            ids.add(delivery.getId());
+        }
+        return ids;
+    }
+
+    private Long deliveryId(TransactionTemplate tx, Long orderId) {
+        return tx.execute(status -> em.find(Order.class, orderId).getDelivery().getId());
+    }
+
+    private Long createMember() {
+        Member member = new Member();
+        member.setName("배송 회원");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+        return member.getId();
+    }
+
+    private Long createBook() {
+        Book book = new Book();
+        book.setName("배송 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(100);
+        em.persist(book);
+        return book.getId();
+    }
+
+    private Long countNotCompleted(TransactionTemplate tx, List<Long> ids) {
+        return tx.execute(status -> em.createQuery(
+                        "select count(d) from Delivery d where d.id in :ids and d.status <> :status", Long.class)
+                .setParameter("ids", ids)
+                .setParameter("status", DeliveryStatus.COMP)
+                .getSingleResult());
+    }
+}
@@ -0,0 +1,74 @@
+package jpabook.jpashop.hot;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotItemTrackerTest {
+
+    private final List<Object> events = new ArrayList<>();
+
+    // top-k 3, min-score 10, order-weight 10, 감쇠 0.5
+    private final HotItemTracker tracker = new HotItemTracker(events::add, 3, 10, 10, 1024, 4, 0.5);
+
+    @Test
+    public void 많이_조회된_상품이_인기상품() throws Exception{
+
+        // given - 1 ~ 3 번은 자주, 나머지는 한 번씩
+        for (long itemId = 1; itemId <= 100; itemId++) {
+            tracker.recordRead(itemId);
+        }
+        for (int i = 0; i < 50; i++) {
+            tracker.recordRead(1L);
+            tracker.recordRead(2L);
+        }
+        tracker.record(3L, 30);
+
+        // when
+        tracker.refresh();
+
+        // then
+        List<Long> top = tracker.top().stream().map(HotItemDto::getItemId).collect(Collectors.toList());
+        assertEquals(3, top.size());
+        assertTrue(top.containsAll(List.of(1L, 2L, 3L)));
+        assertTrue(tracker.isHot(1L));
+        assertFalse(tracker.isHot(50L));
+
+        assertEquals(1, events.size());
+        HotSetChangedEvent event = (HotSetChangedEvent) events.get(0);
+        assertEquals(tracker.hotItemIds(), event.getAdded());
+        assertTrue(event.getRemoved().isEmpty());
+    }
+
+    @Test
+    public void 감쇠되면_인기상품에서_빠짐() throws Exception{
+
+        // given
+        tracker.record(1L, 12);
+        tracker.refresh();
+        assertTrue(tracker.isHot(1L));
+
+        // when - 12 -> 6 ( min-score 10 미만 )
+        tracker.decay();
+
+        // then
+        assertFalse(tracker.isHot(1L));
+        HotSetChangedEvent last = (HotSetChangedEvent) events.get(events.size() - 1);
+        assertEquals(List.of(1L), new ArrayList<>(last.getRemoved()));
+    }
+
+    @Test
+    public void count_min_sketch_는_작게_추정하지_않음() throws Exception{
+        CountMinSketch sketch = new CountMinSketch(64, 4);
+        for (long key = 0; key < 1000; key++) {
+            sketch.add(key, key % 7 + 1);
+        }
+        for (long key = 0; key < 1000; key++) {
+            assertTrue(sketch.estimate(key) >= key % 7 + 1);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package jpabook.jpashop.jfr;
+
+import jdk.jfr.Recording;
+import jpabook.jpashop.sql.SqlNormalizer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrSummaryTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void 작업별_요약() throws Exception {
+        // given
+        Path file = dir.resolve("test.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(ServiceCallEvent.class).withoutThreshold();
+            recording.enable(QueryEvent.class).withoutThreshold();
+            recording.start();
+
+            for (int i = 0; i < 3; i++) {
+                ServiceCallEvent service = new ServiceCallEvent();
+                service.begin();
+                service.operation = "OrderService.order";
+                service.commit();
+            }
+            QueryEvent query = new QueryEvent();
+            query.begin();
+            query.operation = "ItemRepository.findOne";
+            query.sql = SqlNormalizer.normalize("select * from item where item_id = 1");
+            query.commit();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // when
+        Map<String, Map<String, List<Long>>> summary = JfrSummary.summarize(file);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JfrSummary.print(summary, new PrintStream(out, true, StandardCharsets.UTF_8));
+
+        // then
+        assertEquals(3, summary.get("jpashop.ServiceCall").get("OrderService.order").size());
+        assertEquals(1, summary.get("jpashop.Query").get("select * from item where item_id = ?").size());
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("OrderService.order"));
+    }
+
+    @Test
+    public void sql_정규화() throws Exception {
+        assertEquals("select * from item i0_ where i0_.id = ? and i0_.name = ? and i0_.item_id in (?)",
+                SqlNormalizer.normalize("select *  from item i0_\n where i0_.id = 10 and i0_.name = 'a''b' and i0_.item_id in (1, 2, 3)"));
+    }
+}
@@ -0,0 +1,70 @@
+package jpabook.jpashop.journal;
+
+import jpabook.jpashop.event.OrderEvent;
+import jpabook.jpashop.event.OrderEventType;
+import jpabook.jpashop.event.StockDelta;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void 기록_후_재생() throws Exception {
+        // given - 세그먼트를 작게 잡아서 여러 파일로 나뉘게 함
+        try (OrderJournal journal = new OrderJournal(dir, 256, 10)) {
+            for (long i = 1; i <= 20; i++) {
+                assertEquals(i, journal.append(event(i)));
+            }
+        }
+
+        // when - 다시 열어서 이어쓰기
+        List<JournalEntry> entries = new ArrayList<>();
+        try (OrderJournal journal = new OrderJournal(dir, 256, 10)) {
+            assertEquals(20, journal.lastSeq());
+            assertEquals(21, journal.append(event(21)));
+            journal.replay(1, entries::add);
+        }
+
+        // then
+        try (Stream<Path> files = Files.list(dir)) {
+            assertTrue(files.count() > 1);
+        }
+        assertEquals(21, entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            JournalEntry entry = entries.get(i);
+            assertEquals(i + 1, entry.getSeq());
+            assertEquals(Long.valueOf(i + 1), entry.getEvent().getOrderId());
+            assertEquals(-(i + 1), entry.getEvent().getStockDeltas().get(0).getDelta());
+        }
+    }
+
+    @Test
+    public void 중간부터_재생() throws Exception {
+        List<Long> seqs = new ArrayList<>();
+        try (OrderJournal journal = new OrderJournal(dir, 256, 10)) {
+            for (long i = 1; i <= 10; i++) {
+                journal.append(event(i));
+            }
+            journal.replay(7, e -> seqs.add(e.getSeq()));
+        }
+
+        assertEquals(List.of(7L, 8L, 9L, 10L), seqs);
+    }
+
+    private OrderEvent event(long orderId) {
+        return new OrderEvent(OrderEventType.CREATED, orderId, 1L, LocalDateTime.of(2022, 4, 1, 12, 0),
+                List.of(new StockDelta(100L, (int) -orderId)));
+    }
+}
@@ -0,0 +1,249 @@
+package jpabook.jpashop.load;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 동시 주문 / 취소 부하 테스트 ( 기본 test 에서는 제외 )
+ * 실행 : ./gradlew loadTest -Pload.threads=32 -Pload.operations=20000 -Pload.items=100 -Pload.zipf=1.2 -Pload.cancelRatio=0.2
+ *
+ * - 상품 인기도는 Zipf 분포 ( zipf 가 클수록 소수 상품에 주문이 몰림 )
+ * - 처리량, 주문 / 취소 지연시간 백분위, 재고 부족 / 충돌( 낙관적 락, 락 타임아웃 ) 건수 출력
+ *   충돌은 OrderService 의 재시도( jpashop.retry.max-attempts ) 후에도 실패한 건
+ * - 마지막에 상품마다 최초 재고 = 현재 재고 + 순 주문 수량 인지 확인 ( 갱신 손실이 없는지 )
+ */
+@Tag("load")
+@SpringBootTest
+class OrderLoadTest {
+
+    private static final int INITIAL_STOCK = 1_000;
+
+    private final int threads = Integer.getInteger("load.threads", 16);
+    private final int operations = Integer.getInteger("load.operations", 5_000);
+    private final int itemCount = Integer.getInteger("load.items", 50);
+    private final double zipf = Double.parseDouble(System.getProperty("load.zipf", "1.0"));
+    private final double cancelRatio = Double.parseDouble(System.getProperty("load.cancelRatio", "0.2"));
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    public void 동시_주문_취소() throws Exception {
+        // given
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<Long> memberIds = tx.execute(status -> createMembers(threads));
+        List<Long> itemIds = tx.execute(status -> createItems(itemCount));
+        ZipfSampler sampler = new ZipfSampler(itemCount, zipf);
+
+        Latencies orderLatencies = new Latencies(operations);
+        Latencies cancelLatencies = new Latencies(operations);
+        AtomicInteger notEnoughStock = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(operations);
+        ConcurrentLinkedQueue<Long> cancellable = new ConcurrentLinkedQueue<>();
+
+        // when
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        long begin = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            Long memberId = memberIds.get(t);
+            executor.execute(() -> {
+                awaitQuietly(start);
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (remaining.getAndDecrement() > 0) {
+                    Long orderId = random.nextDouble() < cancelRatio ? cancellable.poll() : null;
+                    long opStart = System.nanoTime();
+                    try {
+                        if (orderId != null) {
+                            orderService.cancelOrder(orderId);
+                            cancelLatencies.add(System.nanoTime() - opStart);
+                        } else {
+                            Long itemId = itemIds.get(sampler.next(random));
+                            cancellable.add(orderService.order(memberId, itemId, 1 + random.nextInt(3)));
+                            orderLatencies.add(System.nanoTime() - opStart);
+                        }
+                    } catch (NotEnoughStockException e) {
+                        notEnoughStock.incrementAndGet();
+                    } catch (ConcurrencyFailureException e) {
+                        conflicts.incrementAndGet();
+                        if (orderId != null) {
+                            cancellable.add(orderId);   // 취소 충돌이면 다시 시도할 수 있도록
+                        }
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.MINUTES));
+        double seconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+
+        // then
+        System.out.printf("%n== order load : threads=%d, operations=%d, items=%d, zipf=%.2f, cancelRatio=%.2f ==%n",
+                threads, operations, itemCount, zipf, cancelRatio);
+        System.out.printf("elapsed %.2fs, throughput %.1f ops/s%n",
+                seconds, (orderLatencies.size() + cancelLatencies.size()) / seconds);
+        orderLatencies.print("order");
+        cancelLatencies.print("cancel");
+        System.out.printf("not enough stock %d, conflicts %d, failures %d%n", notEnoughStock.get(), conflicts.get(), failures.get());
+
+        assertEquals(0, failures.get(), "재고 부족, 충돌 외의 실패는 없어야 함");
+        assertStockConserved(tx, itemIds);
+    }
+
+    // 상품마다 최초 재고 = 현재 재고 + 주문 상태인 주문의 수량 합
+    private void assertStockConserved(TransactionTemplate tx, List<Long> itemIds) {
+        tx.executeWithoutResult(status -> {
+            Map<Long, Long> ordered = new HashMap<>();
+            em.createQuery("select oi.item.id, sum(oi.count) from OrderItem oi" +
+                            " where oi.order.status = :status and oi.item.id in :itemIds" +
+                            " group by oi.item.id", Object[].class)
+                    .setParameter("status", OrderStatus.ORDER)
+                    .setParameter("itemIds", itemIds)
+                    .getResultList()
+                    .forEach(r -> ordered.put((Long) r[0], (Long) r[1]));
+
+            for (Item item : em.createQuery("select i from Item i where i.id in :itemIds", Item.class)
+                    .setParameter("itemIds", itemIds)
+                    .getResultList()) {
+                long net = ordered.getOrDefault(item.getId(), 0L);
+                assertEquals(INITIAL_STOCK, item.getStockQuantity() + net,
+                        "재고 불일치 itemId=" + item.getId() + ", stock=" + item.getStockQuantity() + ", ordered=" + net);
+            }
+        });
+    }
+
+    private List<Long> createMembers(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Member member = new Member();
+            member.setName("load-member-" + i);
+            member.setAddress(new Address("서울", "강가", "123-123"));
+            em.persist(member);
+            ids.add(member.getId());
+        }
+        return ids;
+    }
+
+    private List<Long> createItems(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Book book = new Book();
+            book.setName("load-item-" + i);
+            book.setPrice(1000);
+            book.setStockQuantity(INITIAL_STOCK);
+            em.persist(book);
+            ids.add(book.getId());
+        }
+        return ids;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 순위 k 의 확률이 1 / k^s 에 비례 ( 누적 분포 + 이진 탐색 )
+     */
+    static class ZipfSampler {
+        private final double[] cdf;
+
+        ZipfSampler(int n, double s) {
+            cdf = new double[n];
+            double sum = 0;
+            for (int k = 1; k <= n; k++) {
+                sum += 1.0 / Math.pow(k, s);
+                cdf[k - 1] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cdf[i] /= sum;
+            }
+        }
+
+        int next(ThreadLocalRandom random) {
+            int index = Arrays.binarySearch(cdf, random.nextDouble());
+            return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+        }
+    }
+
+    static class Latencies {
+        private final long[] nanos;
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicLong overflow = new AtomicLong();
+
+        Latencies(int capacity) {
+            nanos = new long[capacity];
+        }
+
+        void add(long value) {
+            int index = size.getAndIncrement();
+            if (index < nanos.length) {
+                nanos[index] = value;
+            } else {
+                overflow.incrementAndGet();
+            }
+        }
+
+        int size() {
+            return Math.min(size.get(), nanos.length);
+        }
+
+        void print(String name) {
+            int n = size();
+            if (n == 0) {
+                System.out.printf("%-7s count 0%n", name);
+                return;
+            }
+            long[] sorted = Arrays.copyOf(nanos, n);
+            Arrays.sort(sorted);
+            System.out.printf("%-7s count %d, p50 %.2fms, p95 %.2fms, p99 %.2fms, max %.2fms%n", name, n,
+                    ms(sorted, 50), ms(sorted, 95), ms(sorted, 99), sorted[n - 1] / 1_000_000.0);
+        }
+
+        private static double ms(long[] sorted, int percentile) {
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+            return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+        }
+    }
+}
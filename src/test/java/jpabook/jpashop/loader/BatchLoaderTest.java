@@ -0,0 +1,103 @@
+package jpabook.jpashop.loader;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchLoaderTest {
+
+    // 키 * 10 을 돌려주는 가짜 IN 쿼리. 호출마다 받은 키 목록 기록
+    private final List<Set<Long>> calls = new CopyOnWriteArrayList<>();
+
+    private Map<Long, Long> fakeQuery(Set<Long> ids) {
+        calls.add(ids);
+        Map<Long, Long> result = new HashMap<>();
+        for (Long id : ids) {
+            if (id > 0) {
+                result.put(id, id * 10);
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void 동시_조회_모으기() throws Exception {
+        // given
+        int threads = 20;
+        try (BatchLoader<Long, Long> loader = new BatchLoader<>("test", this::fakeQuery, 50, 1000, 1, 5_000)) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Long>> results = new ArrayList<>();
+
+            // when - 20 개 스레드가 5 개 키를 동시에 조회
+            for (int i = 0; i < threads; i++) {
+                long key = i % 5 + 1;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return loader.get(key);
+                }));
+            }
+            start.countDown();
+
+            // then
+            for (int i = 0; i < threads; i++) {
+                assertEquals((i % 5 + 1) * 10, results.get(i).get());
+            }
+            int loadedKeys = calls.stream().mapToInt(Set::size).sum();
+            assertEquals(5, loadedKeys, "같은 키는 한번만 조회");
+            assertTrue(calls.size() < threads);
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void 최대_개수가_차면_바로_조회() throws Exception {
+        try (BatchLoader<Long, Long> loader = new BatchLoader<>("test", this::fakeQuery, 60_000, 3, 1, 5_000)) {
+            // when - 대기 시간이 길어도 3 개가 모이면 조회
+            Map<Long, Long> result = loader.getAll(List.of(1L, 2L, 3L));
+
+            // then
+            assertEquals(Map.of(1L, 10L, 2L, 20L, 3L, 30L), result);
+            assertEquals(1, calls.size());
+        }
+    }
+
+    @Test
+    public void 조회중인_키는_같은_결과를_기다림() throws Exception {
+        try (BatchLoader<Long, Long> loader = new BatchLoader<>("test", this::fakeQuery, 50, 100, 1, 5_000)) {
+            CompletableFuture<Long> first = loader.load(7L);
+            CompletableFuture<Long> second = loader.load(7L);
+
+            assertSame(first, second);
+            assertEquals(70L, first.get());
+            assertNull(loader.get(-1L), "없는 키는 null");
+        }
+    }
+
+    @Test
+    public void 제한_시간이_지나면_예외() throws Exception {
+        try (BatchLoader<Long, Long> loader = new BatchLoader<>("test", this::fakeQuery, 60_000, 100, 1, 50)) {
+            CompletableFuture<Long> first = loader.load(1L);
+
+            // when - 조회가 끝나지 않으면 제한 시간만 기다리고 실패
+            long start = System.currentTimeMillis();
+            assertThrows(IllegalStateException.class, () -> loader.get(1L));
+
+            // then - 시간이 지난 조회는 잊고 다음 요청은 새로 조회
+            assertTrue(System.currentTimeMillis() - start < 5_000);
+            assertNotSame(first, loader.load(1L));
+        }
+    }
+}
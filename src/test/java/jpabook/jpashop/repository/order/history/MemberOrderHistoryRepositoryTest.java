@@ -0,0 +1,88 @@
+package jpabook.jpashop.repository.order.history;
+
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.domain.item.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class MemberOrderHistoryRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberOrderHistoryRepository memberOrderHistoryRepository;
+
+    @Test
+    public void 회원주문내역_키셋페이징() throws Exception {
+        // given - 주문 5건 ( 2, 3 번째는 주문시간이 같음 ), 다른 회원 주문 1건
+        Member member = createMember("내역회원");
+        Member other = createMember("다른회원");
+        Book book = createBook("내역 JPA");
+
+        LocalDateTime base = LocalDateTime.of(2024, 3, 1, 12, 0);
+        LocalDateTime[] dates = {base, base.plusHours(1), base.plusHours(1), base.plusHours(2), base.plusHours(3)};
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < dates.length; i++) {
+            orderIds.add(createOrder(member, book, i + 1, dates[i]));
+        }
+        createOrder(other, book, 1, base.plusHours(4));
+        em.flush();
+        em.clear();
+
+        // when - 2건씩 끝까지
+        List<MemberOrderDto> all = new ArrayList<>();
+        List<MemberOrderDto> page = memberOrderHistoryRepository.findPage(member.getId(), null, null, 2);
+        while (!page.isEmpty()) {
+            all.addAll(page);
+            MemberOrderDto last = page.get(page.size() - 1);
+            page = memberOrderHistoryRepository.findPage(member.getId(), last.getOrderDate(), last.getOrderId(), 2);
+        }
+
+        // then - 최신 주문부터, 같은 시간이면 id 역순, 빠지거나 겹치는 주문 없음
+        assertEquals(List.of(orderIds.get(4), orderIds.get(3), orderIds.get(2), orderIds.get(1), orderIds.get(0)),
+                all.stream().map(MemberOrderDto::getOrderId).collect(toList()));
+
+        MemberOrderDto newest = all.get(0);
+        assertEquals(1, newest.getItems().size());
+        assertEquals("내역 JPA", newest.getItems().get(0).getItemName());
+        assertEquals(5, newest.getItems().get(0).getCount());
+    }
+
+    private Long createOrder(Member member, Book book, int count, LocalDateTime orderDate) {
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+        Order order = Order.createOrder(member, delivery, OrderItem.createOrderItem(book, 1000, count));
+        order.setOrderDate(orderDate);
+        em.persist(order);
+        return order.getId();
+    }
+
+    private Member createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+        return member;
+    }
+
+    private Book createBook(String name) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(1000);
+        book.setStockQuantity(100);
+        em.persist(book);
+        return book;
+    }
+}
@@ -0,0 +1,75 @@
+package jpabook.jpashop.repository.order.list;
+
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.OrderSearch;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class OrderListQueryRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    OrderListQueryRepository orderListQueryRepository;
+
+    @Test
+    public void 주문목록_페이지() throws Exception {
+        // given - 주문 3건, 주문마다 상품 2개
+        Member member = new Member();
+        member.setName("페이지회원");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+
+        Long lastOrderId = null;
+        for (int i = 1; i <= 3; i++) {
+            Book first = createBook("대표" + i);
+            Book second = createBook("기타" + i);
+            Delivery delivery = new Delivery();
+            delivery.setAddress(member.getAddress());
+            Order order = Order.createOrder(member, delivery,
+                    OrderItem.createOrderItem(first, 1000, 1),
+                    OrderItem.createOrderItem(second, 2000, 2));
+            em.persist(order);
+            lastOrderId = order.getId();
+        }
+        em.flush();
+        em.clear();
+
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("페이지회원");
+
+        // when
+        Page<OrderListDto> page = orderListQueryRepository.findPage(orderSearch, PageRequest.of(0, 2));
+
+        // then - 최신 주문부터, 주문당 한 줄( 대표상품 )
+        assertEquals(3, page.getTotalElements());
+        assertEquals(2, page.getContent().size());
+        assertEquals(2, page.getTotalPages());
+
+        OrderListDto newest = page.getContent().get(0);
+        assertEquals(lastOrderId, newest.getOrderId());
+        assertEquals("페이지회원", newest.getMemberName());
+        assertEquals("대표3", newest.getItemName());
+        assertEquals(1000, newest.getOrderPrice());
+    }
+
+    private Book createBook(String name) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(1000);
+        book.setStockQuantity(10);
+        em.persist(book);
+        return book;
+    }
+}
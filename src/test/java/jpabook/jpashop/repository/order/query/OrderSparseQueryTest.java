@@ -0,0 +1,94 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.domain.item.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class OrderSparseQueryTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    OrderQueryRepository orderQueryRepository;
+
+    @Test
+    public void 요청한_필드만_조회() throws Exception {
+        // given
+        Long orderId = createOrder();
+
+        // when
+        List<Map<String, Object>> orders = orderQueryRepository.findSparse(
+                OrderFieldSelection.of(List.of("status"), null), orderId - 1, 1);
+
+        // then - 주문 id 와 상태만
+        assertEquals(1, orders.size());
+        assertEquals(List.of("orderId", "status"), List.copyOf(orders.get(0).keySet()));
+        assertEquals(orderId, orders.get(0).get("orderId"));
+        assertEquals(OrderStatus.ORDER, orders.get(0).get("status"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void 연관_펼치기() throws Exception {
+        // given
+        Long orderId = createOrder();
+
+        // when - 회원 이름, 주문상품 수량만
+        List<Map<String, Object>> orders = orderQueryRepository.findSparse(
+                OrderFieldSelection.of(List.of("member.name", "items.count"), List.of("delivery")), orderId - 1, 1);
+
+        // then
+        Map<String, Object> order = orders.get(0);
+        assertEquals(List.of("orderId", "member", "delivery", "items"), List.copyOf(order.keySet()));
+        assertEquals(Map.of("name", "필드회원"), order.get("member"));
+        assertEquals("서울", ((Map<String, Object>) order.get("delivery")).get("city"));
+
+        List<Map<String, Object>> items = (List<Map<String, Object>>) order.get("items");
+        assertEquals(2, items.size());
+        assertEquals(Map.of("count", 3), items.get(1));
+    }
+
+    @Test
+    public void 지원하지_않는_필드() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> OrderFieldSelection.of(List.of("password"), null));
+        assertThrows(IllegalArgumentException.class, () -> OrderFieldSelection.of(List.of("member.password"), null));
+        assertThrows(IllegalArgumentException.class, () -> OrderFieldSelection.of(null, List.of("coupons")));
+    }
+
+    private Long createOrder() {
+        Member member = new Member();
+        member.setName("필드회원");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+        Order order = Order.createOrder(member, delivery,
+                OrderItem.createOrderItem(createBook("필드 JPA"), 1000, 1),
+                OrderItem.createOrderItem(createBook("필드 스프링"), 2000, 3));
+        em.persist(order);
+        em.flush();
+        em.clear();
+        return order.getId();
+    }
+
+    private Book createBook(String name) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(1000);
+        book.setStockQuantity(10);
+        em.persist(book);
+        return book;
+    }
+}
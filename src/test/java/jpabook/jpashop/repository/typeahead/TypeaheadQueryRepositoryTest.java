@@ -0,0 +1,54 @@
+package jpabook.jpashop.repository.typeahead;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class TypeaheadQueryRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TypeaheadQueryRepository typeaheadQueryRepository;
+
+    @Test
+    public void 회원_이름_앞부분_검색() throws Exception {
+        // given
+        createMember("typeahead_kim");
+        createMember("typeahead_lee");
+        createMember("typeaheadXpark");   // '_' 를 와일드카드로 처리하면 같이 검색됨
+        em.flush();
+
+        // when
+        List<Suggestion> result = typeaheadQueryRepository.findMembers("typeahead_", 20);
+        List<Suggestion> limited = typeaheadQueryRepository.findMembers("typeahead", 2);
+
+        // then
+        assertEquals(2, result.size());
+        assertEquals("typeahead_kim", result.get(0).getName());
+        assertEquals("서울", result.get(0).getDetail());
+        assertEquals(2, limited.size());
+    }
+
+    @Test
+    public void 특수문자_이스케이프() throws Exception {
+        assertEquals("50!%!_off!!%", TypeaheadQueryRepository.likePrefix("50%_off!"));
+    }
+
+    private void createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+    }
+}
@@ -0,0 +1,85 @@
+package jpabook.jpashop.retry;
+
+import jpabook.jpashop.exception.NotEnoughStockException;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConflictRetryAspectTest {
+
+    @Test
+    public void 충돌하면_다시_실행() throws Exception {
+        // given - 두 번 충돌 후 성공
+        Target target = new Target(2);
+
+        // when
+        Long result = proxy(target).order();
+
+        // then
+        assertEquals(1L, result);
+        assertEquals(3, target.calls);
+    }
+
+    @Test
+    public void 최대_횟수를_넘으면_예외() throws Exception {
+        Target target = new Target(10);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> proxy(target).order());
+        assertEquals(3, target.calls);
+    }
+
+    @Test
+    public void 충돌이_아닌_예외는_재시도_안함() throws Exception {
+        Target target = new Target(0);
+
+        assertThrows(NotEnoughStockException.class, () -> proxy(target).notEnoughStock());
+        assertEquals(1, target.calls);
+    }
+
+    @Test
+    public void 진행중인_트랜잭션_안에서는_재시도_안함() throws Exception {
+        Target target = new Target(1);
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThrows(ObjectOptimisticLockingFailureException.class, () -> proxy(target).order());
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        assertEquals(1, target.calls);
+    }
+
+    private Target proxy(Target target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ConflictRetryAspect(3, 0));
+        return factory.getProxy();
+    }
+
+    static class Target {
+
+        private final int conflicts;
+        int calls;
+
+        Target(int conflicts) {
+            this.conflicts = conflicts;
+        }
+
+        @RetryOnConflict
+        public Long order() {
+            if (++calls <= conflicts) {
+                throw new ObjectOptimisticLockingFailureException("Item", 1L);
+            }
+            return 1L;
+        }
+
+        @RetryOnConflict
+        public Long notEnoughStock() {
+            calls++;
+            throw new NotEnoughStockException("need more stock");
+        }
+    }
+}
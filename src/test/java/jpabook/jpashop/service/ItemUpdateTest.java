@@ -1,18 +1,24 @@
 package jpabook.jpashop.service;
 
 import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.ItemUpdate;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 @SpringBootTest
 public class ItemUpdateTest {
 
     @Autowired
     EntityManager em;
+    @Autowired
+    ItemService itemService;
 
     @Test
     public void updateTest() throws Exception{
@@ -23,4 +29,69 @@ public class ItemUpdateTest {
         // 변경감지 == dirty checking
         // TX commit
     }
+
+    @Test
+    @Transactional
+    public void 부분수정() throws Exception{
+        // given
+        Book book = createBook();
+        Long version = book.getVersion();
+        em.flush();
+        em.clear();
+
+        // when
+        ItemUpdate update = new ItemUpdate(book.getId(), version);
+        update.setPrice(15000);
+        itemService.updateItemPartial(update);
+
+        // then
+        Book findBook = em.find(Book.class, book.getId());
+        assertEquals(15000, findBook.getPrice());
+        // 값이 없는 필드는 그대로 유지
+        assertEquals("시골 JPA", findBook.getName());
+        assertEquals("kim", findBook.getAuthor());
+        assertEquals(version + 1, findBook.getVersion());
+    }
+
+    @Test
+    @Transactional
+    public void 부분수정_버전충돌() throws Exception{
+        // given
+        Book book = createBook();
+        Long version = book.getVersion();
+        em.flush();
+        em.clear();
+
+        ItemUpdate first = new ItemUpdate(book.getId(), version);
+        first.setStockQuantity(5);
+        itemService.updateItemPartial(first);
+
+        // when
+        ItemUpdate stale = new ItemUpdate(book.getId(), version);
+        stale.setStockQuantity(7);
+
+        // then
+        assertThrows(OptimisticLockingFailureException.class, () -> itemService.updateItemPartial(stale));
+    }
+
+    @Test
+    @Transactional
+    public void 부분수정_없는_상품() throws Exception{
+        // given
+        ItemUpdate update = new ItemUpdate(-1L, 0L);
+        update.setPrice(15000);
+
+        // then - 버전 충돌이 아니라 없는 상품
+        assertThrows(IllegalArgumentException.class, () -> itemService.updateItemPartial(update));
+    }
+
+    private Book createBook() {
+        Book book = new Book();
+        book.setName("시골 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        book.setAuthor("kim");
+        em.persist(book);
+        return book;
+    }
 }
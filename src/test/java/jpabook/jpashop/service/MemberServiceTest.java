@@ -64,4 +64,27 @@ class MemberServiceTest {
         Assertions.fail("예외가 발생해야 한다.");
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void 회원수_캐시() throws Exception{
+        // given
+        long count = memberService.countMembers();
+
+        // when - 서비스를 거치지 않고 ( 데이터 버전 그대로 ) 추가
+        Member direct = new Member();
+        direct.setName("count-direct");
+        em.persist(direct);
+        em.flush();
+
+        // then - 버전이 같으므로 count 쿼리 없이 이전 값
+        assertEquals(count, memberService.countMembers());
+
+        // when - 회원가입은 버전을 올림
+        Member member = new Member();
+        member.setName("count-join");
+        memberService.join(member);
+
+        // then - 다시 count
+        assertEquals(count + 2, memberService.countMembers());
+    }
+}
@@ -0,0 +1,127 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.OrderSearch;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// chunk 마다 별도 트랜잭션으로 취소하므로 테스트 데이터는 커밋되어 있어야 함 ( @Transactional 사용 안함 )
+@SpringBootTest(properties = "jpashop.bulk-cancel.chunk-size=2")
+class OrderBulkCancelServiceTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    OrderBulkCancelService orderBulkCancelService;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    public void 주문_일괄취소() throws Exception{
+
+        // given
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long memberId = tx.execute(status -> createMember("일괄취소 회원 1"));
+        Long itemId = tx.execute(status -> createBook(20));
+
+        Long orderId1 = orderService.order(memberId, itemId, 2);
+        Long orderId2 = orderService.order(memberId, itemId, 3);
+        Long orderId3 = orderService.order(memberId, itemId, 4);
+        Long deliveredId = orderService.order(memberId, itemId, 5);
+        completeDelivery(tx, deliveredId);
+        orderService.cancelOrder(orderId3);
+
+        // when
+        BulkCancelResult result = orderBulkCancelService.cancel(Arrays.asList(orderId1, orderId2, orderId3, deliveredId, -1L));
+
+        // then - 이미 취소된 주문, 배송완료 주문, 없는 주문은 건너뜀
+        assertEquals(5, result.getRequested());
+        assertEquals(2, result.getCancelled());
+        assertEquals(3, result.getSkipped());
+
+        assertEquals(OrderStatus.CANCEL, status(tx, orderId1));
+        assertEquals(OrderStatus.CANCEL, status(tx, orderId2));
+        assertEquals(OrderStatus.ORDER, status(tx, deliveredId));
+        // 배송완료 주문 수량만 빠져 있어야 함
+        assertEquals(15, stock(tx, itemId));
+
+        // 다시 요청해도 바뀌는 것이 없음
+        assertEquals(0, orderBulkCancelService.cancel(Arrays.asList(orderId1, orderId2)).getCancelled());
+        assertEquals(15, stock(tx, itemId));
+    }
+
+    @Test
+    public void 회원이름으로_일괄취소() throws Exception{
+
+        // given
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long memberId = tx.execute(status -> createMember("일괄취소 회원 2"));
+        Long itemId = tx.execute(status -> createBook(10));
+        for (int i = 0; i < 5; i++) {
+            orderService.order(memberId, itemId, 1);
+        }
+
+        // when - like 패턴은 이름으로 보지 않음
+        OrderSearch wildcard = new OrderSearch();
+        wildcard.setMemberName("%");
+
+        // then
+        assertEquals(0, orderBulkCancelService.cancel(wildcard).getCancelled());
+        assertEquals(5, stock(tx, itemId));
+
+        // when
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("일괄취소 회원 2");
+        BulkCancelResult result = orderBulkCancelService.cancel(orderSearch);
+
+        // then
+        assertEquals(5, result.getCancelled());
+        assertEquals(10, stock(tx, itemId));
+    }
+
+    private void completeDelivery(TransactionTemplate tx, Long orderId) {
+        tx.executeWithoutResult(status -> em.find(Order.class, orderId).getDelivery().setStatus(DeliveryStatus.COMP));
+    }
+
+    private OrderStatus status(TransactionTemplate tx, Long orderId) {
+        return tx.execute(status -> em.find(Order.class, orderId).getStatus());
+    }
+
+    private int stock(TransactionTemplate tx, Long itemId) {
+        Integer stock = tx.execute(status -> em.find(Item.class, itemId).getStockQuantity());
+        return stock == null ? 0 : stock;
+    }
+
+    private Long createBook(int stockQuantity) {
+        Book book = new Book();
+        book.setName("일괄취소 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        em.persist(book);
+        return book.getId();
+    }
+
+    private Long createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+        return member.getId();
+    }
+}
@@ -15,6 +15,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -104,6 +106,31 @@ class OrderServiceTest {
 
     }
 
+    @Test
+    public void 여러상품_주문() throws Exception{
+
+        // given
+        Member member = createMember();
+        Book book1 = createBook("시골 JPA", 10000, 10);
+        Book book2 = createBook("시골 스프링", 20000, 5);
+
+        Map<Long, Integer> itemCounts = new LinkedHashMap<>();
+        itemCounts.put(book1.getId(), 2);
+        itemCounts.put(book2.getId(), 1);
+
+        // when
+        Long orderId = orderService.order(member.getId(), itemCounts);
+
+        // then - 주문 하나에 주문상품 두 개
+        Order getOrder = orderRepository.finOne(orderId);
+
+        assertEquals(2, getOrder.getOrderItems().size());
+        assertEquals(10000 * 2 + 20000, getOrder.getTotalPrice());
+        assertEquals(8, book1.getStockQuantity());
+        assertEquals(4, book2.getStockQuantity());
+
+    }
+
     private Book createBook(String name, int price, int stockQuantity) {
         Book book = new Book();
         book.setName(name);
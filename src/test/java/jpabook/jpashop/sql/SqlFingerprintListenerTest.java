@@ -0,0 +1,155 @@
+package jpabook.jpashop.sql;
+
+import com.p6spy.engine.common.ConnectionInformation;
+import com.p6spy.engine.common.StatementInformation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlFingerprintListenerTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    private final CountingDataSourceProvider dataSource = new CountingDataSourceProvider();
+    private final QueryPlanCapturer planCapturer = new QueryPlanCapturer(dataSource, 10);
+
+    @AfterEach
+    void close() {
+        planCapturer.close();
+    }
+
+    @Test
+    public void window_교체() throws Exception {
+        // given
+        SqlFingerprintListener listener = new SqlFingerprintListener(60_000, 100, planCapturer);
+        execute(listener, "select * from member where member_id = 1", 5 * MILLIS);
+        long firstStartedAt = listener.windowStartedAt(false);
+
+        // when
+        listener.rotate();
+        execute(listener, "select * from item where item_id = 2", 3 * MILLIS);
+
+        // then - 직전 window 는 그대로 조회되고 새 window 는 새로 누적
+        List<SqlStatsDto> previous = listener.top("total", 10, true);
+        List<SqlStatsDto> current = listener.top("total", 10, false);
+        assertEquals(1, previous.size());
+        assertEquals("select * from member where member_id = ?", previous.get(0).getFingerprint());
+        assertEquals(1, current.size());
+        assertEquals("select * from item where item_id = ?", current.get(0).getFingerprint());
+        assertEquals(firstStartedAt, listener.windowStartedAt(true));
+
+        // 한번 더 교체하면 가장 오래된 window 는 버려짐
+        listener.rotate();
+        assertEquals("select * from item where item_id = ?", listener.top("total", 10, true).get(0).getFingerprint());
+        assertTrue(listener.top("total", 10, false).isEmpty());
+    }
+
+    @Test
+    public void 정렬_기준별_상위() throws Exception {
+        // given - member : 자주 실행되지만 빠름, orders : 한번이지만 느림
+        SqlFingerprintListener listener = new SqlFingerprintListener(60_000, 100, planCapturer);
+        for (int i = 0; i < 4; i++) {
+            execute(listener, "select * from member where member_id = " + i, 2 * MILLIS);
+        }
+        execute(listener, "select * from orders where order_id = 1", 20 * MILLIS);
+        execute(listener, "select * from delivery where delivery_id = 1", 1 * MILLIS);
+
+        // then
+        List<SqlStatsDto> byCount = listener.top("count", 2, false);
+        assertEquals(2, byCount.size());
+        assertEquals("select * from member where member_id = ?", byCount.get(0).getFingerprint());
+        assertEquals(4, byCount.get(0).getCount());
+
+        List<SqlStatsDto> byMax = listener.top("max", 10, false);
+        assertEquals(3, byMax.size());
+        assertEquals("select * from orders where order_id = ?", byMax.get(0).getFingerprint());
+        assertEquals("select * from delivery where delivery_id = ?", byMax.get(2).getFingerprint());
+
+        assertEquals("select * from orders where order_id = ?", listener.top("total", 1, false).get(0).getFingerprint());
+        assertThrows(IllegalArgumentException.class, () -> listener.top("rows", 10, false));
+    }
+
+    @Test
+    public void 실행계획은_fingerprint_당_한번() throws Exception {
+        // given
+        try (Connection connection = dataSource.getObject().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists plan_target (id bigint primary key, name varchar(50))");
+        }
+        dataSource.count.set(0);
+        SqlFingerprintListener listener = new SqlFingerprintListener(10, 100, planCapturer);
+
+        // when - 같은 fingerprint 의 느린 sql 여러 번, 빠른 sql 한 번
+        for (int i = 0; i < 5; i++) {
+            execute(listener, "select * from plan_target where id = " + i, 50 * MILLIS);
+        }
+        execute(listener, "select name from plan_target where id = 1", 1 * MILLIS);
+
+        // then
+        String fingerprint = "select * from plan_target where id = ?";
+        String plan = waitForPlan(listener, fingerprint);
+        assertTrue(plan.startsWith("-- node: jdbc:h2:mem:"), plan);
+        assertTrue(plan.toUpperCase().contains("PLAN_TARGET"), plan);
+        assertEquals(1, dataSource.count.get(), "EXPLAIN 은 한번만 실행");
+        assertNull(listener.top("total", 10, false).stream()
+                .filter(s -> s.getFingerprint().equals("select name from plan_target where id = ?"))
+                .findFirst().orElseThrow().getPlan(), "빠른 sql 은 계획 없음");
+    }
+
+    private String waitForPlan(SqlFingerprintListener listener, String fingerprint) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            for (SqlStatsDto stats : listener.top("total", 10, false)) {
+                if (stats.getFingerprint().equals(fingerprint) && stats.getPlan() != null) {
+                    return stats.getPlan();
+                }
+            }
+            Thread.sleep(50);
+        }
+        return fail("실행 계획이 남지 않음");
+    }
+
+    private void execute(SqlFingerprintListener listener, String sql, long elapsedNanos) {
+        StatementInformation statement = new StatementInformation(ConnectionInformation.fromTestConnection(null));
+        statement.setStatementQuery(sql);
+        listener.onAfterAnyExecute(statement, elapsedNanos, null);
+    }
+
+    // EXPLAIN 용 커넥션을 몇 번 얻었는지 셈
+    private static class CountingDataSourceProvider implements ObjectProvider<DataSource> {
+
+        private final DataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:sql_fingerprint_test;DB_CLOSE_DELAY=-1", "sa", "");
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public DataSource getObject() throws BeansException {
+            count.incrementAndGet();
+            return dataSource;
+        }
+
+        @Override
+        public DataSource getObject(Object... args) throws BeansException {
+            return getObject();
+        }
+
+        @Override
+        public DataSource getIfAvailable() throws BeansException {
+            return getObject();
+        }
+
+        @Override
+        public DataSource getIfUnique() throws BeansException {
+            return getObject();
+        }
+    }
+}
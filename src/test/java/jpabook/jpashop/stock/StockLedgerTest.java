@@ -0,0 +1,203 @@
+package jpabook.jpashop.stock;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemUpdate;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.StockLedgerRepository;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "jpashop.stock.ledger.enabled=true",
+        "jpashop.stock.ledger.compact-interval-millis=3600000"
+})
+@Transactional
+class StockLedgerTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    OrderRepository orderRepository;
+    @Autowired
+    StockLedger stockLedger;
+    @Autowired
+    StockLedgerRepository stockLedgerRepository;
+    @Autowired
+    ItemService itemService;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    public void 주문_취소는_원장에만_기록() throws Exception {
+        // given
+        Member member = createMember();
+        Book book = createBook(10);
+
+        // when
+        Long orderId = orderService.order(member.getId(), book.getId(), 3);
+        em.flush();
+        em.clear();
+
+        // then - 상품 row 는 그대로, 가용 재고만 감소
+        assertEquals(10, em.find(Book.class, book.getId()).getStockQuantity());
+        assertEquals(7, stockLedger.available(book.getId()));
+        assertEquals(7, stockLedgerRepository.available(book.getId()));
+
+        // when - 취소
+        orderService.cancelOrder(orderId);
+        em.flush();
+
+        // then
+        assertEquals(OrderStatus.CANCEL, orderRepository.finOne(orderId).getStatus());
+        assertEquals(10, stockLedgerRepository.available(book.getId()));
+    }
+
+    @Test
+    public void 재고_초과_주문() throws Exception {
+        Member member = createMember();
+        Book book = createBook(5);
+
+        orderService.order(member.getId(), book.getId(), 4);
+
+        assertThrows(NotEnoughStockException.class, () -> orderService.order(member.getId(), book.getId(), 2));
+        assertEquals(1, stockLedger.available(book.getId()));
+    }
+
+    @Test
+    public void 원장_합치기() throws Exception {
+        // given
+        Member member = createMember();
+        Book book = createBook(10);
+        orderService.order(member.getId(), book.getId(), 2);
+        orderService.order(member.getId(), book.getId(), 3);
+        em.flush();
+
+        // when
+        int folded = stockLedgerRepository.fold(book.getId(), 1000);
+        em.clear();
+
+        // then
+        assertEquals(2, folded);
+        assertEquals(5, em.find(Book.class, book.getId()).getStockQuantity());
+        assertEquals(5, stockLedgerRepository.available(book.getId()));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void 동시_주문도_재고_초과_없음() throws Exception {
+        // given - 재고 5 인 상품 ( 다른 트랜잭션에서 보이도록 커밋 )
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long memberId = tx.execute(status -> createMember().getId());
+        Long bookId = tx.execute(status -> createBook(5).getId());
+
+        // when - 10 건을 동시에 1 개씩 주문
+        int threads = 10;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger ordered = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    orderService.order(memberId, bookId, 1);
+                    ordered.incrementAndGet();
+                } catch (NotEnoughStockException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // then - 잠금 후 DB 에서 다시 확인하므로 정확히 재고만큼만 주문됨
+        assertEquals(5, ordered.get());
+        assertEquals(5, rejected.get());
+        assertEquals(0, tx.execute(status -> stockLedgerRepository.available(bookId)));
+    }
+
+    @Test
+    public void 재고를_그대로_두고_수정() throws Exception {
+        // given - 상품 row 10, 원장 -3
+        Member member = createMember();
+        Book book = createBook(10);
+        orderService.order(member.getId(), book.getId(), 3);
+        em.flush();
+        em.clear();
+        Long version = em.find(Book.class, book.getId()).getVersion();
+
+        // when - 화면에 보여준 가용 재고( 7 ) 그대로 이름만 수정
+        ItemUpdate update = new ItemUpdate(book.getId(), version);
+        update.setName("JPA 2판");
+        update.setStockQuantity(stockLedger.available(book.getId()));
+        itemService.updateItemPartial(update);
+        em.clear();
+
+        // then - 원장이 남아 있어서 쓴 재고가 되살아나지 않음
+        Book updated = em.find(Book.class, book.getId());
+        assertEquals("JPA 2판", updated.getName());
+        assertEquals(10, updated.getStockQuantity());
+        assertEquals(7, stockLedgerRepository.available(book.getId()));
+
+        // when - 재고를 바꾸면 지정한 값이 새 기준
+        ItemUpdate restock = new ItemUpdate(book.getId(), updated.getVersion());
+        restock.setStockQuantity(20);
+        itemService.updateItemPartial(restock);
+        em.clear();
+
+        // then - 재고 컬럼과 기존 기록은 그대로 두고 차이( +13 )만 보정 기록
+        assertEquals(10, em.find(Book.class, book.getId()).getStockQuantity());
+        assertEquals(20, stockLedgerRepository.available(book.getId()));
+        List<Integer> deltas = em.createQuery("select l.delta from StockLedgerEntry l where l.itemId = :itemId order by l.id", Integer.class)
+                .setParameter("itemId", book.getId())
+                .getResultList();
+        assertEquals(List.of(-3, 13), deltas);
+    }
+
+    private Member createMember() {
+        Member member = new Member();
+        member.setName("회원1");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+        return member;
+    }
+
+    private Book createBook(int stockQuantity) {
+        Book book = new Book();
+        book.setName("시골 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        em.persist(book);
+        return book;
+    }
+}
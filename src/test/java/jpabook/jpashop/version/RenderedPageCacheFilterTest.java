@@ -0,0 +1,147 @@
+package jpabook.jpashop.version;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderedPageCacheFilterTest {
+
+    private static final String HTML = "<html><body>상품 목록</body></html>";
+
+    DataVersion dataVersion = new DataVersion();
+    RenderedPageCacheFilter filter = new RenderedPageCacheFilter(dataVersion, Aggregate.ITEM);
+    AtomicInteger renders = new AtomicInteger();
+
+    @Test
+    public void 두번째_조회는_캐시에서_응답() throws Exception {
+        // given
+        MockHttpServletResponse first = render(get());
+
+        // when
+        MockHttpServletResponse second = render(get());
+
+        // then - 템플릿 렌더링은 한번만
+        assertEquals(1, renders.get());
+        assertEquals(HTML, first.getContentAsString(StandardCharsets.UTF_8));
+        assertEquals(HTML, second.getContentAsString(StandardCharsets.UTF_8));
+        assertTrue(second.getContentType().startsWith("text/html"));
+        assertEquals(dataVersion.etag(Aggregate.ITEM), second.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void gzip_요청은_압축본() throws Exception {
+        // given
+        render(get());
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+
+        // when
+        MockHttpServletResponse response = render(request);
+
+        // then
+        assertEquals(1, renders.get());
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HTML, gunzip(response.getContentAsByteArray()));
+    }
+
+    @Test
+    public void 버전이_같으면_304() throws Exception {
+        // given
+        render(get());
+        String etag = dataVersion.etag(Aggregate.ITEM);
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+
+        // when
+        MockHttpServletResponse response = render(request);
+
+        // then
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(1, renders.get());
+    }
+
+    @Test
+    public void 데이터가_바뀌면_다시_렌더링() throws Exception {
+        // given
+        render(get());
+
+        // when
+        dataVersion.bump(Aggregate.ITEM);
+        render(get());
+        render(get());
+
+        // then - 바뀐 뒤 한번만 다시 렌더링
+        assertEquals(2, renders.get());
+
+        // 관련 없는 데이터는 영향 없음
+        dataVersion.bump(Aggregate.MEMBER);
+        render(get());
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    public void 쿼리_스트링이_있으면_캐시_안함() throws Exception {
+        MockHttpServletRequest request = get();
+        request.setQueryString("page=2");
+
+        render(request);
+        render(request);
+
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    public void html_이_아니면_캐시_안함() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items");
+        HttpServlet json = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                renders.incrementAndGet();
+                resp.setContentType("application/json");
+                resp.getWriter().write("[]");
+            }
+        };
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(json));
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(json));
+
+        assertEquals(2, renders.get());
+    }
+
+    private MockHttpServletResponse render(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                renders.incrementAndGet();
+                resp.setContentType("text/html;charset=UTF-8");
+                resp.getWriter().write(HTML);
+            }
+        }));
+        return response;
+    }
+
+    private MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/items");
+    }
+
+    private String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package jpabook.jpashop.version;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionEtagInterceptorTest {
+
+    DataVersion dataVersion = new DataVersion();
+    VersionEtagInterceptor interceptor = new VersionEtagInterceptor(dataVersion, Aggregate.ORDER, Aggregate.MEMBER);
+
+    @Test
+    public void 처음_조회는_ETag_와_함께_통과() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(get(null), response, null));
+        assertEquals(200, response.getStatus());
+        assertEquals(dataVersion.etag(Aggregate.ORDER, Aggregate.MEMBER), response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void 버전이_같으면_304() throws Exception {
+        // given
+        String etag = etag();
+
+        // when
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean proceed = interceptor.preHandle(get(etag), response, null);
+
+        // then - 컨트롤러까지 가지 않음
+        assertFalse(proceed);
+        assertEquals(304, response.getStatus());
+        assertEquals(etag, response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void 관련_데이터가_바뀌면_다시_조회() throws Exception {
+        // given
+        String etag = etag();
+
+        // when - 묶여 있는 데이터 중 하나라도 바뀜
+        dataVersion.bump(Aggregate.MEMBER);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // then
+        assertTrue(interceptor.preHandle(get(etag), response, null));
+        assertEquals(200, response.getStatus());
+        assertNotEquals(etag, response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void 관련_없는_데이터는_영향_없음() throws Exception {
+        String etag = etag();
+
+        dataVersion.bump(Aggregate.ITEM);
+
+        assertFalse(interceptor.preHandle(get(etag), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    public void 조회가_아니면_그대로_통과() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/orders");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request, response, null));
+        assertNull(response.getHeader(HttpHeaders.ETAG));
+    }
+
+    private String etag() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(get(null), response, null);
+        return response.getHeader(HttpHeaders.ETAG);
+    }
+
+    private MockHttpServletRequest get(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v3/orders");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return request;
+    }
+}